@@ -0,0 +1,68 @@
+package ch.evolutionsoft.benchmark.tictactoe;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.nd4j.common.primitives.Pair;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.evolutionsoft.net.game.NeuralDataHelper;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeNeuralDataConverter;
+
+/**
+ * Label conversion of all generated results, one by one and stacked, and image
+ * conversion of single playgrounds.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConverterBenchmark {
+
+  private List<Pair<INDArray, INDArray>> allPlaygroundsResults;
+
+  private Pair<INDArray, INDArray> stackedPlaygroundsResults;
+
+  private int playgroundIndex;
+
+  @Setup
+  public void readPlaygroundsResults() {
+
+    allPlaygroundsResults =
+        NeuralDataHelper.readAll(TicTacToeBenchmarkRunner.INPUTS_RESOURCE, TicTacToeBenchmarkRunner.LABELS_RESOURCE);
+    stackedPlaygroundsResults = TicTacToeNeuralDataConverter.stackFeedForwardPlaygroundLabels(allPlaygroundsResults);
+  }
+
+  @Benchmark
+  public List<Pair<INDArray, INDArray>> convertMiniMaxLabels() {
+
+    return TicTacToeNeuralDataConverter.convertMiniMaxLabels(allPlaygroundsResults);
+  }
+
+  @Benchmark
+  public INDArray convertStackedMiniMaxLabels() {
+
+    return TicTacToeNeuralDataConverter.convertStackedMiniMaxLabels(
+        stackedPlaygroundsResults.getFirst(), stackedPlaygroundsResults.getSecond());
+  }
+
+  @Benchmark
+  public INDArray convertTo3x3Image() {
+
+    playgroundIndex = (playgroundIndex + 1) % allPlaygroundsResults.size();
+
+    return TicTacToeNeuralDataConverter.convertTo3x3Image(allPlaygroundsResults.get(playgroundIndex).getFirst());
+  }
+}
@@ -0,0 +1,41 @@
+package ch.evolutionsoft.benchmark.tictactoe;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.nd4j.common.primitives.Pair;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.evolutionsoft.net.game.NeuralDataHelper;
+
+/**
+ * Reading the generated inputs and labels resources in text and binary format.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataReadBenchmark {
+
+  @Param({".txt", ".bin"})
+  public String fileExtension;
+
+  @Benchmark
+  public List<Pair<INDArray, INDArray>> readAll() {
+
+    return NeuralDataHelper.readAll(
+        TicTacToeBenchmarkRunner.INPUTS + fileExtension, TicTacToeBenchmarkRunner.LABELS + fileExtension);
+  }
+}
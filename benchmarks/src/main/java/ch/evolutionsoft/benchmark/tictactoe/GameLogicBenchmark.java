@@ -0,0 +1,70 @@
+package ch.evolutionsoft.benchmark.tictactoe;
+
+import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.nd4j.common.primitives.Pair;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.evolutionsoft.net.game.NeuralDataHelper;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeGameHelper;
+
+/**
+ * Game logic of {@link TicTacToeGameHelper} on all generated playgrounds in turn.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameLogicBenchmark {
+
+  private INDArray[] playgrounds;
+
+  private int playgroundIndex;
+
+  @Setup
+  public void readPlaygrounds() {
+
+    List<Pair<INDArray, INDArray>> allPlaygroundsResults =
+        NeuralDataHelper.readAll(TicTacToeBenchmarkRunner.INPUTS_RESOURCE, TicTacToeBenchmarkRunner.LABELS_RESOURCE);
+
+    playgrounds = new INDArray[allPlaygroundsResults.size()];
+    for (int index = 0; index < playgrounds.length; index++) {
+
+      playgrounds[index] = allPlaygroundsResults.get(index).getFirst().dup();
+    }
+  }
+
+  @Benchmark
+  public boolean hasWon() {
+
+    return TicTacToeGameHelper.hasWon(nextPlayground(), MAX_PLAYER);
+  }
+
+  @Benchmark
+  public int countStones() {
+
+    return TicTacToeGameHelper.countStones(nextPlayground());
+  }
+
+  protected INDArray nextPlayground() {
+
+    playgroundIndex = (playgroundIndex + 1) % playgrounds.length;
+
+    return playgrounds[playgroundIndex];
+  }
+}
@@ -0,0 +1,102 @@
+package ch.evolutionsoft.benchmark.tictactoe;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.nd4j.common.primitives.Pair;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeMiniMaxGenerator;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeTranspositionTable;
+
+/**
+ * Complete MiniMax generation and duplicate removal.
+ *
+ * The plain variant generates without transposition table as the original generator,
+ * its list with all duplicates is the input of the duplicate removal. The incremental
+ * variant searches in place with incremental win detection.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GenerationBenchmark {
+
+  public static final String PLAIN = "plain";
+  public static final String TRANSPOSITION_TABLE = "transpositionTable";
+  public static final String IN_PLACE = "inPlace";
+  public static final String INCREMENTAL = "incremental";
+
+  @Param({PLAIN, TRANSPOSITION_TABLE, IN_PLACE, INCREMENTAL})
+  public String generatorVariant;
+
+  private List<Pair<INDArray, INDArray>> generatedPlaygroundsResults;
+
+  private BenchmarkGenerator duplicatesGenerator;
+
+  @Setup(Level.Trial)
+  public void generatePlaygrounds() {
+
+    TicTacToeMiniMaxGenerator generator = createGenerator();
+    generator.searchInitial();
+    generatedPlaygroundsResults = generator.getGeneratedPlaygroundsLabels();
+  }
+
+  @Setup(Level.Invocation)
+  public void prepareDuplicates() {
+
+    duplicatesGenerator = new BenchmarkGenerator();
+    duplicatesGenerator.setGeneratedPlaygroundsResults(generatedPlaygroundsResults);
+  }
+
+  @Benchmark
+  public List<Pair<INDArray, INDArray>> searchInitial() {
+
+    TicTacToeMiniMaxGenerator generator = createGenerator();
+    generator.searchInitial();
+
+    return generator.getGeneratedPlaygroundsLabels();
+  }
+
+  @Benchmark
+  public List<Pair<INDArray, INDArray>> removeDuplicates() {
+
+    return duplicatesGenerator.removeDuplicates();
+  }
+
+  protected TicTacToeMiniMaxGenerator createGenerator() {
+
+    if (PLAIN.equals(generatorVariant)) {
+
+      return new TicTacToeMiniMaxGenerator();
+    }
+
+    TicTacToeMiniMaxGenerator generator = new TicTacToeMiniMaxGenerator(new TicTacToeTranspositionTable());
+    generator.setInPlaceSearch(IN_PLACE.equals(generatorVariant) || INCREMENTAL.equals(generatorVariant));
+    generator.setIncrementalWinDetection(INCREMENTAL.equals(generatorVariant));
+
+    return generator;
+  }
+
+  static class BenchmarkGenerator extends TicTacToeMiniMaxGenerator {
+
+    void setGeneratedPlaygroundsResults(List<Pair<INDArray, INDArray>> generatedPlaygroundsResults) {
+
+      this.allPlaygroundsResults = generatedPlaygroundsResults;
+    }
+  }
+}
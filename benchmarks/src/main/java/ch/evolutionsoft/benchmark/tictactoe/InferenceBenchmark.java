@@ -0,0 +1,79 @@
+package ch.evolutionsoft.benchmark.tictactoe;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.common.primitives.Pair;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.evolutionsoft.example.dl4j.tictactoe.convolutional.ConvolutionalNetMain;
+import ch.evolutionsoft.example.dl4j.tictactoe.feedforward.FeedForwardCommon;
+import ch.evolutionsoft.example.dl4j.tictactoe.feedforward.FeedForwardFourLayerMain;
+import ch.evolutionsoft.net.game.NeuralDataHelper;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeLabelConversion;
+
+/**
+ * Inference of the untrained feedforward and convolutional nets, a batch size of 1
+ * measures single playground predictions. The weights do not change the cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InferenceBenchmark {
+
+  @Param({"1", "64", "1024"})
+  public int batchSize;
+
+  private MultiLayerNetwork feedForwardNet;
+
+  private ComputationGraph convolutionalNet;
+
+  private INDArray playgrounds;
+
+  private INDArray playgroundImages;
+
+  @Setup
+  public void buildNetworks() {
+
+    FeedForwardFourLayerMain feedForwardSetup = new FeedForwardFourLayerMain();
+    feedForwardNet = new FeedForwardCommon().createNetworkModel(
+        feedForwardSetup.createHiddenLayerConfiguration(feedForwardSetup.createGeneralConfiguration()).build());
+
+    convolutionalNet = new ConvolutionalNetMain().buildNetwork();
+
+    List<Pair<INDArray, INDArray>> batchPlaygroundsResults = NeuralDataHelper.readAll(
+        TicTacToeBenchmarkRunner.INPUTS_RESOURCE, TicTacToeBenchmarkRunner.LABELS_RESOURCE).subList(0, batchSize);
+
+    playgrounds = TicTacToeLabelConversion.BINARY.stack(batchPlaygroundsResults).getFirst();
+    playgroundImages = TicTacToeLabelConversion.CONVOLUTIONAL.stack(
+        TicTacToeLabelConversion.CONVOLUTIONAL.convert(batchPlaygroundsResults)).getFirst();
+  }
+
+  @Benchmark
+  public INDArray feedForwardOutput() {
+
+    return feedForwardNet.output(playgrounds);
+  }
+
+  @Benchmark
+  public INDArray convolutionalOutput() {
+
+    return convolutionalNet.outputSingle(playgroundImages);
+  }
+}
@@ -0,0 +1,53 @@
+package ch.evolutionsoft.benchmark.tictactoe;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, which adds the allocation rate per
+ * operation to the throughput or time results. The results are written as JSON.
+ */
+public class TicTacToeBenchmarkRunner {
+
+  public static final String INPUTS = "/inputs";
+  public static final String LABELS = "/labels";
+
+  public static final String INPUTS_RESOURCE = INPUTS + ".bin";
+  public static final String LABELS_RESOURCE = LABELS + ".bin";
+
+  public static final String RESULT_FILE = "target/jmh-result.json";
+
+  private TicTacToeBenchmarkRunner() {
+    // Hide constructor
+  }
+
+  /**
+   * @param arguments optional regular expressions of benchmarks to include, all by default
+   */
+  public static void main(String[] arguments) throws RunnerException {
+
+    OptionsBuilder optionsBuilder = new OptionsBuilder();
+
+    if (0 == arguments.length) {
+
+      optionsBuilder.include(TicTacToeBenchmarkRunner.class.getPackage().getName());
+    }
+
+    for (String include : arguments) {
+
+      optionsBuilder.include(include);
+    }
+
+    Options options = optionsBuilder
+        .addProfiler(GCProfiler.class)
+        .resultFormat(ResultFormatType.JSON)
+        .result(RESULT_FILE)
+        .build();
+
+    new Runner(options).run();
+  }
+}
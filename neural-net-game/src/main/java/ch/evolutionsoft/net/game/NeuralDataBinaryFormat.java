@@ -0,0 +1,305 @@
+package ch.evolutionsoft.net.game;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Binary format for stacked feature and label matrices.
+ *
+ * A file starts with an 8 byte aligned header: magic number (int), format version (short),
+ * data type code (byte) and rank (byte), followed by one long per dimension. The raw
+ * array values follow in c order, everything is little endian.
+ *
+ * Files are written through a {@link FileChannel} and read through a {@link java.nio.MappedByteBuffer},
+ * the array data is transferred in one bulk copy into the ND4J buffer without any parsing.
+ * Resources inside a jar are read into a direct buffer instead.
+ */
+public final class NeuralDataBinaryFormat {
+
+  public static final String FILE_EXTENSION = ".bin";
+
+  public static final int MAGIC_NUMBER = 0x54545444;
+  public static final short FORMAT_VERSION = 1;
+
+  private static final byte FLOAT_CODE = 1;
+  private static final byte DOUBLE_CODE = 2;
+
+  private static final int FIXED_HEADER_BYTES = 8;
+
+  private static final Logger logger = LoggerFactory.getLogger(NeuralDataBinaryFormat.class);
+
+  private NeuralDataBinaryFormat() {
+    // Hide constructor
+  }
+
+  /**
+   * Converts text files written by {@link Nd4j#writeTxt(INDArray, String)} to the binary format.
+   *
+   * @param arguments pairs of text input path and binary output path
+   */
+  public static void main(String[] arguments) {
+
+    for (int argument = 0; argument + 1 < arguments.length; argument += 2) {
+
+      INDArray array = Nd4j.readTxt(arguments[argument]);
+      write(array, Paths.get(arguments[argument + 1]));
+
+      logger.info("Converted {} with shape {} to {}", arguments[argument], array.shapeInfoToString(),
+          arguments[argument + 1]);
+    }
+  }
+
+  public static boolean isBinaryPath(String path) {
+
+    return path.endsWith(FILE_EXTENSION);
+  }
+
+  public static void write(INDArray array, Path path) {
+
+    INDArray contiguousArray = array.dup('c');
+    byte dataTypeCode = dataTypeCode(contiguousArray.dataType());
+    long[] shape = contiguousArray.shape();
+
+    ByteBuffer header = ByteBuffer.allocate(FIXED_HEADER_BYTES + Long.BYTES * shape.length)
+        .order(ByteOrder.LITTLE_ENDIAN);
+    header.putInt(MAGIC_NUMBER);
+    header.putShort(FORMAT_VERSION);
+    header.put(dataTypeCode);
+    header.put((byte) shape.length);
+    for (long dimension : shape) {
+
+      header.putLong(dimension);
+    }
+    header.flip();
+
+    try (FileChannel channel = FileChannel.open(path,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+      writeFully(channel, header);
+      writeFully(channel, littleEndianData(contiguousArray));
+
+    } catch (IOException ioe) {
+
+      throw new UncheckedIOException("Binary data not written to " + path, ioe);
+    }
+  }
+
+  public static INDArray read(Path path) {
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+      return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+
+    } catch (IOException ioe) {
+
+      throw new UncheckedIOException("Binary data not read from " + path, ioe);
+    }
+  }
+
+  /**
+   * Reads a classpath resource, memory mapped if it is a plain file.
+   */
+  public static INDArray readResource(String resourcePath) {
+
+    URL resourceUrl = NeuralDataBinaryFormat.class.getResource(resourcePath);
+    if (null == resourceUrl) {
+
+      throw new IllegalArgumentException("Resource not found: " + resourcePath);
+    }
+
+    try {
+
+      if ("file".equals(resourceUrl.getProtocol())) {
+
+        return read(Paths.get(resourceUrl.toURI()));
+      }
+
+      try (InputStream resourceStream = resourceUrl.openStream();
+          ReadableByteChannel channel = Channels.newChannel(resourceStream)) {
+
+        return read(readFully(channel, resourceUrl.openConnection().getContentLengthLong()));
+      }
+
+    } catch (IOException ioe) {
+
+      throw new UncheckedIOException("Binary resource not read: " + resourcePath, ioe);
+
+    } catch (URISyntaxException use) {
+
+      throw new IllegalArgumentException("Invalid resource path: " + resourcePath, use);
+    }
+  }
+
+  /**
+   * @throws IllegalArgumentException if the buffer holds no complete array of this format
+   */
+  public static INDArray read(ByteBuffer buffer) {
+
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+    if (buffer.remaining() < FIXED_HEADER_BYTES) {
+
+      throw new IllegalArgumentException("Binary neural data header truncated");
+    }
+
+    if (MAGIC_NUMBER != buffer.getInt()) {
+
+      throw new IllegalArgumentException("No binary neural data, magic number missing");
+    }
+
+    short version = buffer.getShort();
+    if (FORMAT_VERSION != version) {
+
+      throw new IllegalArgumentException("Unsupported binary format version " + version);
+    }
+
+    DataType dataType = dataType(buffer.get());
+    long[] shape = new long[buffer.get() & 0xFF];
+    if (buffer.remaining() < Long.BYTES * shape.length) {
+
+      throw new IllegalArgumentException("Binary neural data shape truncated");
+    }
+
+    long length = 1;
+    for (int dimension = 0; dimension < shape.length; dimension++) {
+
+      shape[dimension] = buffer.getLong();
+      if (shape[dimension] < 0 || shape[dimension] > Integer.MAX_VALUE) {
+
+        throw new IllegalArgumentException("Invalid binary neural data dimension " + shape[dimension]);
+      }
+      length = Math.min(length * shape[dimension], Integer.MAX_VALUE + 1L);
+    }
+
+    if (length * dataType.width() != buffer.remaining()) {
+
+      throw new IllegalArgumentException("Binary neural data of " + length + " values has " +
+          buffer.remaining() + " data bytes");
+    }
+
+    ByteBuffer dataBytes = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+    if (ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN) {
+
+      dataBytes = nativeOrderCopy(dataBytes, dataType, length);
+    }
+
+    DataBuffer dataBuffer = Nd4j.createBuffer(dataBytes, dataType, Math.toIntExact(length));
+
+    return Nd4j.create(dataBuffer, shape);
+  }
+
+  static byte dataTypeCode(DataType dataType) {
+
+    if (DataType.FLOAT == dataType) {
+
+      return FLOAT_CODE;
+
+    } else if (DataType.DOUBLE == dataType) {
+
+      return DOUBLE_CODE;
+    }
+
+    throw new IllegalArgumentException("Unsupported data type " + dataType);
+  }
+
+  static DataType dataType(byte dataTypeCode) {
+
+    if (FLOAT_CODE == dataTypeCode) {
+
+      return DataType.FLOAT;
+
+    } else if (DOUBLE_CODE == dataTypeCode) {
+
+      return DataType.DOUBLE;
+    }
+
+    throw new IllegalArgumentException("Unsupported data type code " + dataTypeCode);
+  }
+
+  static ByteBuffer littleEndianData(INDArray contiguousArray) {
+
+    if (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN) {
+
+      ByteBuffer nativeBytes = contiguousArray.data().asNio();
+      nativeBytes.limit((int) (contiguousArray.length() * contiguousArray.dataType().width()));
+      return nativeBytes;
+    }
+
+    ByteBuffer dataBytes = ByteBuffer.allocateDirect((int) (contiguousArray.length() * contiguousArray.dataType().width()))
+        .order(ByteOrder.LITTLE_ENDIAN);
+    if (DataType.DOUBLE == contiguousArray.dataType()) {
+
+      dataBytes.asDoubleBuffer().put(contiguousArray.data().asDouble());
+
+    } else {
+
+      dataBytes.asFloatBuffer().put(contiguousArray.data().asFloat());
+    }
+
+    return dataBytes;
+  }
+
+  static ByteBuffer nativeOrderCopy(ByteBuffer littleEndianBytes, DataType dataType, long length) {
+
+    ByteBuffer nativeBytes = ByteBuffer.allocateDirect(littleEndianBytes.remaining()).order(ByteOrder.nativeOrder());
+    for (long index = 0; index < length; index++) {
+
+      if (DataType.DOUBLE == dataType) {
+
+        nativeBytes.putDouble(littleEndianBytes.getDouble());
+
+      } else {
+
+        nativeBytes.putFloat(littleEndianBytes.getFloat());
+      }
+    }
+    nativeBytes.flip();
+
+    return nativeBytes;
+  }
+
+  static ByteBuffer readFully(ReadableByteChannel channel, long knownLength) throws IOException {
+
+    ByteBuffer buffer = ByteBuffer.allocateDirect(knownLength > 0 ? (int) knownLength : NeuralNetConstants.MEDIUM_CAPACITY);
+
+    while (channel.read(buffer) >= 0) {
+
+      if (!buffer.hasRemaining()) {
+
+        ByteBuffer largerBuffer = ByteBuffer.allocateDirect(2 * buffer.capacity());
+        buffer.flip();
+        largerBuffer.put(buffer);
+        buffer = largerBuffer;
+      }
+    }
+    buffer.flip();
+
+    return buffer;
+  }
+
+  static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+
+    while (buffer.hasRemaining()) {
+
+      channel.write(buffer);
+    }
+  }
+}
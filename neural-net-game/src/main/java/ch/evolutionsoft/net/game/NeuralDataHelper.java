@@ -98,10 +98,15 @@ public class NeuralDataHelper {
 
   public static List<Pair<INDArray, INDArray>> readAll(String inputPath, String labelPath) {
 
-    List<Pair<INDArray, INDArray>> allPlaygroundsResult = new ArrayList<>();
+    return toRowPairs(readInputs(inputPath), readLabels(labelPath));
+  }
 
-    INDArray inputs = readInputs(inputPath);
-    INDArray labels = readLabels(labelPath);
+  /**
+   * @return one pair of input row and label row per row of the stacked inputs
+   */
+  public static List<Pair<INDArray, INDArray>> toRowPairs(INDArray inputs, INDArray labels) {
+
+    List<Pair<INDArray, INDArray>> allPlaygroundsResult = new ArrayList<>();
 
     for (int row = 0; row < inputs.shape()[0]; row++) {
 
@@ -111,14 +116,28 @@ public class NeuralDataHelper {
     return allPlaygroundsResult;
   }
 
+  /**
+   * Reads a classpath resource in {@link NeuralDataBinaryFormat} for paths ending
+   * with .bin, in the Nd4j text format otherwise.
+   */
   public static INDArray readInputs(String inputPath) {
 
-    return Nd4j.readTxtString(NeuralDataHelper.class.getResourceAsStream(inputPath));
+    return readResource(inputPath);
   }
 
   public static INDArray readLabels(String labelPath) {
 
-    return Nd4j.readTxtString(NeuralDataHelper.class.getResourceAsStream(labelPath));
+    return readResource(labelPath);
+  }
+
+  protected static INDArray readResource(String resourcePath) {
+
+    if (NeuralDataBinaryFormat.isBinaryPath(resourcePath)) {
+
+      return NeuralDataBinaryFormat.readResource(resourcePath);
+    }
+
+    return Nd4j.readTxtString(NeuralDataHelper.class.getResourceAsStream(resourcePath));
   }
   
   public static void writeLabelDirectories(List<Pair<INDArray, INDArray>> convertedPlaygroundsResults) {
@@ -168,6 +187,15 @@ public class NeuralDataHelper {
 
   }
 
+  public static void writeBinaryData(List<Pair<INDArray, INDArray>> allPlaygroundsResults) {
+
+    Pair<INDArray, INDArray> stackedPlaygroundsLabels =
+        TicTacToeNeuralDataConverter.stackFeedForwardPlaygroundLabels(allPlaygroundsResults);
+
+    NeuralDataBinaryFormat.write(stackedPlaygroundsLabels.getFirst(), Paths.get("inputs.bin"));
+    NeuralDataBinaryFormat.write(stackedPlaygroundsLabels.getSecond(), Paths.get("labels.bin"));
+  }
+
   public static void writeSeparatedData(List<Pair<INDArray, INDArray>> allPlaygroundsResults) {
 
     List<Pair<INDArray, INDArray>> maxPlaygroundsLabels = new LinkedList<>();
@@ -0,0 +1,390 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import static ch.evolutionsoft.net.game.NeuralNetConstants.DOUBLE_COMPARISON_EPSILON;
+import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * Primitive TicTacToe playground with one 9 bit mask per player.
+ *
+ * Bit i of a mask corresponds to the playground field with index i, e.g. FIELD_1 is
+ * the lowest bit. Game logic works on the masks only, INDArrays are touched once
+ * by the conversion methods at the boundaries.
+ *
+ * Other m,n,k boards use the win lines and size of their {@link TicTacToeBoardConfiguration},
+ * the static mask helpers are those of the standard 3x3 board.
+ *
+ * Empty fields are iterated by clearing the lowest bit of the empty mask:
+ *
+ * <pre>
+ * for (int empty = bitboard.getEmptyMask(); empty != 0; empty &amp;= empty - 1) {
+ *   int field = Integer.numberOfTrailingZeros(empty);
+ * }
+ * </pre>
+ */
+public class TicTacToeBitboard {
+
+  public static final int EMPTY_MASK = 0;
+  public static final int FULL_MASK = (1 << COLUMN_COUNT) - 1;
+
+  public static final int[] WIN_LINE_MASKS = new int[] {
+      fieldMask(FIELD_1, FIELD_2, FIELD_3),
+      fieldMask(FIELD_4, FIELD_5, FIELD_6),
+      fieldMask(FIELD_7, FIELD_8, FIELD_9),
+      fieldMask(FIELD_1, FIELD_4, FIELD_7),
+      fieldMask(FIELD_2, FIELD_5, FIELD_8),
+      fieldMask(FIELD_3, FIELD_6, FIELD_9),
+      fieldMask(FIELD_1, FIELD_5, FIELD_9),
+      fieldMask(FIELD_3, FIELD_5, FIELD_7)
+  };
+
+  /**
+   * Base 3 value of each field mask, a field digit is 1 for max and 2 for min stones.
+   */
+  private static final int[] BASE3_FIELD_VALUES = new int[FULL_MASK + 1];
+  static {
+    for (int mask = 1; mask <= FULL_MASK; mask++) {
+
+      int lowestField = Integer.numberOfTrailingZeros(mask);
+      BASE3_FIELD_VALUES[mask] = BASE3_FIELD_VALUES[mask & (mask - 1)] + power3(lowestField);
+    }
+  }
+
+  public static final int BASE3_INDEX_COUNT = power3(COLUMN_COUNT);
+
+  protected final TicTacToeBoardConfiguration configuration;
+
+  protected int maxStones;
+  protected int minStones;
+
+  public TicTacToeBitboard() {
+
+    this(EMPTY_MASK, EMPTY_MASK);
+  }
+
+  public TicTacToeBitboard(int maxStones, int minStones) {
+
+    this(TicTacToeBoardConfiguration.STANDARD, maxStones, minStones);
+  }
+
+  public TicTacToeBitboard(TicTacToeBoardConfiguration configuration) {
+
+    this(configuration, EMPTY_MASK, EMPTY_MASK);
+  }
+
+  public TicTacToeBitboard(TicTacToeBoardConfiguration configuration, int maxStones, int minStones) {
+
+    this.configuration = configuration;
+    this.maxStones = maxStones;
+    this.minStones = minStones;
+  }
+
+  public static TicTacToeBitboard fromPlayground(INDArray playground) {
+
+    return fromFields(playground.toDoubleVector());
+  }
+
+  public static TicTacToeBitboard fromPlayground(TicTacToeBoardConfiguration configuration, INDArray playground) {
+
+    return fromFields(configuration, playground.toDoubleVector());
+  }
+
+  public static TicTacToeBitboard fromFields(double[] playgroundFields) {
+
+    return fromFields(TicTacToeBoardConfiguration.STANDARD, playgroundFields);
+  }
+
+  public static TicTacToeBitboard fromFields(TicTacToeBoardConfiguration configuration, double[] playgroundFields) {
+
+    int maxStones = EMPTY_MASK;
+    int minStones = EMPTY_MASK;
+
+    for (int field = 0; field < configuration.getFieldCount(); field++) {
+
+      if (TicTacToeGameHelper.equalsEpsilon(playgroundFields[field], MAX_PLAYER, DOUBLE_COMPARISON_EPSILON)) {
+
+        maxStones |= 1 << field;
+
+      } else if (TicTacToeGameHelper.equalsEpsilon(playgroundFields[field], MIN_PLAYER, DOUBLE_COMPARISON_EPSILON)) {
+
+        minStones |= 1 << field;
+      }
+    }
+
+    return new TicTacToeBitboard(configuration, maxStones, minStones);
+  }
+
+  public static int fieldMask(int... fields) {
+
+    int mask = EMPTY_MASK;
+    for (int field : fields) {
+
+      mask |= 1 << field;
+    }
+
+    return mask;
+  }
+
+  public static int base3Index(int maxStones, int minStones) {
+
+    return BASE3_FIELD_VALUES[maxStones] + 2 * BASE3_FIELD_VALUES[minStones];
+  }
+
+  static int power3(int exponent) {
+
+    int power = 1;
+    for (int n = 0; n < exponent; n++) {
+
+      power *= 3;
+    }
+
+    return power;
+  }
+
+  public static boolean hasWon(int playerStones) {
+
+    for (int winLineMask : WIN_LINE_MASKS) {
+
+      if ((playerStones & winLineMask) == winLineMask) {
+
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  public void makeMove(int field, double player) {
+
+    if (player == MAX_PLAYER) {
+
+      maxStones |= 1 << field;
+
+    } else {
+
+      minStones |= 1 << field;
+    }
+  }
+
+  public void undoMove(int field) {
+
+    int fieldClearMask = ~(1 << field);
+
+    maxStones &= fieldClearMask;
+    minStones &= fieldClearMask;
+  }
+
+  public void setStones(int maxStones, int minStones) {
+
+    this.maxStones = maxStones;
+    this.minStones = minStones;
+  }
+
+  /**
+   * @return the unique base 3 encoding of this playground in [0, 3^9), larger boards
+   * have to fit into an int, see {@link #toPositionIndex()}
+   */
+  public int toBase3Index() {
+
+    if (TicTacToeBoardConfiguration.STANDARD == configuration) {
+
+      return base3Index(maxStones, minStones);
+    }
+
+    return Math.toIntExact(toPositionIndex());
+  }
+
+  /**
+   * @return the unique base 3 encoding of this playground in [0, 3^fieldCount)
+   */
+  public long toPositionIndex() {
+
+    return configuration.base3Index(maxStones, minStones);
+  }
+
+  public INDArray toPlayground() {
+
+    return Nd4j.create(toFields(), new long[] {ROW_COUNT, configuration.getFieldCount()},
+        Nd4j.defaultFloatingPointType());
+  }
+
+  public float[] toFields() {
+
+    float[] playgroundFields = new float[configuration.getFieldCount()];
+
+    for (int field = 0; field < playgroundFields.length; field++) {
+
+      playgroundFields[field] = (float) getField(field);
+    }
+
+    return playgroundFields;
+  }
+
+  public double getField(int field) {
+
+    int fieldBit = 1 << field;
+
+    if ((maxStones & fieldBit) != 0) {
+
+      return MAX_PLAYER;
+
+    } else if ((minStones & fieldBit) != 0) {
+
+      return MIN_PLAYER;
+    }
+
+    return EMPTY_FIELD_VALUE;
+  }
+
+  public boolean isEmpty(int field) {
+
+    return ((maxStones | minStones) & (1 << field)) == 0;
+  }
+
+  public boolean hasWon(double player) {
+
+    return configuration.hasWon(getStones(player));
+  }
+
+  public boolean noEmptyFieldsLeft() {
+
+    return (maxStones | minStones) == configuration.getFullMask();
+  }
+
+  public boolean allFieldsEmpty() {
+
+    return (maxStones | minStones) == EMPTY_MASK;
+  }
+
+  public int getEmptyMask() {
+
+    return ~(maxStones | minStones) & configuration.getFullMask();
+  }
+
+  public List<Integer> getEmptyFields() {
+
+    List<Integer> emptyFields = new LinkedList<>();
+    for (int empty = getEmptyMask(); empty != 0; empty &= empty - 1) {
+
+      emptyFields.add(Integer.numberOfTrailingZeros(empty));
+    }
+
+    return emptyFields;
+  }
+
+  public int countStones() {
+
+    return Integer.bitCount(maxStones | minStones);
+  }
+
+  public int countMaxStones() {
+
+    return Integer.bitCount(maxStones);
+  }
+
+  public int countMinStones() {
+
+    return Integer.bitCount(minStones);
+  }
+
+  public boolean isMaxMove() {
+
+    return countStones() % 2 == 0;
+  }
+
+  public double getCurrentPlayer() {
+
+    if (isMaxMove()) {
+
+      return MAX_PLAYER;
+    }
+
+    return MIN_PLAYER;
+  }
+
+  public int getStones(double player) {
+
+    if (player == MAX_PLAYER) {
+
+      return maxStones;
+    }
+
+    return minStones;
+  }
+
+  public int getMaxStones() {
+
+    return maxStones;
+  }
+
+  public int getMinStones() {
+
+    return minStones;
+  }
+
+  public TicTacToeBoardConfiguration getConfiguration() {
+
+    return configuration;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+
+    if (this == other) {
+
+      return true;
+    }
+
+    if (!(other instanceof TicTacToeBitboard)) {
+
+      return false;
+    }
+
+    TicTacToeBitboard otherBitboard = (TicTacToeBitboard) other;
+    return maxStones == otherBitboard.maxStones && minStones == otherBitboard.minStones &&
+        configuration.equals(otherBitboard.configuration);
+  }
+
+  @Override
+  public int hashCode() {
+
+    return (maxStones << configuration.getFieldCount()) | minStones;
+  }
+
+  @Override
+  public String toString() {
+
+    StringBuilder playgroundString = new StringBuilder();
+    int fieldCount = configuration.getFieldCount();
+    int width = configuration.getWidth();
+
+    for (int field = 0; field < fieldCount; field++) {
+
+      double fieldValue = getField(field);
+      if (fieldValue == MAX_PLAYER) {
+
+        playgroundString.append('X');
+
+      } else if (fieldValue == MIN_PLAYER) {
+
+        playgroundString.append('O');
+
+      } else {
+
+        playgroundString.append('-');
+      }
+
+      if (field % width == width - 1 && field < fieldCount - 1) {
+
+        playgroundString.append('/');
+      }
+    }
+
+    return playgroundString.toString();
+  }
+}
@@ -0,0 +1,270 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * Board width, height and win length of an m,n,k game, with the win line masks
+ * precomputed once per configuration.
+ *
+ * Fields are numbered row by row as for the standard 3x3 playground, bit i of a
+ * {@link TicTacToeBitboard} mask is field i. Both stone masks have to fit into an int,
+ * which limits boards to {@link #MAX_FIELD_COUNT} fields.
+ *
+ * Win values grow with the field count, so that MAX_WIN - fieldCount > DRAW > MIN_WIN + fieldCount
+ * holds as for the {@link TicTacToeConstants#MAX_WIN} and {@link TicTacToeConstants#MIN_WIN}
+ * of the standard board.
+ */
+public final class TicTacToeBoardConfiguration {
+
+  public static final int MAX_FIELD_COUNT = 30;
+
+  public static final TicTacToeBoardConfiguration STANDARD =
+      new TicTacToeBoardConfiguration(IMAGE_SIZE, IMAGE_SIZE, IMAGE_SIZE);
+
+  /**
+   * Base 3 values are looked up in two halves of this many fields.
+   */
+  private static final int BASE3_TABLE_FIELDS = 15;
+
+  private final int width;
+  private final int height;
+  private final int winLength;
+  private final int fieldCount;
+  private final int fullMask;
+  private final int[] winLineMasks;
+
+  private final long[] lowBase3Values;
+  private final long[] highBase3Values;
+
+  public TicTacToeBoardConfiguration(int width, int height, int winLength) {
+
+    if (width <= 0 || height <= 0 || width * height > MAX_FIELD_COUNT) {
+
+      throw new IllegalArgumentException("Invalid board size " + width + "x" + height);
+    }
+
+    if (winLength <= 0 || winLength > Math.max(width, height)) {
+
+      throw new IllegalArgumentException("Invalid win length " + winLength + " for board " + width + "x" + height);
+    }
+
+    this.width = width;
+    this.height = height;
+    this.winLength = winLength;
+    this.fieldCount = width * height;
+    this.fullMask = (1 << fieldCount) - 1;
+    this.winLineMasks = createWinLineMasks();
+
+    int lowFields = Math.min(fieldCount, BASE3_TABLE_FIELDS);
+    this.lowBase3Values = createBase3Values(lowFields, 1);
+    this.highBase3Values = createBase3Values(fieldCount - lowFields, power3(lowFields));
+  }
+
+  /**
+   * @return rows, columns, diagonals and anti diagonals of win length, in this order.
+   * For the standard board equal to {@link TicTacToeBitboard#WIN_LINE_MASKS}.
+   */
+  private int[] createWinLineMasks() {
+
+    List<Integer> lineMasks = new ArrayList<>();
+    addLineMasks(lineMasks, 0, 1);
+    addLineMasks(lineMasks, 1, 0);
+    addLineMasks(lineMasks, 1, 1);
+    addLineMasks(lineMasks, 1, -1);
+
+    int[] masks = new int[lineMasks.size()];
+    for (int line = 0; line < masks.length; line++) {
+
+      masks[line] = lineMasks.get(line);
+    }
+
+    return masks;
+  }
+
+  private void addLineMasks(List<Integer> lineMasks, int rowStep, int columnStep) {
+
+    for (int row = 0; row < height; row++) {
+
+      for (int column = 0; column < width; column++) {
+
+        int lastRow = row + (winLength - 1) * rowStep;
+        int lastColumn = column + (winLength - 1) * columnStep;
+
+        if (lastRow < height && lastColumn >= 0 && lastColumn < width) {
+
+          int lineMask = TicTacToeBitboard.EMPTY_MASK;
+          for (int step = 0; step < winLength; step++) {
+
+            lineMask |= 1 << field(row + step * rowStep, column + step * columnStep);
+          }
+
+          lineMasks.add(lineMask);
+        }
+      }
+    }
+  }
+
+  private static long[] createBase3Values(int fields, long fieldFactor) {
+
+    long[] base3Values = new long[1 << fields];
+    for (int mask = 1; mask < base3Values.length; mask++) {
+
+      int lowestField = Integer.numberOfTrailingZeros(mask);
+      base3Values[mask] = base3Values[mask & (mask - 1)] + fieldFactor * power3(lowestField);
+    }
+
+    return base3Values;
+  }
+
+  static long power3(int exponent) {
+
+    long power = 1;
+    for (int n = 0; n < exponent; n++) {
+
+      power *= 3;
+    }
+
+    return power;
+  }
+
+  public int field(int row, int column) {
+
+    return row * width + column;
+  }
+
+  public boolean hasWon(int playerStones) {
+
+    for (int winLineMask : winLineMasks) {
+
+      if ((playerStones & winLineMask) == winLineMask) {
+
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * @return the unique base 3 encoding of the playground in [0, 3^fieldCount),
+   * for the standard board equal to {@link TicTacToeBitboard#base3Index(int, int)}
+   */
+  public long base3Index(int maxStones, int minStones) {
+
+    return base3Value(maxStones) + 2 * base3Value(minStones);
+  }
+
+  private long base3Value(int stones) {
+
+    return lowBase3Values[stones & (lowBase3Values.length - 1)] +
+        highBase3Values[stones >>> BASE3_TABLE_FIELDS];
+  }
+
+  /**
+   * @return a new empty playground row [1, fieldCount]
+   */
+  public INDArray emptyPlayground() {
+
+    return Nd4j.zeros(ROW_COUNT, fieldCount);
+  }
+
+  public int getCenterField() {
+
+    return field(height / 2, width / 2);
+  }
+
+  public int getWidth() {
+
+    return width;
+  }
+
+  public int getHeight() {
+
+    return height;
+  }
+
+  public int getWinLength() {
+
+    return winLength;
+  }
+
+  public int getFieldCount() {
+
+    return fieldCount;
+  }
+
+  public int getFullMask() {
+
+    return fullMask;
+  }
+
+  public int[] getWinLineMasks() {
+
+    return winLineMasks.clone();
+  }
+
+  public int getWinLineCount() {
+
+    return winLineMasks.length;
+  }
+
+  /**
+   * @return the number of base 3 indices 3^fieldCount
+   */
+  public long getPositionCount() {
+
+    return power3(fieldCount);
+  }
+
+  public int getMaxWin() {
+
+    return fieldCount + 1;
+  }
+
+  public int getMinWin() {
+
+    return -getMaxWin();
+  }
+
+  public boolean isStandard() {
+
+    return equals(STANDARD);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+
+    if (this == other) {
+
+      return true;
+    }
+
+    if (!(other instanceof TicTacToeBoardConfiguration)) {
+
+      return false;
+    }
+
+    TicTacToeBoardConfiguration otherConfiguration = (TicTacToeBoardConfiguration) other;
+    return width == otherConfiguration.width && height == otherConfiguration.height &&
+        winLength == otherConfiguration.winLength;
+  }
+
+  @Override
+  public int hashCode() {
+
+    return Arrays.hashCode(new int[] {width, height, winLength});
+  }
+
+  @Override
+  public String toString() {
+
+    return width + "x" + height + " k=" + winLength;
+  }
+}
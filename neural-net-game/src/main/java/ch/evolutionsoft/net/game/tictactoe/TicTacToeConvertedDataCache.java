@@ -0,0 +1,251 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.nd4j.common.primitives.Pair;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.evolutionsoft.net.game.NeuralDataBinaryFormat;
+import ch.evolutionsoft.net.game.NeuralDataHelper;
+import ch.evolutionsoft.net.game.NeuralNetConstants;
+
+/**
+ * Content addressed disk cache of the stacked features and labels of a
+ * {@link TicTacToeLabelConversion}, so that repeated trainings on the same MiniMax data
+ * skip parsing and converting it.
+ *
+ * The key is the SHA-256 hash of the playground and result source bytes, the conversion,
+ * the board and {@link TicTacToeNeuralDataConverter#CONVERSION_VERSION}. Entries are two
+ * {@link NeuralDataBinaryFormat} files key-features.bin and key-labels.bin in the directory
+ * of the system property data.cacheDirectory, default dataCache. They are written to a
+ * temporary file and renamed atomically, unreadable entries are converted again. With
+ * data.cacheDisabled=true every call converts.
+ */
+public class TicTacToeConvertedDataCache {
+
+  public static final String DIRECTORY_PROPERTY = "data.cacheDirectory";
+  public static final String DISABLED_PROPERTY = "data.cacheDisabled";
+
+  public static final String DEFAULT_DIRECTORY = "dataCache";
+
+  private static final String FEATURES_SUFFIX = "-features" + NeuralDataBinaryFormat.FILE_EXTENSION;
+  private static final String LABELS_SUFFIX = "-labels" + NeuralDataBinaryFormat.FILE_EXTENSION;
+  private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+  private static final Logger logger = LoggerFactory.getLogger(TicTacToeConvertedDataCache.class);
+
+  protected final Path directory;
+  protected final boolean enabled;
+
+  public TicTacToeConvertedDataCache(Path directory, boolean enabled) {
+
+    this.directory = directory;
+    this.enabled = enabled;
+  }
+
+  public static TicTacToeConvertedDataCache fromSystemProperties() {
+
+    return new TicTacToeConvertedDataCache(
+        Paths.get(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY)),
+        !Boolean.getBoolean(DISABLED_PROPERTY));
+  }
+
+  /**
+   * @param inputResource classpath resource of the playgrounds as read by {@link NeuralDataHelper#readAll}
+   * @param labelResource classpath resource of the MiniMax results
+   */
+  public Pair<INDArray, INDArray> readConvertedResources(TicTacToeLabelConversion conversion,
+      TicTacToeBoardConfiguration configuration, String inputResource, String labelResource) {
+
+    return readConverted(conversion, configuration,
+        resourceUrl(inputResource), resourceUrl(labelResource));
+  }
+
+  /**
+   * @return the stacked features and labels equal to conversion.convertStacked(configuration, playgroundsResults),
+   * from the cache if converted before
+   */
+  public Pair<INDArray, INDArray> readConverted(TicTacToeLabelConversion conversion,
+      TicTacToeBoardConfiguration configuration, URL inputUrl, URL labelUrl) {
+
+    byte[] inputBytes = readBytes(inputUrl);
+    byte[] labelBytes = readBytes(labelUrl);
+
+    if (!enabled) {
+
+      return convert(conversion, configuration, inputUrl, inputBytes, labelUrl, labelBytes);
+    }
+
+    String key = cacheKey(conversion, configuration, inputBytes, labelBytes);
+    Path featuresFile = directory.resolve(key + FEATURES_SUFFIX);
+    Path labelsFile = directory.resolve(key + LABELS_SUFFIX);
+
+    if (Files.isRegularFile(featuresFile) && Files.isRegularFile(labelsFile)) {
+
+      try {
+
+        Pair<INDArray, INDArray> cachedFeaturesLabels =
+            new Pair<>(NeuralDataBinaryFormat.read(featuresFile), NeuralDataBinaryFormat.read(labelsFile));
+        logger.info("Read {} conversion from cache {}", conversion, featuresFile);
+
+        return cachedFeaturesLabels;
+
+      } catch (IllegalArgumentException | UncheckedIOException e) {
+
+        logger.warn("Cache entry {} not readable, convert again", key, e);
+      }
+    }
+
+    Pair<INDArray, INDArray> convertedFeaturesLabels =
+        convert(conversion, configuration, inputUrl, inputBytes, labelUrl, labelBytes);
+
+    try {
+
+      Files.createDirectories(directory);
+      writeAtomically(convertedFeaturesLabels.getSecond(), labelsFile);
+      writeAtomically(convertedFeaturesLabels.getFirst(), featuresFile);
+      logger.info("Wrote {} conversion to cache {}", conversion, featuresFile);
+
+    } catch (IOException | UncheckedIOException e) {
+
+      logger.warn("Conversion not cached in {}", directory, e);
+    }
+
+    return convertedFeaturesLabels;
+  }
+
+  /**
+   * @return the hex SHA-256 hash of the source bytes, conversion, board and conversion version
+   */
+  public static String cacheKey(TicTacToeLabelConversion conversion, TicTacToeBoardConfiguration configuration,
+      byte[] inputBytes, byte[] labelBytes) {
+
+    MessageDigest digest = sha256();
+    digest.update(ByteBuffer.allocate(2 * Long.BYTES).putLong(inputBytes.length).putLong(labelBytes.length).array());
+    digest.update(inputBytes);
+    digest.update(labelBytes);
+    digest.update((conversion.name() + ':' + configuration.getWidth() + 'x' + configuration.getHeight() +
+        'k' + configuration.getWinLength() + ":v" + TicTacToeNeuralDataConverter.CONVERSION_VERSION)
+        .getBytes(StandardCharsets.UTF_8));
+
+    StringBuilder key = new StringBuilder();
+    for (byte hashByte : digest.digest()) {
+
+      key.append(String.format("%02x", hashByte));
+    }
+
+    return key.toString();
+  }
+
+  public Path getDirectory() {
+
+    return directory;
+  }
+
+  public boolean isEnabled() {
+
+    return enabled;
+  }
+
+  protected Pair<INDArray, INDArray> convert(TicTacToeLabelConversion conversion,
+      TicTacToeBoardConfiguration configuration, URL inputUrl, byte[] inputBytes, URL labelUrl, byte[] labelBytes) {
+
+    logger.info("Convert {} playgrounds of {}", conversion, inputUrl);
+
+    return conversion.convertStacked(configuration, NeuralDataHelper.toRowPairs(
+        readArray(inputUrl, inputBytes), readArray(labelUrl, labelBytes)));
+  }
+
+  /**
+   * Reads the {@link NeuralDataBinaryFormat} for URLs ending with .bin, the Nd4j text format otherwise.
+   */
+  protected static INDArray readArray(URL url, byte[] bytes) {
+
+    if (NeuralDataBinaryFormat.isBinaryPath(url.getPath())) {
+
+      ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+      buffer.put(bytes).flip();
+
+      return NeuralDataBinaryFormat.read(buffer);
+    }
+
+    return Nd4j.readTxtString(new ByteArrayInputStream(bytes));
+  }
+
+  /**
+   * Writes to a temporary file of a unique name first, so that processes converting the
+   * same entry concurrently do not write into each other's file.
+   */
+  protected static void writeAtomically(INDArray array, Path file) throws IOException {
+
+    Path temporaryFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), TEMPORARY_FILE_SUFFIX);
+
+    try {
+
+      NeuralDataBinaryFormat.write(array, temporaryFile);
+      Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+    } finally {
+
+      Files.deleteIfExists(temporaryFile);
+    }
+  }
+
+  static byte[] readBytes(URL url) {
+
+    try (InputStream inputStream = url.openStream()) {
+
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(NeuralNetConstants.MEDIUM_CAPACITY);
+      byte[] buffer = new byte[NeuralNetConstants.MEDIUM_CAPACITY];
+      for (int read = inputStream.read(buffer); read >= 0; read = inputStream.read(buffer)) {
+
+        bytes.write(buffer, 0, read);
+      }
+
+      return bytes.toByteArray();
+
+    } catch (IOException ioe) {
+
+      throw new UncheckedIOException("Source data not read from " + url, ioe);
+    }
+  }
+
+  static URL resourceUrl(String resourcePath) {
+
+    URL resourceUrl = TicTacToeConvertedDataCache.class.getResource(resourcePath);
+    if (null == resourceUrl) {
+
+      throw new IllegalArgumentException("Resource not found: " + resourcePath);
+    }
+
+    return resourceUrl;
+  }
+
+  static MessageDigest sha256() {
+
+    try {
+
+      return MessageDigest.getInstance("SHA-256");
+
+    } catch (NoSuchAlgorithmException nsae) {
+
+      throw new IllegalStateException("SHA-256 not available", nsae);
+    }
+  }
+}
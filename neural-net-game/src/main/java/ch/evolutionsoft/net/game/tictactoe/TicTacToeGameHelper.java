@@ -3,12 +3,18 @@ package ch.evolutionsoft.net.game.tictactoe;
 import static ch.evolutionsoft.net.game.NeuralNetConstants.DOUBLE_COMPARISON_EPSILON;
 import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
 
-import java.util.LinkedList;
 import java.util.List;
 
 import org.nd4j.linalg.api.ndarray.INDArray;
 
 public class TicTacToeGameHelper {
+
+  /**
+   * Line ranges within {@link TicTacToeBitboard#WIN_LINE_MASKS}.
+   */
+  private static final int HORIZONTAL_LINES_START = 0;
+  private static final int VERTICAL_LINES_START = 3;
+  private static final int DIAGONAL_LINES_START = 6;
   
   private TicTacToeGameHelper() {
     // Hide constructor
@@ -16,44 +22,27 @@ public class TicTacToeGameHelper {
 
   public static List<Integer> getEmptyFields(INDArray actualPlayGround) {
 
-    List<Integer> emptyFields = new LinkedList<>();
-    for (int index = 0; index < COLUMN_COUNT; index++) {
-
-      if (actualPlayGround.getInt(index) == 0) {
+    return TicTacToeBitboard.fromPlayground(actualPlayGround).getEmptyFields();
+  }
 
-        emptyFields.add(index);
-      }
-    }
+  public static List<Integer> getEmptyFields(TicTacToeBoardConfiguration configuration, INDArray actualPlayGround) {
 
-    return emptyFields;
+    return TicTacToeBitboard.fromPlayground(configuration, actualPlayGround).getEmptyFields();
   }
 
   public static boolean noEmptyFieldsLeft(INDArray actualPlayGround) {
 
-    for (int index = 0; index < COLUMN_COUNT; index++) {
-
-      double currentField = actualPlayGround.getDouble(index);
-      if (isEmpty(currentField)) {
+    return TicTacToeBitboard.fromPlayground(actualPlayGround).noEmptyFieldsLeft();
+  }
 
-        return false;
-      }
-    }
+  public static boolean noEmptyFieldsLeft(TicTacToeBoardConfiguration configuration, INDArray actualPlayGround) {
 
-    return true;
+    return TicTacToeBitboard.fromPlayground(configuration, actualPlayGround).noEmptyFieldsLeft();
   }
 
   public static boolean allFieldsEmpty(INDArray actualPlayGround) {
 
-    for (int index = 0; index < COLUMN_COUNT; index++) {
-
-      double currentField = actualPlayGround.getDouble(index);
-      if (!isEmpty(currentField)) {
-
-        return false;
-      }
-    }
-
-    return true;
+    return TicTacToeBitboard.fromPlayground(actualPlayGround).allFieldsEmpty();
   }
 
   public static boolean isEmpty(double currentField) {
@@ -87,25 +76,35 @@ public class TicTacToeGameHelper {
     return countStones % 2 == 0;
   }
 
+  /**
+   * @return the stones of a playground row of any m,n,k board or of a playground image
+   */
   public static int countStones(INDArray playground) {
 
-    int countStones = 0;
-    
-    if (COLUMN_COUNT == playground.shape()[0]) {
+    if (COLUMN_COUNT == playground.length()) {
       
-      for (int column = 0; column < COLUMN_COUNT; column++) {
-        
-        if (!equalsEpsilon(playground.getDouble(column), EMPTY_FIELD_VALUE, DOUBLE_COMPARISON_EPSILON)) {
-  
-          countStones++;
-        }
-      }
-      
-    } else {
-      
-      countStones = countMaxStones(playground) + countMinStones(playground);
+      return TicTacToeBitboard.fromPlayground(playground).countStones();
+
+    } else if (playground.rank() <= 2) {
+
+      return countPlaygroundStones(playground);
     }
     
+    return countMaxStones(playground) + countMinStones(playground);
+  }
+
+  protected static int countPlaygroundStones(INDArray playground) {
+
+    int countStones = 0;
+
+    for (double fieldValue : playground.toDoubleVector()) {
+
+      if (!isEmpty(fieldValue)) {
+
+        countStones++;
+      }
+    }
+
     return countStones;
   }
 
@@ -115,9 +114,9 @@ public class TicTacToeGameHelper {
 
     INDArray maxPlayerFields = playground.slice(MAX_PLAYER_CHANNEL);
     
-    for (int row = 0; row < IMAGE_SIZE; row++) {
+    for (int row = 0; row < maxPlayerFields.rows(); row++) {
 
-      for (int column = 0; column < IMAGE_SIZE; column++) {
+      for (int column = 0; column < maxPlayerFields.columns(); column++) {
           
         if (equalsEpsilon(maxPlayerFields.getDouble(row, column), OCCUPIED_IMAGE_POINT, DOUBLE_COMPARISON_EPSILON)) {
   
@@ -135,9 +134,9 @@ public class TicTacToeGameHelper {
 
     INDArray minPlayerFields = playground.slice(MIN_PLAYER_CHANNEL);
     
-    for (int row = 0; row < IMAGE_SIZE; row++) {
+    for (int row = 0; row < minPlayerFields.rows(); row++) {
 
-      for (int column = 0; column < IMAGE_SIZE; column++) {
+      for (int column = 0; column < minPlayerFields.columns(); column++) {
           
         if (equalsEpsilon(minPlayerFields.getDouble(row, column), OCCUPIED_IMAGE_POINT, DOUBLE_COMPARISON_EPSILON)) {
   
@@ -153,7 +152,7 @@ public class TicTacToeGameHelper {
     
     INDArray invertedPlayground = playground.dup();
 
-    for (int arrayIndex = 0; arrayIndex < COLUMN_COUNT; arrayIndex++) {
+    for (int arrayIndex = 0; arrayIndex < playground.length(); arrayIndex++) {
 
       if (equalsEpsilon(playground.getDouble(0, arrayIndex), MIN_PLAYER, DOUBLE_COMPARISON_EPSILON)) {
 
@@ -180,44 +179,42 @@ public class TicTacToeGameHelper {
 
   public static boolean hasWon(INDArray actualPlayGround, double player) {
 
-    return horizontalWin(actualPlayGround, player) ||
-           verticalWin(actualPlayGround, player) ||
-           diagonalWin(actualPlayGround, player);
+    return TicTacToeBitboard.fromPlayground(actualPlayGround).hasWon(player);
+  }
+
+  public static boolean hasWon(TicTacToeBoardConfiguration configuration, INDArray actualPlayGround, double player) {
+
+    return TicTacToeBitboard.fromPlayground(configuration, actualPlayGround).hasWon(player);
   }
 
   protected static boolean horizontalWin(INDArray actualPlayGround, double player) {
 
-    return (actualPlayGround.getDouble(FIELD_1) == player &&
-            actualPlayGround.getDouble(FIELD_2) == player &&
-            actualPlayGround.getDouble(FIELD_3) == player) ||
-           (actualPlayGround.getDouble(FIELD_4) == player &&
-            actualPlayGround.getDouble(FIELD_5) == player &&
-            actualPlayGround.getDouble(FIELD_6) == player) ||
-           (actualPlayGround.getDouble(FIELD_7) == player &&
-            actualPlayGround.getDouble(FIELD_8) == player &&
-            actualPlayGround.getDouble(FIELD_9) == player);
+    return hasWonOnLines(actualPlayGround, player, HORIZONTAL_LINES_START, VERTICAL_LINES_START);
   }
 
   protected static boolean diagonalWin(INDArray actualPlayGround, double player) {
 
-    return (actualPlayGround.getDouble(FIELD_1) == player &&
-            actualPlayGround.getDouble(FIELD_5) == player &&
-            actualPlayGround.getDouble(FIELD_9) == player) ||
-           (actualPlayGround.getDouble(FIELD_3) == player &&
-            actualPlayGround.getDouble(FIELD_5) == player &&
-            actualPlayGround.getDouble(FIELD_7) == player);
+    return hasWonOnLines(actualPlayGround, player, DIAGONAL_LINES_START, TicTacToeBitboard.WIN_LINE_MASKS.length);
   }
 
   protected static boolean verticalWin(INDArray actualPlayGround, double player) {
 
-    return (actualPlayGround.getDouble(FIELD_1) == player &&
-            actualPlayGround.getDouble(FIELD_4) == player &&
-            actualPlayGround.getDouble(FIELD_7) == player) ||
-           (actualPlayGround.getDouble(FIELD_2) == player &&
-            actualPlayGround.getDouble(FIELD_5) == player &&
-            actualPlayGround.getDouble(FIELD_8) == player) ||
-           (actualPlayGround.getDouble(FIELD_3) == player &&
-            actualPlayGround.getDouble(FIELD_6) == player &&
-            actualPlayGround.getDouble(FIELD_9) == player);
+    return hasWonOnLines(actualPlayGround, player, VERTICAL_LINES_START, DIAGONAL_LINES_START);
+  }
+
+  protected static boolean hasWonOnLines(INDArray actualPlayGround, double player, int fromLine, int toLine) {
+
+    int playerStones = TicTacToeBitboard.fromPlayground(actualPlayGround).getStones(player);
+
+    for (int line = fromLine; line < toLine; line++) {
+
+      int winLineMask = TicTacToeBitboard.WIN_LINE_MASKS[line];
+      if ((playerStones & winLineMask) == winLineMask) {
+
+        return true;
+      }
+    }
+
+    return false;
   }
 }
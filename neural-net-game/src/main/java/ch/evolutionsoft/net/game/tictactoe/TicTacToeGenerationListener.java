@@ -0,0 +1,59 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+/**
+ * Receives the search and generation events of a {@link TicTacToeMiniMaxGenerator}.
+ *
+ * All methods default to doing nothing. Workers of the parallel generation share the
+ * listener of their generator, implementations have to be thread safe for it.
+ */
+public interface TicTacToeGenerationListener {
+
+  enum Phase {
+
+    SEARCH,
+    DEDUPLICATION,
+    WRITE
+  }
+
+  /**
+   * A MiniMax or alpha beta node is entered at depth, terminal ones included.
+   */
+  default void nodeVisited(int depth) {
+  }
+
+  /**
+   * The node at depth is won or drawn, it is not expanded.
+   */
+  default void terminalReached(int depth) {
+  }
+
+  /**
+   * The alpha beta search leaves remaining moves of the node at depth unsearched.
+   */
+  default void cutoff(int depth) {
+  }
+
+  /**
+   * The alpha beta search leaves remaining moves of the node at depth unsearched after
+   * searchedMoves moves, 1 if the first move in search order refuted the node.
+   */
+  default void cutoff(int depth, int searchedMoves) {
+
+    cutoff(depth);
+  }
+
+  /**
+   * A playground and result pair is generated.
+   *
+   * @param listSize size of the generator result list after adding it, 0 for pairs
+   * passed to a playground result consumer
+   */
+  default void positionEmitted(int listSize) {
+  }
+
+  default void duplicatesRemoved(int generatedPositions, int uniquePositions) {
+  }
+
+  default void phaseCompleted(Phase phase, long elapsedNanos) {
+  }
+}
@@ -0,0 +1,271 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the events of one generation run and dumps them as JSON or CSV.
+ *
+ * Counters are {@link LongAdder}s, so one instance may be shared by the workers of
+ * {@link TicTacToeMiniMaxGenerator#searchInitialParallel()}. Nodes per second relate
+ * all visited nodes to the time of the search phase. The first move cutoff rate, the
+ * share of cutoffs caused by the first searched move, compares move orderings.
+ */
+public class TicTacToeGenerationMetrics implements TicTacToeGenerationListener {
+
+  private static final double NANOS_PER_SECOND = 1e9;
+  private static final double NANOS_PER_MILLI = 1e6;
+
+  protected final LongAdder nodes = new LongAdder();
+  protected final LongAdder terminals = new LongAdder();
+  protected final LongAdder positionsEmitted = new LongAdder();
+  protected final LongAdder firstMoveCutoffs = new LongAdder();
+  protected final LongAdder[] cutoffsByDepth = new LongAdder[TicTacToeBoardConfiguration.MAX_FIELD_COUNT + 1];
+  protected final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+  protected final LongAccumulator peakListSize = new LongAccumulator(Math::max, 0);
+
+  protected volatile int generatedPositions;
+  protected volatile int uniquePositions;
+
+  public TicTacToeGenerationMetrics() {
+
+    for (int depth = 0; depth < cutoffsByDepth.length; depth++) {
+
+      cutoffsByDepth[depth] = new LongAdder();
+    }
+
+    for (int phase = 0; phase < phaseNanos.length; phase++) {
+
+      phaseNanos[phase] = new LongAdder();
+    }
+  }
+
+  @Override
+  public void nodeVisited(int depth) {
+
+    nodes.increment();
+  }
+
+  @Override
+  public void terminalReached(int depth) {
+
+    terminals.increment();
+  }
+
+  @Override
+  public void cutoff(int depth) {
+
+    cutoffsByDepth[depth].increment();
+  }
+
+  @Override
+  public void cutoff(int depth, int searchedMoves) {
+
+    cutoff(depth);
+
+    if (1 == searchedMoves) {
+
+      firstMoveCutoffs.increment();
+    }
+  }
+
+  @Override
+  public void positionEmitted(int listSize) {
+
+    positionsEmitted.increment();
+    peakListSize.accumulate(listSize);
+  }
+
+  @Override
+  public void duplicatesRemoved(int generatedPositions, int uniquePositions) {
+
+    this.generatedPositions = generatedPositions;
+    this.uniquePositions = uniquePositions;
+  }
+
+  @Override
+  public void phaseCompleted(Phase phase, long elapsedNanos) {
+
+    phaseNanos[phase.ordinal()].add(elapsedNanos);
+  }
+
+  public long getNodes() {
+
+    return nodes.sum();
+  }
+
+  public double getNodesPerSecond() {
+
+    long searchNanos = getPhaseNanos(Phase.SEARCH);
+
+    return searchNanos > 0 ? getNodes() * NANOS_PER_SECOND / searchNanos : 0;
+  }
+
+  public long getTerminals() {
+
+    return terminals.sum();
+  }
+
+  public long getPositionsEmitted() {
+
+    return positionsEmitted.sum();
+  }
+
+  public long getCutoffs(int depth) {
+
+    return cutoffsByDepth[depth].sum();
+  }
+
+  public long getCutoffs() {
+
+    long cutoffs = 0;
+    for (LongAdder depthCutoffs : cutoffsByDepth) {
+
+      cutoffs += depthCutoffs.sum();
+    }
+
+    return cutoffs;
+  }
+
+  public long getFirstMoveCutoffs() {
+
+    return firstMoveCutoffs.sum();
+  }
+
+  /**
+   * @return the share of cutoffs caused by the first searched move, 0 without cutoffs
+   */
+  public double getFirstMoveCutoffRate() {
+
+    long cutoffs = getCutoffs();
+
+    return cutoffs > 0 ? getFirstMoveCutoffs() / (double) cutoffs : 0;
+  }
+
+  /**
+   * @return the share of generated positions removed as duplicates, 0 before any removal
+   */
+  public double getDuplicateRatio() {
+
+    return generatedPositions > 0 ? (generatedPositions - uniquePositions) / (double) generatedPositions : 0;
+  }
+
+  public long getPeakListSize() {
+
+    return peakListSize.get();
+  }
+
+  public long getPhaseNanos(Phase phase) {
+
+    return phaseNanos[phase.ordinal()].sum();
+  }
+
+  public String toJson() {
+
+    StringBuilder json = new StringBuilder("{\n");
+    json.append("  \"nodes\": ").append(getNodes()).append(",\n");
+    json.append("  \"nodesPerSecond\": ").append(format(getNodesPerSecond())).append(",\n");
+    json.append("  \"terminals\": ").append(getTerminals()).append(",\n");
+    json.append("  \"cutoffs\": ").append(getCutoffs()).append(",\n");
+    json.append("  \"firstMoveCutoffs\": ").append(getFirstMoveCutoffs()).append(",\n");
+    json.append("  \"firstMoveCutoffRate\": ").append(format(getFirstMoveCutoffRate())).append(",\n");
+    json.append("  \"cutoffsByDepth\": [");
+    for (int depth = 0; depth <= lastCutoffDepth(); depth++) {
+
+      json.append(depth > 0 ? ", " : "").append(getCutoffs(depth));
+    }
+    json.append("],\n");
+    json.append("  \"positionsEmitted\": ").append(getPositionsEmitted()).append(",\n");
+    json.append("  \"generatedPositions\": ").append(generatedPositions).append(",\n");
+    json.append("  \"uniquePositions\": ").append(uniquePositions).append(",\n");
+    json.append("  \"duplicateRatio\": ").append(format(getDuplicateRatio())).append(",\n");
+    json.append("  \"peakListSize\": ").append(getPeakListSize()).append(",\n");
+    json.append("  \"phaseMillis\": {");
+    for (Phase phase : Phase.values()) {
+
+      json.append(phase.ordinal() > 0 ? ", " : "").append('"').append(phaseName(phase)).append("\": ")
+          .append(format(getPhaseNanos(phase) / NANOS_PER_MILLI));
+    }
+    json.append("}\n}\n");
+
+    return json.toString();
+  }
+
+  /**
+   * @return one metric,value line per metric, cutoffs per depth as cutoffsDepthN
+   */
+  public String toCsv() {
+
+    StringBuilder csv = new StringBuilder("metric,value\n");
+    csv.append("nodes,").append(getNodes()).append('\n');
+    csv.append("nodesPerSecond,").append(format(getNodesPerSecond())).append('\n');
+    csv.append("terminals,").append(getTerminals()).append('\n');
+    csv.append("cutoffs,").append(getCutoffs()).append('\n');
+    csv.append("firstMoveCutoffs,").append(getFirstMoveCutoffs()).append('\n');
+    csv.append("firstMoveCutoffRate,").append(format(getFirstMoveCutoffRate())).append('\n');
+    for (int depth = 0; depth <= lastCutoffDepth(); depth++) {
+
+      csv.append("cutoffsDepth").append(depth).append(',').append(getCutoffs(depth)).append('\n');
+    }
+    csv.append("positionsEmitted,").append(getPositionsEmitted()).append('\n');
+    csv.append("generatedPositions,").append(generatedPositions).append('\n');
+    csv.append("uniquePositions,").append(uniquePositions).append('\n');
+    csv.append("duplicateRatio,").append(format(getDuplicateRatio())).append('\n');
+    csv.append("peakListSize,").append(getPeakListSize()).append('\n');
+    for (Phase phase : Phase.values()) {
+
+      csv.append(phaseName(phase)).append("Millis,").append(format(getPhaseNanos(phase) / NANOS_PER_MILLI))
+          .append('\n');
+    }
+
+    return csv.toString();
+  }
+
+  /**
+   * Writes CSV for a file name ending with .csv, JSON otherwise.
+   */
+  public void write(Path metricsFile) throws IOException {
+
+    String metrics = metricsFile.toString().endsWith(".csv") ? toCsv() : toJson();
+    Files.write(metricsFile, metrics.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private int lastCutoffDepth() {
+
+    int lastDepth = 0;
+    for (int depth = 0; depth < cutoffsByDepth.length; depth++) {
+
+      if (cutoffsByDepth[depth].sum() > 0) {
+
+        lastDepth = depth;
+      }
+    }
+
+    return lastDepth;
+  }
+
+  private static String phaseName(Phase phase) {
+
+    return phase.name().toLowerCase(Locale.ROOT);
+  }
+
+  private static String format(double value) {
+
+    return String.format(Locale.ROOT, "%.3f", value);
+  }
+
+  @Override
+  public String toString() {
+
+    return String.format(Locale.ROOT,
+        "nodes %d (%.0f/s), terminals %d, cutoffs %d (%.3f at first move), positions %d, " +
+        "duplicate ratio %.3f, peak list size %d",
+        getNodes(), getNodesPerSecond(), getTerminals(), getCutoffs(), getFirstMoveCutoffRate(), getPositionsEmitted(),
+        getDuplicateRatio(), getPeakListSize());
+  }
+}
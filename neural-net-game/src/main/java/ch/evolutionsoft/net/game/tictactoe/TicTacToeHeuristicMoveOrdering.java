@@ -0,0 +1,182 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
+
+import java.util.Arrays;
+
+/**
+ * Move ordering by the classic alpha beta heuristics, each of which can be switched on
+ * separately. Moves are searched by descending priority of
+ *
+ * <ol>
+ * <li>the hash move, the best move stored in the transposition table</li>
+ * <li>the two killer moves, which caused the latest cutoffs at the same depth</li>
+ * <li>the history score, the sum of squared remaining depths of the cutoffs the move
+ * caused for the player</li>
+ * <li>the static priority, the number of win lines through the field: center,
+ * corners, then edges on the standard board</li>
+ * </ol>
+ *
+ * and by field index for equal priority. History scores are halved when one grows
+ * too large, so recent cutoffs weigh more.
+ *
+ * Not thread safe, {@link #forWorker()} creates an instance with empty killer moves
+ * and history for each worker.
+ */
+public class TicTacToeHeuristicMoveOrdering implements TicTacToeMoveOrdering {
+
+  private static final int HASH_MOVE_SCORE = 1 << 30;
+  private static final int FIRST_KILLER_SCORE = 1 << 29;
+  private static final int SECOND_KILLER_SCORE = 1 << 28;
+
+  private static final int HISTORY_SHIFT = 6;
+  private static final int MAX_HISTORY_SCORE = (SECOND_KILLER_SCORE >> HISTORY_SHIFT) - 1;
+
+  protected final TicTacToeBoardConfiguration configuration;
+
+  protected final boolean staticPriority;
+  protected final boolean hashMoveFirst;
+  protected final boolean killerMoves;
+  protected final boolean historyHeuristic;
+
+  protected final int[] fieldPriorities;
+
+  protected final int[][] killers;
+
+  protected final int[][] historyScores;
+
+  protected final int[] moveScores;
+
+  public TicTacToeHeuristicMoveOrdering(TicTacToeBoardConfiguration configuration, boolean staticPriority,
+      boolean hashMoveFirst, boolean killerMoves, boolean historyHeuristic) {
+
+    this.configuration = configuration;
+    this.staticPriority = staticPriority;
+    this.hashMoveFirst = hashMoveFirst;
+    this.killerMoves = killerMoves;
+    this.historyHeuristic = historyHeuristic;
+
+    this.fieldPriorities = new int[configuration.getFieldCount()];
+    this.killers = new int[configuration.getFieldCount() + 1][2];
+    this.historyScores = new int[2][configuration.getFieldCount()];
+    this.moveScores = new int[configuration.getFieldCount()];
+
+    int[][] fieldLines = TicTacToeIncrementalState.fieldLines(configuration);
+    for (int field = 0; field < fieldPriorities.length; field++) {
+
+      fieldPriorities[field] = fieldLines[field].length;
+    }
+
+    for (int[] depthKillers : killers) {
+
+      Arrays.fill(depthKillers, NO_MOVE);
+    }
+  }
+
+  /**
+   * @return the center, corner, edge priority only
+   */
+  public static TicTacToeHeuristicMoveOrdering staticPriority(TicTacToeBoardConfiguration configuration) {
+
+    return new TicTacToeHeuristicMoveOrdering(configuration, true, false, false, false);
+  }
+
+  /**
+   * @return all heuristics
+   */
+  public static TicTacToeHeuristicMoveOrdering all(TicTacToeBoardConfiguration configuration) {
+
+    return new TicTacToeHeuristicMoveOrdering(configuration, true, true, true, true);
+  }
+
+  @Override
+  public int orderMoves(TicTacToeBitboard position, int depth, int hashMove, int[] moves) {
+
+    int[] playerHistory = historyScores[playerIndex(position.getCurrentPlayer())];
+
+    int moveCount = 0;
+    for (int empty = position.getEmptyMask(); empty != 0; empty &= empty - 1) {
+
+      int move = Integer.numberOfTrailingZeros(empty);
+      int score = moveScore(move, depth, hashMove, playerHistory);
+
+      // Insertion by descending score, equal scores keep the field index order
+      int index = moveCount++;
+      for (; index > 0 && moveScores[index - 1] < score; index--) {
+
+        moves[index] = moves[index - 1];
+        moveScores[index] = moveScores[index - 1];
+      }
+      moves[index] = move;
+      moveScores[index] = score;
+    }
+
+    return moveCount;
+  }
+
+  @Override
+  public void cutoff(int move, double player, int depth) {
+
+    if (killerMoves && killers[depth][0] != move) {
+
+      killers[depth][1] = killers[depth][0];
+      killers[depth][0] = move;
+    }
+
+    if (historyHeuristic) {
+
+      int[] playerHistory = historyScores[playerIndex(player)];
+      int remainingDepth = configuration.getFieldCount() - depth;
+      playerHistory[move] += remainingDepth * remainingDepth;
+
+      if (playerHistory[move] > MAX_HISTORY_SCORE) {
+
+        for (int field = 0; field < playerHistory.length; field++) {
+
+          playerHistory[field] >>= 1;
+        }
+      }
+    }
+  }
+
+  @Override
+  public TicTacToeMoveOrdering forWorker() {
+
+    return new TicTacToeHeuristicMoveOrdering(configuration, staticPriority, hashMoveFirst, killerMoves,
+        historyHeuristic);
+  }
+
+  protected int moveScore(int move, int depth, int hashMove, int[] playerHistory) {
+
+    if (hashMoveFirst && move == hashMove) {
+
+      return HASH_MOVE_SCORE;
+    }
+
+    if (killerMoves && move == killers[depth][0]) {
+
+      return FIRST_KILLER_SCORE;
+    }
+
+    if (killerMoves && move == killers[depth][1]) {
+
+      return SECOND_KILLER_SCORE;
+    }
+
+    int score = historyHeuristic ? playerHistory[move] << HISTORY_SHIFT : 0;
+
+    return staticPriority ? score + fieldPriorities[move] : score;
+  }
+
+  static int playerIndex(double player) {
+
+    return MAX_PLAYER == player ? 0 : 1;
+  }
+
+  @Override
+  public String toString() {
+
+    return "static priority " + staticPriority + ", hash move " + hashMoveFirst + ", killer moves " +
+        killerMoves + ", history " + historyHeuristic;
+  }
+}
@@ -0,0 +1,190 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link TicTacToeBitboard} keeping the stone count of each player on each win line of
+ * its {@link TicTacToeBoardConfiguration}.
+ *
+ * A move updates only the counts of the lines through its field, a line reaching the
+ * win length completes it. Checking for a win compares the completed lines of the
+ * player with zero, independent of the number of lines on the board.
+ *
+ * Moves have to be made on empty fields as for the bitboard. {@link #setStones(int, int)}
+ * counts all lines again, unless the stones did not change.
+ */
+public class TicTacToeIncrementalState extends TicTacToeBitboard {
+
+  protected final int[] winLineMasks;
+
+  protected final int[][] fieldLines;
+
+  protected final int winLength;
+
+  protected final int[] maxLineCounts;
+  protected final int[] minLineCounts;
+
+  protected int maxCompletedLines;
+  protected int minCompletedLines;
+
+  public TicTacToeIncrementalState() {
+
+    this(TicTacToeBoardConfiguration.STANDARD);
+  }
+
+  public TicTacToeIncrementalState(TicTacToeBoardConfiguration configuration) {
+
+    this(configuration, EMPTY_MASK, EMPTY_MASK);
+  }
+
+  public TicTacToeIncrementalState(TicTacToeBoardConfiguration configuration, int maxStones, int minStones) {
+
+    super(configuration, EMPTY_MASK, EMPTY_MASK);
+
+    this.winLineMasks = configuration.getWinLineMasks();
+    this.fieldLines = fieldLines(configuration);
+    this.winLength = configuration.getWinLength();
+    this.maxLineCounts = new int[configuration.getWinLineCount()];
+    this.minLineCounts = new int[configuration.getWinLineCount()];
+
+    countLines(maxStones, minStones);
+  }
+
+  /**
+   * @return the indices of the win lines through each field
+   */
+  static int[][] fieldLines(TicTacToeBoardConfiguration configuration) {
+
+    int[] winLineMasks = configuration.getWinLineMasks();
+    int[][] fieldLines = new int[configuration.getFieldCount()][];
+
+    for (int field = 0; field < fieldLines.length; field++) {
+
+      List<Integer> lines = new ArrayList<>();
+      for (int line = 0; line < winLineMasks.length; line++) {
+
+        if ((winLineMasks[line] & (1 << field)) != 0) {
+
+          lines.add(line);
+        }
+      }
+
+      fieldLines[field] = new int[lines.size()];
+      for (int index = 0; index < fieldLines[field].length; index++) {
+
+        fieldLines[field][index] = lines.get(index);
+      }
+    }
+
+    return fieldLines;
+  }
+
+  @Override
+  public void makeMove(int field, double player) {
+
+    super.makeMove(field, player);
+
+    if (player == MAX_PLAYER) {
+
+      maxCompletedLines += addStone(maxLineCounts, field);
+
+    } else {
+
+      minCompletedLines += addStone(minLineCounts, field);
+    }
+  }
+
+  @Override
+  public void undoMove(int field) {
+
+    int fieldMask = 1 << field;
+
+    if ((maxStones & fieldMask) != 0) {
+
+      maxCompletedLines -= removeStone(maxLineCounts, field);
+
+    } else if ((minStones & fieldMask) != 0) {
+
+      minCompletedLines -= removeStone(minLineCounts, field);
+    }
+
+    super.undoMove(field);
+  }
+
+  @Override
+  public void setStones(int maxStones, int minStones) {
+
+    if (maxStones != this.maxStones || minStones != this.minStones) {
+
+      countLines(maxStones, minStones);
+    }
+  }
+
+  @Override
+  public boolean hasWon(double player) {
+
+    return (player == MAX_PLAYER ? maxCompletedLines : minCompletedLines) > 0;
+  }
+
+  /**
+   * @return the number of stones of player on the win line with index line
+   */
+  public int getLineCount(int line, double player) {
+
+    return player == MAX_PLAYER ? maxLineCounts[line] : minLineCounts[line];
+  }
+
+  protected void countLines(int maxStones, int minStones) {
+
+    super.setStones(maxStones, minStones);
+
+    maxCompletedLines = 0;
+    minCompletedLines = 0;
+
+    for (int line = 0; line < winLineMasks.length; line++) {
+
+      maxLineCounts[line] = Integer.bitCount(maxStones & winLineMasks[line]);
+      minLineCounts[line] = Integer.bitCount(minStones & winLineMasks[line]);
+
+      maxCompletedLines += maxLineCounts[line] == winLength ? 1 : 0;
+      minCompletedLines += minLineCounts[line] == winLength ? 1 : 0;
+    }
+  }
+
+  /**
+   * @return the number of lines through field completed by the added stone
+   */
+  protected int addStone(int[] lineCounts, int field) {
+
+    int completedLines = 0;
+    for (int line : fieldLines[field]) {
+
+      if (++lineCounts[line] == winLength) {
+
+        completedLines++;
+      }
+    }
+
+    return completedLines;
+  }
+
+  /**
+   * @return the number of lines through field no longer complete without the removed stone
+   */
+  protected int removeStone(int[] lineCounts, int field) {
+
+    int uncompletedLines = 0;
+    for (int line : fieldLines[field]) {
+
+      if (lineCounts[line]-- == winLength) {
+
+        uncompletedLines++;
+      }
+    }
+
+    return uncompletedLines;
+  }
+}
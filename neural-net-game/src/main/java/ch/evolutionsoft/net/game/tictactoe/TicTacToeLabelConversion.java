@@ -0,0 +1,92 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import java.util.List;
+
+import org.nd4j.common.primitives.Pair;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * The label conversions of {@link TicTacToeNeuralDataConverter} from generated MiniMax
+ * results to net labels, together with the matching stacking of features and labels.
+ */
+public enum TicTacToeLabelConversion {
+
+  BINARY,
+  MULTI_CLASS,
+  CONVOLUTIONAL,
+  CONVOLUTIONAL_MULTI_CLASS;
+
+  public List<Pair<INDArray, INDArray>> convert(List<Pair<INDArray, INDArray>> playgroundsResults) {
+
+    return convert(TicTacToeBoardConfiguration.STANDARD, playgroundsResults);
+  }
+
+  /**
+   * @param configuration board of the playgrounds, defines the image size of convolutional conversions
+   */
+  public List<Pair<INDArray, INDArray>> convert(TicTacToeBoardConfiguration configuration,
+      List<Pair<INDArray, INDArray>> playgroundsResults) {
+
+    switch (this) {
+
+      case MULTI_CLASS:
+        return TicTacToeNeuralDataConverter.convertMultiMiniMaxLabels(playgroundsResults);
+
+      case CONVOLUTIONAL:
+        return TicTacToeNeuralDataConverter.convertMiniMaxPlaygroundLabelsToConvolutionalData(
+            configuration, playgroundsResults);
+
+      case CONVOLUTIONAL_MULTI_CLASS:
+        return TicTacToeNeuralDataConverter.generateMultiClassLabelsConvolutional(configuration, playgroundsResults);
+
+      default:
+        return TicTacToeNeuralDataConverter.convertMiniMaxLabels(playgroundsResults);
+    }
+  }
+
+  /**
+   * Converts and stacks in one go, the labels of the stacked playgrounds and results are
+   * converted by whole matrix, playground images by {@link TicTacToeNeuralDataConverter#convertToImages}.
+   *
+   * @return the stacked features and labels equal to stack(convert(configuration, playgroundsResults))
+   */
+  public Pair<INDArray, INDArray> convertStacked(TicTacToeBoardConfiguration configuration,
+      List<Pair<INDArray, INDArray>> playgroundsResults) {
+
+    Pair<INDArray, INDArray> stackedPlaygroundsResults =
+        TicTacToeNeuralDataConverter.stackFeedForwardPlaygroundLabels(playgroundsResults);
+    INDArray playgrounds = stackedPlaygroundsResults.getFirst();
+    INDArray results = stackedPlaygroundsResults.getSecond();
+
+    INDArray labels = isMultiClass() ?
+        TicTacToeNeuralDataConverter.convertStackedMultiMiniMaxLabels(playgrounds, results) :
+        TicTacToeNeuralDataConverter.convertStackedMiniMaxLabels(playgrounds, results);
+
+    if (isConvolutional()) {
+
+      return new Pair<>(TicTacToeNeuralDataConverter.convertToImages(configuration, playgrounds), labels);
+    }
+
+    return new Pair<>(playgrounds, labels);
+  }
+
+  public Pair<INDArray, INDArray> stack(List<Pair<INDArray, INDArray>> convertedPlaygroundsLabels) {
+
+    if (isConvolutional()) {
+
+      return TicTacToeNeuralDataConverter.stackConvolutionalPlaygroundLabels(convertedPlaygroundsLabels);
+    }
+
+    return TicTacToeNeuralDataConverter.stackFeedForwardPlaygroundLabels(convertedPlaygroundsLabels);
+  }
+
+  public boolean isMultiClass() {
+
+    return MULTI_CLASS == this || CONVOLUTIONAL_MULTI_CLASS == this;
+  }
+
+  public boolean isConvolutional() {
+
+    return CONVOLUTIONAL == this || CONVOLUTIONAL_MULTI_CLASS == this;
+  }
+}
@@ -0,0 +1,384 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
+
+import org.nd4j.common.primitives.Pair;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+
+/**
+ * Streams mini batches directly from a running {@link TicTacToeMiniMaxGenerator},
+ * without building the complete list of playgrounds and results first.
+ *
+ * A generator thread passes each playground into a bounded queue, the
+ * iterator converts and stacks batch size pairs by a {@link TicTacToeLabelConversion}.
+ * At most prefetch batches are generated ahead, with no prefetch the generator only
+ * continues while a batch is taken.
+ *
+ * Duplicates are filtered by base 3 playground index as in
+ * {@link TicTacToeMiniMaxGenerator#removeDuplicates()}, by default only on boards with int
+ * indices, whose filter is a bit set of one bit per position, e.g. 5 MB for 4x4. Larger
+ * boards stream without filter in constant memory and rely on the transposition table of
+ * the generator, which searches a position again only after its entry was replaced,
+ * so some playgrounds may repeat. Filtering them anyway by
+ * {@link #setFilterDuplicates(boolean)} keeps the index of every distinct playground and
+ * fails beyond {@link TicTacToeMiniMaxGenerator#MAX_FILTERED_POSITIONS} of them.
+ *
+ * Each {@link #reset()} stops a running generation and starts a new one with a fresh
+ * generator from the supplier.
+ *
+ * Generators of other m,n,k boards have to match the {@link TicTacToeBoardConfiguration}
+ * of the iterator.
+ */
+public class TicTacToeMiniMaxDataSetIterator implements DataSetIterator {
+
+  public static final int DEFAULT_PREFETCH_BATCHES = 2;
+
+  private static final long serialVersionUID = -2516098238764513921L;
+
+  private static final Pair<INDArray, INDArray> END_OF_GENERATION = new Pair<>(null, null);
+
+  private final TicTacToeBoardConfiguration boardConfiguration;
+
+  private final transient Supplier<TicTacToeMiniMaxGenerator> generatorSupplier;
+
+  private final TicTacToeLabelConversion labelConversion;
+
+  private final int batchSize;
+
+  private final int prefetchBatches;
+
+  private transient BlockingQueue<Pair<INDArray, INDArray>> generatedQueue;
+
+  private transient Thread generatorThread;
+
+  private transient volatile Throwable generationFailure;
+
+  private transient Pair<INDArray, INDArray> nextPlaygroundResult;
+
+  private DataSetPreProcessor preProcessor;
+
+  private boolean filterDuplicates;
+
+  public TicTacToeMiniMaxDataSetIterator(TicTacToeLabelConversion labelConversion, int batchSize) {
+
+    this(TicTacToeBoardConfiguration.STANDARD, labelConversion, batchSize);
+  }
+
+  public TicTacToeMiniMaxDataSetIterator(TicTacToeBoardConfiguration boardConfiguration,
+      TicTacToeLabelConversion labelConversion, int batchSize) {
+
+    this(boardConfiguration, () -> createDefaultGenerator(boardConfiguration), labelConversion, batchSize,
+        DEFAULT_PREFETCH_BATCHES);
+  }
+
+  /**
+   * @param generatorSupplier creates a configured generator for each pass
+   * @param prefetchBatches number of batches generated ahead, 0 for no prefetch
+   */
+  public TicTacToeMiniMaxDataSetIterator(Supplier<TicTacToeMiniMaxGenerator> generatorSupplier,
+      TicTacToeLabelConversion labelConversion, int batchSize, int prefetchBatches) {
+
+    this(TicTacToeBoardConfiguration.STANDARD, generatorSupplier, labelConversion, batchSize, prefetchBatches);
+  }
+
+  /**
+   * @param boardConfiguration board of the supplied generators
+   * @param generatorSupplier creates a configured generator for each pass
+   * @param prefetchBatches number of batches generated ahead, 0 for no prefetch
+   */
+  public TicTacToeMiniMaxDataSetIterator(TicTacToeBoardConfiguration boardConfiguration,
+      Supplier<TicTacToeMiniMaxGenerator> generatorSupplier, TicTacToeLabelConversion labelConversion,
+      int batchSize, int prefetchBatches) {
+
+    if (batchSize <= 0 || prefetchBatches < 0) {
+
+      throw new IllegalArgumentException(
+          "Invalid batch size " + batchSize + " or prefetch batches " + prefetchBatches);
+    }
+
+    this.boardConfiguration = boardConfiguration;
+    this.generatorSupplier = generatorSupplier;
+    this.labelConversion = labelConversion;
+    this.batchSize = batchSize;
+    this.prefetchBatches = prefetchBatches;
+    this.filterDuplicates = boardConfiguration.getPositionCount() <= Integer.MAX_VALUE;
+  }
+
+  /**
+   * @return an in place generator with transposition table, which adds every position once
+   */
+  public static TicTacToeMiniMaxGenerator createDefaultGenerator() {
+
+    return createDefaultGenerator(TicTacToeBoardConfiguration.STANDARD);
+  }
+
+  /**
+   * @return an in place generator with a transposition table sized for the board
+   */
+  public static TicTacToeMiniMaxGenerator createDefaultGenerator(TicTacToeBoardConfiguration boardConfiguration) {
+
+    TicTacToeMiniMaxGenerator generator = new TicTacToeMiniMaxGenerator(boardConfiguration,
+        TicTacToeTranspositionTable.forConfiguration(boardConfiguration));
+    generator.setInPlaceSearch(true);
+
+    return generator;
+  }
+
+  @Override
+  public boolean hasNext() {
+
+    if (null == nextPlaygroundResult) {
+
+      nextPlaygroundResult = takeGenerated();
+    }
+
+    return END_OF_GENERATION != nextPlaygroundResult;
+  }
+
+  @Override
+  public DataSet next() {
+
+    return next(batchSize);
+  }
+
+  @Override
+  public DataSet next(int numberOfExamples) {
+
+    if (!hasNext()) {
+
+      throw new NoSuchElementException("MiniMax generation finished");
+    }
+
+    List<Pair<INDArray, INDArray>> playgroundsResults = new ArrayList<>(numberOfExamples);
+    while (playgroundsResults.size() < numberOfExamples && hasNext()) {
+
+      playgroundsResults.add(nextPlaygroundResult);
+      nextPlaygroundResult = null;
+    }
+
+    Pair<INDArray, INDArray> stackedFeaturesLabels =
+        labelConversion.convertStacked(boardConfiguration, playgroundsResults);
+    DataSet dataSet = new DataSet(stackedFeaturesLabels.getFirst(), stackedFeaturesLabels.getSecond());
+
+    if (null != preProcessor) {
+
+      preProcessor.preProcess(dataSet);
+    }
+
+    return dataSet;
+  }
+
+  @Override
+  public int inputColumns() {
+
+    return boardConfiguration.getFieldCount();
+  }
+
+  @Override
+  public int totalOutcomes() {
+
+    return boardConfiguration.getFieldCount();
+  }
+
+  @Override
+  public boolean resetSupported() {
+
+    return true;
+  }
+
+  @Override
+  public boolean asyncSupported() {
+
+    return true;
+  }
+
+  @Override
+  public void reset() {
+
+    stopGeneration();
+  }
+
+  /**
+   * Stops a running generator thread, the next call of {@link #hasNext()} starts a new pass.
+   */
+  public void stopGeneration() {
+
+    if (null != generatorThread) {
+
+      generatorThread.interrupt();
+
+      try {
+        generatorThread.join();
+
+      } catch (InterruptedException ie) {
+
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    generatorThread = null;
+    generatedQueue = null;
+    generationFailure = null;
+    nextPlaygroundResult = null;
+  }
+
+  @Override
+  public int batch() {
+
+    return batchSize;
+  }
+
+  @Override
+  public void setPreProcessor(DataSetPreProcessor preProcessor) {
+
+    this.preProcessor = preProcessor;
+  }
+
+  @Override
+  public DataSetPreProcessor getPreProcessor() {
+
+    return preProcessor;
+  }
+
+  @Override
+  public List<String> getLabels() {
+
+    return null;
+  }
+
+  /**
+   * Applies from the next generation pass on.
+   */
+  public void setFilterDuplicates(boolean filterDuplicates) {
+
+    this.filterDuplicates = filterDuplicates;
+  }
+
+  public boolean isFilterDuplicates() {
+
+    return filterDuplicates;
+  }
+
+  public TicTacToeBoardConfiguration getBoardConfiguration() {
+
+    return boardConfiguration;
+  }
+
+  public TicTacToeLabelConversion getLabelConversion() {
+
+    return labelConversion;
+  }
+
+  protected Pair<INDArray, INDArray> takeGenerated() {
+
+    if (null == generatorThread) {
+
+      startGeneration();
+    }
+
+    Pair<INDArray, INDArray> playgroundResult;
+    try {
+      playgroundResult = generatedQueue.take();
+
+    } catch (InterruptedException ie) {
+
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for generated playgrounds", ie);
+    }
+
+    if (END_OF_GENERATION == playgroundResult && null != generationFailure) {
+
+      throw new IllegalStateException("MiniMax generation failed", generationFailure);
+    }
+
+    return playgroundResult;
+  }
+
+  protected void startGeneration() {
+
+    BlockingQueue<Pair<INDArray, INDArray>> queue = 0 == prefetchBatches ?
+        new SynchronousQueue<>() : new ArrayBlockingQueue<>(prefetchBatches * batchSize);
+    TicTacToeMiniMaxGenerator generator = generatorSupplier.get();
+    if (!boardConfiguration.equals(generator.getConfiguration())) {
+
+      throw new IllegalStateException("Generator board " + generator.getConfiguration() +
+          " differs from iterator board " + boardConfiguration);
+    }
+
+    if (filterDuplicates) {
+
+      LongPredicate firstOccurrence = generator.createFirstOccurrenceFilter();
+
+      generator.setPlaygroundResultConsumer(playgroundResult -> {
+
+        long playgroundIndex =
+            TicTacToeBitboard.fromPlayground(boardConfiguration, playgroundResult.getFirst()).toPositionIndex();
+        if (firstOccurrence.test(playgroundIndex)) {
+
+          putGenerated(queue, playgroundResult);
+        }
+      });
+
+    } else {
+
+      generator.setPlaygroundResultConsumer(playgroundResult -> putGenerated(queue, playgroundResult));
+    }
+
+    generatedQueue = queue;
+    generatorThread = new Thread(() -> generate(generator, queue), "TicTacToeMiniMaxDataSetIterator");
+    generatorThread.setDaemon(true);
+    generatorThread.start();
+  }
+
+  /**
+   * Ends every generation that was not stopped by reset with {@link #END_OF_GENERATION},
+   * also after an Error like an OutOfMemoryError, so that no consumer waits forever.
+   */
+  protected void generate(TicTacToeMiniMaxGenerator generator, BlockingQueue<Pair<INDArray, INDArray>> queue) {
+
+    try {
+      generator.searchInitial();
+
+    } catch (CancellationException ce) {
+
+      // Generation stopped by reset, nobody waits for further playgrounds
+      return;
+
+    } catch (Throwable t) {
+
+      // Passed to the consumer, which fails with it at the end of the generation
+      generationFailure = t;
+    }
+
+    try {
+      putGenerated(queue, END_OF_GENERATION);
+
+    } catch (CancellationException ce) {
+
+      // Stopped by reset after the last playground
+    }
+  }
+
+  static void putGenerated(BlockingQueue<Pair<INDArray, INDArray>> queue, Pair<INDArray, INDArray> playgroundResult) {
+
+    try {
+      queue.put(playgroundResult);
+
+    } catch (InterruptedException ie) {
+
+      Thread.currentThread().interrupt();
+      throw new CancellationException("MiniMax generation stopped");
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import org.nd4j.common.primitives.Pair;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * Fork join task generating the subtree of one playground.
+ *
+ * Above the split depth each empty field is forked as child task, below it a worker
+ * generator runs the sequential recursion. Every task collects into its own buffer,
+ * child buffers are appended in field order followed by the playground itself. The
+ * merged list has thus the same order as the sequential generation without
+ * transposition table.
+ */
+class TicTacToeMiniMaxGenerationTask extends RecursiveTask<Integer> {
+
+  private static final long serialVersionUID = -3128604728571140326L;
+
+  private final transient TicTacToeMiniMaxGenerator generator;
+
+  private final transient INDArray playground;
+
+  private final int depth;
+
+  private final int splitDepth;
+
+  private final boolean maxMove;
+
+  private transient List<Pair<INDArray, INDArray>> playgroundsResults = Collections.emptyList();
+
+  TicTacToeMiniMaxGenerationTask(TicTacToeMiniMaxGenerator generator, INDArray playground, int depth,
+      int splitDepth, boolean maxMove) {
+
+    this.generator = generator;
+    this.playground = playground;
+    this.depth = depth;
+    this.splitDepth = splitDepth;
+    this.maxMove = maxMove;
+  }
+
+  @Override
+  protected Integer compute() {
+
+    if (depth >= splitDepth) {
+
+      TicTacToeMiniMaxGenerator worker = generator.createWorker();
+      try {
+        int value = maxMove ? worker.max(playground, depth) : worker.min(playground, depth);
+        playgroundsResults = worker.getGeneratedPlaygroundsLabels();
+
+        return value;
+
+      } finally {
+
+        generator.releaseWorker(worker);
+      }
+    }
+
+    TicTacToeBoardConfiguration configuration = generator.getConfiguration();
+    int fieldCount = configuration.getFieldCount();
+    TicTacToeBitboard bitboard = TicTacToeBitboard.fromPlayground(configuration, playground);
+
+    generator.visitNode(depth);
+
+    if (maxMove && bitboard.hasWon(MIN_PLAYER)) {
+
+      return generator.terminalValue(configuration.getMinWin() + depth, depth);
+
+    } else if (!maxMove && bitboard.hasWon(MAX_PLAYER)) {
+
+      return generator.terminalValue(configuration.getMaxWin() - depth, depth);
+
+    } else if (bitboard.noEmptyFieldsLeft()) {
+
+      return generator.terminalValue(MINIMAX_DRAW_VALUE, depth);
+    }
+
+    INDArray currentPlayground = playground;
+    if (generator.isSymmetryReduction()) {
+
+      currentPlayground = generator.canonicalPlayground(playground);
+    }
+
+    double currentPlayer = maxMove ? MAX_PLAYER : MIN_PLAYER;
+
+    TicTacToeMiniMaxGenerationTask[] childTasks = new TicTacToeMiniMaxGenerationTask[fieldCount];
+    List<TicTacToeMiniMaxGenerationTask> forkedTasks = new ArrayList<>(fieldCount);
+
+    for (int currentMove = 0; currentMove < fieldCount; currentMove++) {
+
+      if (currentPlayground.getDouble(currentMove) == EMPTY_FIELD_VALUE) {
+
+        childTasks[currentMove] = new TicTacToeMiniMaxGenerationTask(generator,
+            generator.performMove(currentPlayground, currentMove, currentPlayer), depth + 1, splitDepth, !maxMove);
+        forkedTasks.add(childTasks[currentMove]);
+      }
+    }
+
+    invokeAll(forkedTasks);
+
+    INDArray currentResults = Nd4j.zeros(ROW_COUNT, fieldCount);
+    List<Pair<INDArray, INDArray>> mergedPlaygroundsResults = new ArrayList<>();
+    int currentValue = maxMove ? configuration.getMinWin() : configuration.getMaxWin();
+
+    for (int currentMove = 0; currentMove < fieldCount; currentMove++) {
+
+      TicTacToeMiniMaxGenerationTask childTask = childTasks[currentMove];
+
+      if (null != childTask) {
+
+        int childValue = childTask.join();
+        currentValue = maxMove ? Math.max(currentValue, childValue) : Math.min(currentValue, childValue);
+        currentResults.putScalar(0, currentMove, currentValue);
+
+        mergedPlaygroundsResults.addAll(childTask.getPlaygroundsResults());
+
+      } else {
+
+        currentResults.putScalar(0, currentMove, OCCUPIED);
+      }
+    }
+
+    mergedPlaygroundsResults.add(new Pair<>(currentPlayground, currentResults));
+    playgroundsResults = mergedPlaygroundsResults;
+
+    TicTacToeGenerationListener generationListener = generator.getGenerationListener();
+    if (null != generationListener) {
+
+      generationListener.positionEmitted(mergedPlaygroundsResults.size());
+    }
+
+    return currentValue;
+  }
+
+  List<Pair<INDArray, INDArray>> getPlaygroundsResults() {
+
+    return playgroundsResults;
+  }
+}
@@ -1,13 +1,19 @@
 package ch.evolutionsoft.net.game.tictactoe;
 
-import static ch.evolutionsoft.net.game.NeuralNetConstants.DOUBLE_COMPARISON_EPSILON;
 import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Date;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
 
 import org.nd4j.common.primitives.Pair;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -16,6 +22,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ch.evolutionsoft.net.game.NeuralDataHelper;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeGenerationListener.Phase;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeTranspositionTable.Bound;
 
 /**
  * Generates TicTacToe playgrounds with result labels defined by several
@@ -25,40 +33,216 @@ import ch.evolutionsoft.net.game.NeuralDataHelper;
  * The playground arrays and corresponding values are stored as pairs in a list.
  * 
  * The initial generation should be ready in a few seconds. Duplicate removal is
- * rather slow.
+ * keyed by the base 3 playground index and runs in linear time.
+ * 
+ * An optional {@link TicTacToeTranspositionTable} caches values of positions reached
+ * by different move orders. The alpha beta searches store bounds, the exhaustive
+ * generation expands and adds each position only once.
+ * 
+ * With symmetry reduction the generation works on the canonical playgrounds of
+ * {@link TicTacToeSymmetry} only, which are about one sixth of all playgrounds.
+ * 
+ * {@link #searchInitialParallel(ForkJoinPool, int)} splits the game tree into
+ * subtrees generated on all cores, the merged result keeps a reproducible order.
+ * 
+ * The in place search mode applies and undoes moves on one mutable
+ * {@link TicTacToeBitboard} and keeps node results in preallocated per depth buffers.
+ * INDArrays are only created for the playground and result pairs added to the list.
+ * With incremental win detection the search board is a {@link TicTacToeIncrementalState},
+ * whose moves update the stone counts of their win lines and which checks wins in
+ * constant time.
+ * 
+ * With a playground result consumer set each generated pair is passed to it instead
+ * of being added to the list, see {@link TicTacToeMiniMaxDataSetIterator}.
+ * 
+ * The in place alpha beta searches try moves in field index order, or in the order of
+ * a {@link TicTacToeMoveOrdering}, e.g. the {@link TicTacToeHeuristicMoveOrdering}.
+ * They store the best move of a position in the transposition table, which the ordering
+ * searches first when the position is reached again by a later search.
+ * 
+ * A {@link TicTacToeGenerationListener} receives node, cutoff, position and phase
+ * events, e.g. {@link TicTacToeGenerationMetrics} to size and compare runs.
+ * 
+ * Other m,n,k boards than the standard one are generated with their
+ * {@link TicTacToeBoardConfiguration}, all but the symmetry reduction work the same.
+ * Their state space grows to millions of playgrounds, which should be generated in place
+ * with a table of {@link TicTacToeTranspositionTable#forConfiguration(TicTacToeBoardConfiguration)}
+ * and streamed to a consumer.
  */
 public class TicTacToeMiniMaxGenerator {
 
+  public static final int DEFAULT_SPLIT_DEPTH = 2;
+
+  public static final int MAX_FILTERED_POSITIONS = 1 << 24;
+
+  public static final String METRICS_FILE_PROPERTY = "generation.metricsFile";
+  public static final String DEFAULT_METRICS_FILE = "generationMetrics.json";
+
   private static final Logger logger = LoggerFactory.getLogger(TicTacToeMiniMaxGenerator.class);
 
+  protected final TicTacToeBoardConfiguration configuration;
+
   protected boolean keepDuplicates = false;
 
   protected List<Pair<INDArray, INDArray>> allPlaygroundsResults = new ArrayList<>();
   
   protected int bestFoundSearchMove = -1;
 
-  public static void main(String[] arguments) {
+  protected TicTacToeTranspositionTable transpositionTable;
+
+  protected boolean symmetryReduction = false;
+
+  protected boolean inPlaceSearch = false;
+
+  protected boolean incrementalWinDetection = false;
 
-    TicTacToeMiniMaxGenerator data = new TicTacToeMiniMaxGenerator();
+  protected TicTacToeBitboard searchBoard;
+
+  /**
+   * The search window narrowed by the last {@link #probeSearchWindow(long, int, int, int)}
+   */
+  protected int windowAlpha;
+
+  protected int windowBeta;
+
+  protected final int[][] depthResults;
+
+  protected TicTacToeMoveOrdering moveOrdering;
+
+  protected final int[][] depthMoves;
+
+  protected Consumer<Pair<INDArray, INDArray>> playgroundResultConsumer;
+
+  protected TicTacToeGenerationListener generationListener;
+
+  protected final Queue<TicTacToeTranspositionTable> idleWorkerTables = new ConcurrentLinkedQueue<>();
+
+  public TicTacToeMiniMaxGenerator() {
+
+    this(null);
+  }
+
+  /**
+   * @param transpositionTable table to use for all searches, null to search without
+   */
+  public TicTacToeMiniMaxGenerator(TicTacToeTranspositionTable transpositionTable) {
+
+    this(TicTacToeBoardConfiguration.STANDARD, transpositionTable);
+  }
+
+  /**
+   * @param configuration the m,n,k board to generate
+   * @param transpositionTable table to use for all searches, null to search without
+   */
+  public TicTacToeMiniMaxGenerator(TicTacToeBoardConfiguration configuration,
+      TicTacToeTranspositionTable transpositionTable) {
+
+    this.configuration = configuration;
+    this.transpositionTable = transpositionTable;
+    this.searchBoard = new TicTacToeBitboard(configuration);
+    this.depthResults = new int[configuration.getFieldCount() + 1][configuration.getFieldCount()];
+    this.depthMoves = new int[configuration.getFieldCount() + 1][configuration.getFieldCount()];
+  }
+
+  /**
+   * Generates and writes the playgrounds and results of the standard board. The
+   * {@link TicTacToeGenerationMetrics} of the run are written to the file of the system
+   * property generation.metricsFile, as CSV for a .csv file and JSON otherwise.
+   */
+  public static void main(String[] arguments) throws IOException {
+
+    TicTacToeMiniMaxGenerator data = new TicTacToeMiniMaxGenerator(new TicTacToeTranspositionTable());
+    data.setInPlaceSearch(true);
+
+    TicTacToeGenerationMetrics generationMetrics = new TicTacToeGenerationMetrics();
+    data.setGenerationListener(generationMetrics);
     logger.info("Data Processing Started : {}", new Date());
 
     data.searchInitial();
     logger.info("All possible game state sequences generated, Finished At : {}", new Date());
+    logger.info("Transposition table hits {}, misses {}",
+        data.transpositionTable.getHits(), data.transpositionTable.getMisses());
 
     data.allPlaygroundsResults = data.removeDuplicates();
     logger.info("Unique game states filteres, Finished At : {}", new Date());
 
-    NeuralDataHelper.writeData(data.allPlaygroundsResults);
+    long writeStart = System.nanoTime();
+    NeuralDataHelper.writeBinaryData(data.allPlaygroundsResults);
+    data.notifyPhaseCompleted(Phase.WRITE, writeStart);
     logger.info("File generation completed : at {}", new Date());
+
+    Path metricsFile = Paths.get(System.getProperty(METRICS_FILE_PROPERTY, DEFAULT_METRICS_FILE));
+    generationMetrics.write(metricsFile);
+    logger.info("Generation metrics {} written to {}", generationMetrics, metricsFile);
   }
 
+  /**
+   * Generates all playgrounds and results. A present transposition table is cleared
+   * before, since its exact entries mark the positions already added.
+   */
   public void searchInitial() {
 
-    this.max(EMPTY_PLAYGROUND, 0);
+    if (null != transpositionTable) {
+
+      transpositionTable.clear();
+    }
+
+    long searchStart = System.nanoTime();
+    this.max(configuration.emptyPlayground(), 0);
+    notifyPhaseCompleted(Phase.SEARCH, searchStart);
+  }
+
+  public void searchInitialParallel() {
+
+    searchInitialParallel(ForkJoinPool.commonPool(), DEFAULT_SPLIT_DEPTH);
+  }
+
+  /**
+   * Generates all playgrounds and results with one fork join task per playground up
+   * to splitDepth. Deeper subtrees are generated sequentially by workers from
+   * {@link #createWorker()}, each with its own transposition table if one is present.
+   * Worker tables are reused by later subtrees, a generation allocates one per thread
+   * generating a subtree at the same time instead of one per subtree.
+   * 
+   * The order of the generated list only depends on splitDepth, not on the number of
+   * threads. Without transposition table it equals the one of {@link #searchInitial()}.
+   * With table positions shared by different subtrees are generated once per subtree,
+   * {@link #removeDuplicates()} filters them afterwards.
+   *
+   * @throws IllegalStateException with a playground result consumer set, the subtrees
+   * are merged into the result list in order
+   */
+  public void searchInitialParallel(ForkJoinPool forkJoinPool, int splitDepth) {
+
+    if (null != playgroundResultConsumer) {
+
+      throw new IllegalStateException("Parallel generation does not support a playground result consumer");
+    }
+
+    TicTacToeMiniMaxGenerationTask initialTask =
+        new TicTacToeMiniMaxGenerationTask(this, configuration.emptyPlayground(), 0, splitDepth, true);
+
+    long searchStart = System.nanoTime();
+    try {
+      forkJoinPool.invoke(initialTask);
+
+    } finally {
+
+      idleWorkerTables.clear();
+    }
+
+    allPlaygroundsResults.addAll(initialTask.getPlaygroundsResults());
+    notifyPhaseCompleted(Phase.SEARCH, searchStart);
   }
 
   public int searchCurrent(INDArray currentPlayground) {
 
+    if (inPlaceSearch) {
+
+      searchBoard = createSearchBoard(currentPlayground);
+      return searchCurrentInPlace();
+    }
+
     double currentPlayer = TicTacToeGameHelper.getCurrentPlayer(currentPlayground);
     
     int fieldsOccupied = TicTacToeGameHelper.countStones(currentPlayground);
@@ -66,11 +250,11 @@ public class TicTacToeMiniMaxGenerator {
     if (currentPlayer == MAX_PLAYER) {
       
       int currentValue = Integer.MIN_VALUE;
-      for (int currentMove : TicTacToeGameHelper.getEmptyFields(currentPlayground)) {
+      for (int currentMove : TicTacToeGameHelper.getEmptyFields(configuration, currentPlayground)) {
         
         INDArray newPlayground = performMove(currentPlayground, currentMove, currentPlayer);
         
-        int newValue = searchMin(newPlayground, Integer.MIN_VALUE, Integer.MAX_VALUE, fieldsOccupied + 1);
+        int newValue = searchMinPlayground(newPlayground, Integer.MIN_VALUE, Integer.MAX_VALUE, fieldsOccupied + 1);
         
         if (newValue > currentValue) {
           
@@ -84,11 +268,11 @@ public class TicTacToeMiniMaxGenerator {
     } else {
 
       int currentValue = Integer.MAX_VALUE;
-      for (int currentMove : TicTacToeGameHelper.getEmptyFields(currentPlayground)) {
+      for (int currentMove : TicTacToeGameHelper.getEmptyFields(configuration, currentPlayground)) {
         
         INDArray newPlayground = performMove(currentPlayground, currentMove, currentPlayer);
         
-        int newValue = searchMax(newPlayground, Integer.MIN_VALUE, Integer.MAX_VALUE, fieldsOccupied + 1);
+        int newValue = searchMaxPlayground(newPlayground, Integer.MIN_VALUE, Integer.MAX_VALUE, fieldsOccupied + 1);
         
         if (newValue < currentValue) {
           
@@ -101,55 +285,131 @@ public class TicTacToeMiniMaxGenerator {
     }
   }
 
+  /**
+   * Keeps the first occurrence of each playground. With symmetry reduction
+   * only playgrounds in canonical form are kept.
+   */
   public List<Pair<INDArray, INDArray>> removeDuplicates() {
 
-    Set<INDArray> presentPlaygrounds = new HashSet<>();
+    long deduplicationStart = System.nanoTime();
+    LongPredicate firstOccurrence = createFirstOccurrenceFilter();
 
     List<Pair<INDArray, INDArray>> uniquePlaygroundsResults = new ArrayList<>();
 
     for (Pair<INDArray, INDArray> currentPair : allPlaygroundsResults) {
 
-      INDArray currentPlayground = currentPair.getFirst();
-      if (!alreadyPresent(presentPlaygrounds, currentPlayground)) {
+      TicTacToeBitboard playground = TicTacToeBitboard.fromPlayground(configuration, currentPair.getFirst());
+      if ((!symmetryReduction || TicTacToeSymmetry.isCanonical(playground)) &&
+          firstOccurrence.test(playground.toPositionIndex())) {
 
-        presentPlaygrounds.add(currentPlayground);
         uniquePlaygroundsResults.add(currentPair);
       }
     }
 
+    if (null != generationListener) {
+
+      generationListener.duplicatesRemoved(allPlaygroundsResults.size(), uniquePlaygroundsResults.size());
+    }
+    notifyPhaseCompleted(Phase.DEDUPLICATION, deduplicationStart);
+
     this.allPlaygroundsResults = uniquePlaygroundsResults;
 
     return uniquePlaygroundsResults;
   }
 
+  /**
+   * @return a filter accepting each base 3 position index once, backed by a bit set
+   * where the board allows int indices. Larger boards filter by a primitive set of at
+   * most {@link #MAX_FILTERED_POSITIONS} distinct positions, beyond which the filter
+   * throws an IllegalStateException.
+   */
+  protected LongPredicate createFirstOccurrenceFilter() {
+
+    if (configuration.getPositionCount() > Integer.MAX_VALUE) {
+
+      TicTacToePositionIndexSet presentPositions = new TicTacToePositionIndexSet(MAX_FILTERED_POSITIONS);
+      return presentPositions::add;
+    }
+
+    BitSet presentPositions = new BitSet((int) configuration.getPositionCount());
+    return positionIndex -> {
+
+      if (presentPositions.get((int) positionIndex)) {
+
+        return false;
+      }
+
+      presentPositions.set((int) positionIndex);
+      return true;
+    };
+  }
+
   public List<Pair<INDArray, INDArray>> getGeneratedPlaygroundsLabels() {
 
     return allPlaygroundsResults;
   }
 
+  /**
+   * @param depth the plies played before currentPlayground, at most its stone count
+   */
   public int searchMax(INDArray currentPlayground, int alpha, int beta, int depth) {
 
-    if (TicTacToeGameHelper.hasWon(currentPlayground, MIN_PLAYER)) {
+    if (inPlaceSearch) {
+
+      searchBoard = createSearchBoard(currentPlayground);
+      checkSearchDepth(depth, searchBoard);
+      return searchMaxInPlace(alpha, beta, depth);
+    }
+
+    checkSearchDepth(depth, TicTacToeBitboard.fromPlayground(configuration, currentPlayground));
+    return searchMaxPlayground(currentPlayground, alpha, beta, depth);
+  }
+
+  protected int searchMaxPlayground(INDArray currentPlayground, int alpha, int beta, int depth) {
+
+    visitNode(depth);
 
-      return MIN_WIN + depth;
+    if (TicTacToeGameHelper.hasWon(configuration, currentPlayground, MIN_PLAYER)) {
 
-    } else if (TicTacToeGameHelper.noEmptyFieldsLeft(currentPlayground)) {
+      return terminalValue(configuration.getMinWin() + depth, depth);
 
-      return MINIMAX_DRAW_VALUE;
+    } else if (TicTacToeGameHelper.noEmptyFieldsLeft(configuration, currentPlayground)) {
 
+      return terminalValue(MINIMAX_DRAW_VALUE, depth);
+
+    }
+
+    int initialAlpha = alpha;
+    int initialBeta = beta;
+    long positionKey = TicTacToeTranspositionTable.NOT_FOUND;
+
+    if (null != transpositionTable) {
+
+      positionKey = positionKey(currentPlayground);
+      int slot = probeSearchWindow(positionKey, alpha, beta, depth);
+
+      if (slot != TicTacToeTranspositionTable.NOT_FOUND && windowAlpha >= windowBeta) {
+
+        return transpositionTable.getValue(slot);
+      }
+      alpha = windowAlpha;
+      beta = windowBeta;
     }
 
-    int currentValue = MIN_WIN;
-    for (int currentMove = 0; currentMove < COLUMN_COUNT; currentMove++) {
+    int currentValue = configuration.getMinWin();
+    int searchedMoves = 0;
+    for (int currentMove = 0; currentMove < configuration.getFieldCount(); currentMove++) {
 
       if (currentPlayground.getDouble(currentMove) == 0) {
 
         INDArray newPlayground = performMove(currentPlayground, currentMove, MAX_PLAYER);
 
-        currentValue = Math.max(currentValue, searchMin(newPlayground, alpha, beta, depth + 1));
+        currentValue = Math.max(currentValue, searchMinPlayground(newPlayground, alpha, beta, depth + 1));
+        searchedMoves++;
 
-        if (currentValue > beta) {
-            return currentValue;
+        if (currentValue >= beta) {
+            notifyCutoff(depth, searchedMoves);
+            break;
         }
 
         alpha = Math.max(alpha, currentValue);
@@ -157,49 +417,449 @@ public class TicTacToeMiniMaxGenerator {
 
     }
 
+    storeSearchValue(positionKey, currentValue, initialAlpha, initialBeta, depth);
+
     return currentValue;
   }
 
+  /**
+   * @param depth the plies played before currentPlayground, at most its stone count
+   */
   public int searchMin(INDArray currentPlayground, int alpha, int beta, int depth) {
 
-    if (TicTacToeGameHelper.hasWon(currentPlayground, MAX_PLAYER)) {
+    if (inPlaceSearch) {
+
+      searchBoard = createSearchBoard(currentPlayground);
+      checkSearchDepth(depth, searchBoard);
+      return searchMinInPlace(alpha, beta, depth);
+    }
+
+    checkSearchDepth(depth, TicTacToeBitboard.fromPlayground(configuration, currentPlayground));
+    return searchMinPlayground(currentPlayground, alpha, beta, depth);
+  }
+
+  protected int searchMinPlayground(INDArray currentPlayground, int alpha, int beta, int depth) {
 
-      return MAX_WIN - depth;
+    visitNode(depth);
 
-    } else if (TicTacToeGameHelper.noEmptyFieldsLeft(currentPlayground)) {
+    if (TicTacToeGameHelper.hasWon(configuration, currentPlayground, MAX_PLAYER)) {
 
-      return MINIMAX_DRAW_VALUE;
+      return terminalValue(configuration.getMaxWin() - depth, depth);
 
+    } else if (TicTacToeGameHelper.noEmptyFieldsLeft(configuration, currentPlayground)) {
+
+      return terminalValue(MINIMAX_DRAW_VALUE, depth);
+
+    }
+
+    int initialAlpha = alpha;
+    int initialBeta = beta;
+    long positionKey = TicTacToeTranspositionTable.NOT_FOUND;
+
+    if (null != transpositionTable) {
+
+      positionKey = positionKey(currentPlayground);
+      int slot = probeSearchWindow(positionKey, alpha, beta, depth);
+
+      if (slot != TicTacToeTranspositionTable.NOT_FOUND && windowAlpha >= windowBeta) {
+
+        return transpositionTable.getValue(slot);
+      }
+      alpha = windowAlpha;
+      beta = windowBeta;
     }
 
-    int currentValue = MAX_WIN;
-    for (int currentMove = 0; currentMove < COLUMN_COUNT; currentMove++) {
+    int currentValue = configuration.getMaxWin();
+    int searchedMoves = 0;
+    for (int currentMove = 0; currentMove < configuration.getFieldCount(); currentMove++) {
 
       if (currentPlayground.getDouble(currentMove) == 0) {
 
         INDArray newPlayground = performMove(currentPlayground, currentMove, MIN_PLAYER);
 
-        currentValue = Math.min(currentValue, searchMax(newPlayground, alpha, beta, depth + 1));
-        
-        if (currentValue < alpha) {
-             return currentValue;
+        currentValue = Math.min(currentValue, searchMaxPlayground(newPlayground, alpha, beta, depth + 1));
+        searchedMoves++;
+
+        if (currentValue <= alpha) {
+             notifyCutoff(depth, searchedMoves);
+             break;
         }
       
         beta = Math.min(currentValue, beta);
       }
     }
 
+    storeSearchValue(positionKey, currentValue, initialAlpha, initialBeta, depth);
+
     return currentValue;
   }
 
+  /**
+   * The per depth move buffers, killer moves and cutoff metrics hold one entry per ply,
+   * a search deeper than the stones played would run past the last one.
+   */
+  protected void checkSearchDepth(int depth, TicTacToeBitboard playgroundBoard) {
+
+    int stones = playgroundBoard.countStones();
+
+    if (depth < 0 || depth > stones) {
+
+      throw new IllegalArgumentException(
+          "Search depth " + depth + " outside of 0 to the " + stones + " stones played");
+    }
+  }
+
   public int getBestFoundSearchMove() {
 
     return bestFoundSearchMove;
   }
 
+  public TicTacToeTranspositionTable getTranspositionTable() {
+
+    return transpositionTable;
+  }
+
+  public void setTranspositionTable(TicTacToeTranspositionTable transpositionTable) {
+
+    this.transpositionTable = transpositionTable;
+  }
+
+  public boolean isInPlaceSearch() {
+
+    return inPlaceSearch;
+  }
+
+  public void setInPlaceSearch(boolean inPlaceSearch) {
+
+    this.inPlaceSearch = inPlaceSearch;
+  }
+
+  public boolean isIncrementalWinDetection() {
+
+    return incrementalWinDetection;
+  }
+
+  /**
+   * @param incrementalWinDetection true to search in place on a {@link TicTacToeIncrementalState}
+   */
+  public void setIncrementalWinDetection(boolean incrementalWinDetection) {
+
+    this.incrementalWinDetection = incrementalWinDetection;
+    this.searchBoard = incrementalWinDetection ?
+        new TicTacToeIncrementalState(configuration, searchBoard.getMaxStones(), searchBoard.getMinStones()) :
+        new TicTacToeBitboard(configuration, searchBoard.getMaxStones(), searchBoard.getMinStones());
+  }
+
+  public TicTacToeMoveOrdering getMoveOrdering() {
+
+    return moveOrdering;
+  }
+
+  /**
+   * @param moveOrdering order of the moves in the in place alpha beta searches, null for
+   * field index order. With another order searchCurrent may find another of equally good
+   * best moves.
+   */
+  public void setMoveOrdering(TicTacToeMoveOrdering moveOrdering) {
+
+    this.moveOrdering = moveOrdering;
+  }
+
+  public Consumer<Pair<INDArray, INDArray>> getPlaygroundResultConsumer() {
+
+    return playgroundResultConsumer;
+  }
+
+  /**
+   * @param playgroundResultConsumer receives every generated pair instead of the result list,
+   * null to collect all pairs in the list again. Only the sequential generation passes
+   * pairs to it.
+   */
+  public void setPlaygroundResultConsumer(Consumer<Pair<INDArray, INDArray>> playgroundResultConsumer) {
+
+    this.playgroundResultConsumer = playgroundResultConsumer;
+  }
+
+  public boolean isSymmetryReduction() {
+
+    return symmetryReduction;
+  }
+
+  /**
+   * @throws IllegalStateException for other than the standard board, the symmetries
+   * of {@link TicTacToeSymmetry} are those of the 3x3 playground
+   */
+  public void setSymmetryReduction(boolean symmetryReduction) {
+
+    if (symmetryReduction && !configuration.isStandard()) {
+
+      throw new IllegalStateException("Symmetry reduction not supported for board " + configuration);
+    }
+
+    this.symmetryReduction = symmetryReduction;
+  }
+
+  public TicTacToeGenerationListener getGenerationListener() {
+
+    return generationListener;
+  }
+
+  /**
+   * @param generationListener receives node, cutoff, position and phase events, null for none
+   */
+  public void setGenerationListener(TicTacToeGenerationListener generationListener) {
+
+    this.generationListener = generationListener;
+  }
+
+  public TicTacToeBoardConfiguration getConfiguration() {
+
+    return configuration;
+  }
+
+  /**
+   * @return a generator with the same settings and an own empty result list and
+   * transposition table, used for subtrees of the parallel generation, to be passed to
+   * {@link #releaseWorker(TicTacToeMiniMaxGenerator)} after its subtree
+   */
+  protected TicTacToeMiniMaxGenerator createWorker() {
+
+    TicTacToeTranspositionTable workerTable = null;
+    if (null != transpositionTable) {
+
+      workerTable = idleWorkerTables.poll();
+      if (null == workerTable) {
+
+        workerTable = new TicTacToeTranspositionTable(transpositionTable.size());
+
+      } else {
+
+        workerTable.clear();
+      }
+    }
+
+    TicTacToeMiniMaxGenerator worker = new TicTacToeMiniMaxGenerator(configuration, workerTable);
+    worker.setSymmetryReduction(symmetryReduction);
+    worker.setInPlaceSearch(inPlaceSearch);
+    worker.setIncrementalWinDetection(incrementalWinDetection);
+    worker.setMoveOrdering(null != moveOrdering ? moveOrdering.forWorker() : null);
+    worker.setGenerationListener(generationListener);
+
+    return worker;
+  }
+
+  /**
+   * Returns the transposition table of a worker for the next subtree.
+   */
+  protected void releaseWorker(TicTacToeMiniMaxGenerator worker) {
+
+    if (null != worker.transpositionTable) {
+
+      idleWorkerTables.offer(worker.transpositionTable);
+    }
+  }
+
+  /**
+   * @return the base 3 index of the playground, of its canonical form with symmetry reduction
+   */
+  protected long positionKey(INDArray playground) {
+
+    return positionKey(TicTacToeBitboard.fromPlayground(configuration, playground));
+  }
+
+  protected INDArray canonicalPlayground(INDArray playground) {
+
+    TicTacToeBitboard bitboard = TicTacToeBitboard.fromPlayground(playground);
+    int canonicalSymmetry = TicTacToeSymmetry.canonicalSymmetry(bitboard.getMaxStones(), bitboard.getMinStones());
+
+    if (TicTacToeSymmetry.IDENTITY == canonicalSymmetry) {
+
+      return playground;
+    }
+
+    return TicTacToeSymmetry.transform(bitboard, canonicalSymmetry).toPlayground();
+  }
+
+  /**
+   * Stores a fail soft alpha beta result with the bound type relative to the
+   * search window the position was entered with. A stored bound ends a later search
+   * only when it lies outside that search window by itself.
+   */
+  protected void storeSearchValue(long positionKey, int value, int alpha, int beta, int depth) {
+
+    storeSearchValue(positionKey, value, alpha, beta, depth, TicTacToeMoveOrdering.NO_MOVE);
+  }
+
+  protected void storeSearchValue(long positionKey, int value, int alpha, int beta, int depth, int bestMove) {
+
+    if (null == transpositionTable) {
+
+      return;
+    }
+
+    Bound bound = Bound.EXACT;
+    if (value <= alpha) {
+
+      bound = Bound.UPPER;
+
+    } else if (value >= beta) {
+
+      bound = Bound.LOWER;
+    }
+
+    transpositionTable.store(positionKey, value, bound, depth, bestMove);
+  }
+
+  /**
+   * Narrows alpha and beta to the bound stored for the position into
+   * {@link #windowAlpha} and {@link #windowBeta}, which close if the stored value
+   * decides the search.
+   * 
+   * @return the slot of the stored entry or NOT_FOUND
+   */
+  protected int probeSearchWindow(long positionKey, int alpha, int beta, int depth) {
+
+    windowAlpha = alpha;
+    windowBeta = beta;
+
+    int slot = transpositionTable.probe(positionKey, depth);
+
+    if (slot != TicTacToeTranspositionTable.NOT_FOUND) {
+
+      int storedValue = transpositionTable.getValue(slot);
+      Bound storedBound = transpositionTable.getBound(slot);
+
+      if (Bound.EXACT == storedBound) {
+
+        windowAlpha = storedValue;
+        windowBeta = storedValue;
+
+      } else if (Bound.LOWER == storedBound) {
+
+        windowAlpha = Math.max(alpha, storedValue);
+
+      } else {
+
+        windowBeta = Math.min(beta, storedValue);
+      }
+    }
+
+    return slot;
+  }
+
+  /**
+   * @return the best move stored for the position by an earlier search, if it can be
+   * played on the search board
+   */
+  protected int hashMove(long positionKey, int depth) {
+
+    if (null == transpositionTable || symmetryReduction) {
+
+      return TicTacToeMoveOrdering.NO_MOVE;
+    }
+
+    int slot = transpositionTable.probe(positionKey, depth);
+
+    return TicTacToeTranspositionTable.NOT_FOUND == slot ?
+        TicTacToeMoveOrdering.NO_MOVE : transpositionTable.getBestMove(slot);
+  }
+
+  /**
+   * @return the number of empty fields of the search board written to moves in search order
+   */
+  protected int orderMoves(int depth, int hashMove, int[] moves) {
+
+    if (null == moveOrdering) {
+
+      int moveCount = 0;
+      for (int empty = searchBoard.getEmptyMask(); empty != 0; empty &= empty - 1) {
+
+        moves[moveCount++] = Integer.numberOfTrailingZeros(empty);
+      }
+
+      return moveCount;
+    }
+
+    return moveOrdering.orderMoves(searchBoard, depth, hashMove, moves);
+  }
+
+  protected void orderingCutoff(int move, double player, int depth) {
+
+    if (null != moveOrdering) {
+
+      moveOrdering.cutoff(move, player, depth);
+    }
+  }
+
+  /**
+   * @return the exact value of an already generated position or null
+   */
+  protected Integer generatedValue(long positionKey, int depth) {
+
+    int slot = transpositionTable.probe(positionKey, depth);
+
+    if (slot != TicTacToeTranspositionTable.NOT_FOUND && Bound.EXACT == transpositionTable.getBound(slot)) {
+
+      return transpositionTable.getValue(slot);
+    }
+
+    return null;
+  }
+
+  protected void addPlaygroundResult(Pair<INDArray, INDArray> playgroundResult) {
+
+    if (null != playgroundResultConsumer) {
+
+      playgroundResultConsumer.accept(playgroundResult);
+
+    } else {
+
+      allPlaygroundsResults.add(playgroundResult);
+    }
+
+    if (null != generationListener) {
+
+      generationListener.positionEmitted(null != playgroundResultConsumer ? 0 : allPlaygroundsResults.size());
+    }
+  }
+
+  protected void visitNode(int depth) {
+
+    if (null != generationListener) {
+
+      generationListener.nodeVisited(depth);
+    }
+  }
+
+  protected int terminalValue(int value, int depth) {
+
+    if (null != generationListener) {
+
+      generationListener.terminalReached(depth);
+    }
+
+    return value;
+  }
+
+  protected void notifyCutoff(int depth, int searchedMoves) {
+
+    if (null != generationListener) {
+
+      generationListener.cutoff(depth, searchedMoves);
+    }
+  }
+
+  protected void notifyPhaseCompleted(Phase phase, long phaseStartNanos) {
+
+    if (null != generationListener) {
+
+      generationListener.phaseCompleted(phase, System.nanoTime() - phaseStartNanos);
+    }
+  }
+
   protected INDArray performMove(INDArray currentPlayground, int currentMove, double currentPlayer) {
 
-    INDArray newPlayground = Nd4j.zeros(ROW_COUNT, COLUMN_COUNT);
+    INDArray newPlayground = Nd4j.zeros(ROW_COUNT, configuration.getFieldCount());
     Nd4j.copy(currentPlayground, newPlayground);
 
     newPlayground.putScalar(0, currentMove, currentPlayer);
@@ -208,23 +868,49 @@ public class TicTacToeMiniMaxGenerator {
 
   protected int max(INDArray currentPlayground, int depth) {
 
-    if (TicTacToeGameHelper.hasWon(currentPlayground, MIN_PLAYER)) {
+    if (inPlaceSearch) {
+
+      searchBoard = createSearchBoard(currentPlayground);
+      return maxInPlace(depth);
+    }
+
+    visitNode(depth);
+
+    if (TicTacToeGameHelper.hasWon(configuration, currentPlayground, MIN_PLAYER)) {
+
+      return terminalValue(configuration.getMinWin() + depth, depth);
+
+    } else if (TicTacToeGameHelper.noEmptyFieldsLeft(configuration, currentPlayground)) {
+
+      return terminalValue(MINIMAX_DRAW_VALUE, depth);
+
+    }
+
+    if (symmetryReduction) {
+
+      currentPlayground = canonicalPlayground(currentPlayground);
+    }
+
+    long positionKey = TicTacToeTranspositionTable.NOT_FOUND;
 
-      return MIN_WIN + depth;
+    if (null != transpositionTable) {
 
-    } else if (TicTacToeGameHelper.noEmptyFieldsLeft(currentPlayground)) {
+      positionKey = positionKey(currentPlayground);
+      Integer generatedValue = generatedValue(positionKey, depth);
 
-      return MINIMAX_DRAW_VALUE;
+      if (null != generatedValue) {
 
+        return generatedValue;
+      }
     }
 
-    INDArray currentResults = Nd4j.zeros(ROW_COUNT, COLUMN_COUNT);
-    int currentValue = MIN_WIN;
-    for (int currentMove = 0; currentMove < COLUMN_COUNT; currentMove++) {
+    INDArray currentResults = Nd4j.zeros(ROW_COUNT, configuration.getFieldCount());
+    int currentValue = configuration.getMinWin();
+    for (int currentMove = 0; currentMove < configuration.getFieldCount(); currentMove++) {
 
       if (currentPlayground.getDouble(currentMove) == 0) {
 
-        INDArray newPlayground = Nd4j.zeros(ROW_COUNT, COLUMN_COUNT);
+        INDArray newPlayground = Nd4j.zeros(ROW_COUNT, configuration.getFieldCount());
         Nd4j.copy(currentPlayground, newPlayground);
 
         newPlayground.putScalar(0, currentMove, MAX_PLAYER);
@@ -240,7 +926,12 @@ public class TicTacToeMiniMaxGenerator {
 
     }
 
-    allPlaygroundsResults.add(new Pair<INDArray, INDArray>(currentPlayground, currentResults));
+    addPlaygroundResult(new Pair<INDArray, INDArray>(currentPlayground, currentResults));
+
+    if (null != transpositionTable) {
+
+      transpositionTable.store(positionKey, currentValue, Bound.EXACT, depth);
+    }
 
     return currentValue;
 
@@ -248,23 +939,49 @@ public class TicTacToeMiniMaxGenerator {
 
   protected int min(INDArray currentPlayground, int depth) {
 
-    if (TicTacToeGameHelper.hasWon(currentPlayground, MAX_PLAYER)) {
+    if (inPlaceSearch) {
+
+      searchBoard = createSearchBoard(currentPlayground);
+      return minInPlace(depth);
+    }
+
+    visitNode(depth);
 
-      return MAX_WIN - depth;
+    if (TicTacToeGameHelper.hasWon(configuration, currentPlayground, MAX_PLAYER)) {
 
-    } else if (TicTacToeGameHelper.noEmptyFieldsLeft(currentPlayground)) {
+      return terminalValue(configuration.getMaxWin() - depth, depth);
+
+    } else if (TicTacToeGameHelper.noEmptyFieldsLeft(configuration, currentPlayground)) {
+
+      return terminalValue(MINIMAX_DRAW_VALUE, depth);
+
+    }
 
-      return MINIMAX_DRAW_VALUE;
+    if (symmetryReduction) {
 
+      currentPlayground = canonicalPlayground(currentPlayground);
+    }
+
+    long positionKey = TicTacToeTranspositionTable.NOT_FOUND;
+
+    if (null != transpositionTable) {
+
+      positionKey = positionKey(currentPlayground);
+      Integer generatedValue = generatedValue(positionKey, depth);
+
+      if (null != generatedValue) {
+
+        return generatedValue;
+      }
     }
 
-    INDArray currentResults = Nd4j.zeros(ROW_COUNT, COLUMN_COUNT);
-    int currentValue = MAX_WIN;
-    for (int currentMove = 0; currentMove < COLUMN_COUNT; currentMove++) {
+    INDArray currentResults = Nd4j.zeros(ROW_COUNT, configuration.getFieldCount());
+    int currentValue = configuration.getMaxWin();
+    for (int currentMove = 0; currentMove < configuration.getFieldCount(); currentMove++) {
 
       if (currentPlayground.getDouble(currentMove) == 0) {
 
-        INDArray newPlayground = Nd4j.zeros(ROW_COUNT, COLUMN_COUNT);
+        INDArray newPlayground = Nd4j.zeros(ROW_COUNT, configuration.getFieldCount());
         Nd4j.copy(currentPlayground, newPlayground);
 
         newPlayground.putScalar(0, currentMove, MIN_PLAYER);
@@ -279,28 +996,341 @@ public class TicTacToeMiniMaxGenerator {
       }
     }
 
-    allPlaygroundsResults.add(new Pair<INDArray, INDArray>(currentPlayground, currentResults));
+    addPlaygroundResult(new Pair<INDArray, INDArray>(currentPlayground, currentResults));
+
+    if (null != transpositionTable) {
+
+      transpositionTable.store(positionKey, currentValue, Bound.EXACT, depth);
+    }
 
     return currentValue;
   }
 
-  protected boolean alreadyPresent(Set<INDArray> uniquePlaygrounds, INDArray playground) {
+  protected int searchCurrentInPlace() {
+
+    boolean maxMove = searchBoard.isMaxMove();
+    double currentPlayer = maxMove ? MAX_PLAYER : MIN_PLAYER;
+    int fieldsOccupied = searchBoard.countStones();
+
+    int[] moves = depthMoves[fieldsOccupied];
+    int moveCount = orderMoves(fieldsOccupied, hashMove(positionKey(searchBoard), fieldsOccupied), moves);
+
+    int currentValue = maxMove ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+    for (int moveIndex = 0; moveIndex < moveCount; moveIndex++) {
+
+      int currentMove = moves[moveIndex];
 
-    for (INDArray currentPlayground : uniquePlaygrounds) {
+      searchBoard.makeMove(currentMove, currentPlayer);
+      int newValue = maxMove ?
+          searchMinInPlace(Integer.MIN_VALUE, Integer.MAX_VALUE, fieldsOccupied + 1) :
+          searchMaxInPlace(Integer.MIN_VALUE, Integer.MAX_VALUE, fieldsOccupied + 1);
+      searchBoard.undoMove(currentMove);
 
-      if (currentPlayground.equalsWithEps(playground, DOUBLE_COMPARISON_EPSILON)) {
+      if (maxMove ? newValue > currentValue : newValue < currentValue) {
 
-        return true;
+        currentValue = newValue;
+        this.bestFoundSearchMove = currentMove;
       }
     }
-    return false;
+
+    return currentValue;
+  }
+
+  protected int searchMaxInPlace(int alpha, int beta, int depth) {
+
+    visitNode(depth);
+
+    if (searchBoard.hasWon(MIN_PLAYER)) {
+
+      return terminalValue(configuration.getMinWin() + depth, depth);
+
+    } else if (searchBoard.noEmptyFieldsLeft()) {
+
+      return terminalValue(MINIMAX_DRAW_VALUE, depth);
+
+    }
+
+    int initialAlpha = alpha;
+    int initialBeta = beta;
+    long positionKey = TicTacToeTranspositionTable.NOT_FOUND;
+    int hashMove = TicTacToeMoveOrdering.NO_MOVE;
+
+    if (null != transpositionTable) {
+
+      positionKey = positionKey(searchBoard);
+      int slot = probeSearchWindow(positionKey, alpha, beta, depth);
+
+      if (slot != TicTacToeTranspositionTable.NOT_FOUND && windowAlpha >= windowBeta) {
+
+        return transpositionTable.getValue(slot);
+      }
+      alpha = windowAlpha;
+      beta = windowBeta;
+
+      if (slot != TicTacToeTranspositionTable.NOT_FOUND && !symmetryReduction) {
+
+        hashMove = transpositionTable.getBestMove(slot);
+      }
+    }
+
+    int[] moves = depthMoves[depth];
+    int moveCount = orderMoves(depth, hashMove, moves);
+
+    int currentValue = configuration.getMinWin();
+    int bestMove = TicTacToeMoveOrdering.NO_MOVE;
+    for (int moveIndex = 0; moveIndex < moveCount; moveIndex++) {
+
+      int currentMove = moves[moveIndex];
+
+      searchBoard.makeMove(currentMove, MAX_PLAYER);
+      int childValue = searchMinInPlace(alpha, beta, depth + 1);
+      searchBoard.undoMove(currentMove);
+
+      if (TicTacToeMoveOrdering.NO_MOVE == bestMove || childValue > currentValue) {
+
+        bestMove = currentMove;
+      }
+      currentValue = Math.max(currentValue, childValue);
+
+      if (currentValue >= beta) {
+          notifyCutoff(depth, moveIndex + 1);
+          orderingCutoff(currentMove, MAX_PLAYER, depth);
+          break;
+      }
+
+      alpha = Math.max(alpha, currentValue);
+    }
+
+    storeSearchValue(positionKey, currentValue, initialAlpha, initialBeta, depth, bestMove);
+
+    return currentValue;
+  }
+
+  protected int searchMinInPlace(int alpha, int beta, int depth) {
+
+    visitNode(depth);
+
+    if (searchBoard.hasWon(MAX_PLAYER)) {
+
+      return terminalValue(configuration.getMaxWin() - depth, depth);
+
+    } else if (searchBoard.noEmptyFieldsLeft()) {
+
+      return terminalValue(MINIMAX_DRAW_VALUE, depth);
+
+    }
+
+    int initialAlpha = alpha;
+    int initialBeta = beta;
+    long positionKey = TicTacToeTranspositionTable.NOT_FOUND;
+    int hashMove = TicTacToeMoveOrdering.NO_MOVE;
+
+    if (null != transpositionTable) {
+
+      positionKey = positionKey(searchBoard);
+      int slot = probeSearchWindow(positionKey, alpha, beta, depth);
+
+      if (slot != TicTacToeTranspositionTable.NOT_FOUND && windowAlpha >= windowBeta) {
+
+        return transpositionTable.getValue(slot);
+      }
+      alpha = windowAlpha;
+      beta = windowBeta;
+
+      if (slot != TicTacToeTranspositionTable.NOT_FOUND && !symmetryReduction) {
+
+        hashMove = transpositionTable.getBestMove(slot);
+      }
+    }
+
+    int[] moves = depthMoves[depth];
+    int moveCount = orderMoves(depth, hashMove, moves);
+
+    int currentValue = configuration.getMaxWin();
+    int bestMove = TicTacToeMoveOrdering.NO_MOVE;
+    for (int moveIndex = 0; moveIndex < moveCount; moveIndex++) {
+
+      int currentMove = moves[moveIndex];
+
+      searchBoard.makeMove(currentMove, MIN_PLAYER);
+      int childValue = searchMaxInPlace(alpha, beta, depth + 1);
+      searchBoard.undoMove(currentMove);
+
+      if (TicTacToeMoveOrdering.NO_MOVE == bestMove || childValue < currentValue) {
+
+        bestMove = currentMove;
+      }
+      currentValue = Math.min(currentValue, childValue);
+
+      if (currentValue <= alpha) {
+           notifyCutoff(depth, moveIndex + 1);
+           orderingCutoff(currentMove, MIN_PLAYER, depth);
+           break;
+      }
+
+      beta = Math.min(currentValue, beta);
+    }
+
+    storeSearchValue(positionKey, currentValue, initialAlpha, initialBeta, depth, bestMove);
+
+    return currentValue;
+  }
+
+  protected int maxInPlace(int depth) {
+
+    visitNode(depth);
+
+    if (searchBoard.hasWon(MIN_PLAYER)) {
+
+      return terminalValue(configuration.getMinWin() + depth, depth);
+
+    } else if (searchBoard.noEmptyFieldsLeft()) {
+
+      return terminalValue(MINIMAX_DRAW_VALUE, depth);
+
+    }
+
+    return expandInPlace(depth, true);
+  }
+
+  protected int minInPlace(int depth) {
+
+    visitNode(depth);
+
+    if (searchBoard.hasWon(MAX_PLAYER)) {
+
+      return terminalValue(configuration.getMaxWin() - depth, depth);
+
+    } else if (searchBoard.noEmptyFieldsLeft()) {
+
+      return terminalValue(MINIMAX_DRAW_VALUE, depth);
+
+    }
+
+    return expandInPlace(depth, false);
+  }
+
+  /**
+   * Exhaustive expansion of the non terminal search board for max or min, the
+   * equivalent of the non terminal part of {@link #max(INDArray, int)} and
+   * {@link #min(INDArray, int)}.
+   */
+  protected int expandInPlace(int depth, boolean maxMove) {
+
+    int enteredMaxStones = searchBoard.getMaxStones();
+    int enteredMinStones = searchBoard.getMinStones();
+
+    if (symmetryReduction) {
+
+      canonicalizeInPlace(searchBoard);
+    }
+
+    long positionKey = TicTacToeTranspositionTable.NOT_FOUND;
+
+    if (null != transpositionTable) {
+
+      positionKey = positionKey(searchBoard);
+      Integer generatedValue = generatedValue(positionKey, depth);
+
+      if (null != generatedValue) {
+
+        searchBoard.setStones(enteredMaxStones, enteredMinStones);
+        return generatedValue;
+      }
+    }
+
+    double currentPlayer = maxMove ? MAX_PLAYER : MIN_PLAYER;
+    int[] currentResults = depthResults[depth];
+    int currentValue = maxMove ? configuration.getMinWin() : configuration.getMaxWin();
+
+    for (int currentMove = 0; currentMove < configuration.getFieldCount(); currentMove++) {
+
+      if (searchBoard.isEmpty(currentMove)) {
+
+        searchBoard.makeMove(currentMove, currentPlayer);
+
+        if (maxMove) {
+
+          currentValue = Math.max(currentValue, minInPlace(depth + 1));
+
+        } else {
+
+          currentValue = Math.min(currentValue, maxInPlace(depth + 1));
+        }
+
+        searchBoard.undoMove(currentMove);
+
+        currentResults[currentMove] = currentValue;
+
+      } else {
+
+        currentResults[currentMove] = (int) OCCUPIED;
+      }
+    }
+
+    addPlaygroundResult(new Pair<INDArray, INDArray>(searchBoard.toPlayground(), toResultArray(currentResults)));
+
+    if (null != transpositionTable) {
+
+      transpositionTable.store(positionKey, currentValue, Bound.EXACT, depth);
+    }
+
+    searchBoard.setStones(enteredMaxStones, enteredMinStones);
+
+    return currentValue;
+  }
+
+  protected TicTacToeBitboard createSearchBoard(INDArray playground) {
+
+    TicTacToeBitboard playgroundBoard = TicTacToeBitboard.fromPlayground(configuration, playground);
+
+    if (incrementalWinDetection) {
+
+      return new TicTacToeIncrementalState(configuration, playgroundBoard.getMaxStones(), playgroundBoard.getMinStones());
+    }
+
+    return playgroundBoard;
+  }
+
+  protected TicTacToeBitboard canonicalizeInPlace(TicTacToeBitboard bitboard) {
+
+    int maxStones = bitboard.getMaxStones();
+    int minStones = bitboard.getMinStones();
+    int canonicalSymmetry = TicTacToeSymmetry.canonicalSymmetry(maxStones, minStones);
+
+    bitboard.setStones(
+        TicTacToeSymmetry.transformMask(maxStones, canonicalSymmetry),
+        TicTacToeSymmetry.transformMask(minStones, canonicalSymmetry));
+
+    return bitboard;
+  }
+
+  protected long positionKey(TicTacToeBitboard bitboard) {
+
+    if (symmetryReduction) {
+
+      return TicTacToeSymmetry.canonicalIndex(bitboard.getMaxStones(), bitboard.getMinStones());
+    }
+
+    return bitboard.toPositionIndex();
+  }
+
+  protected INDArray toResultArray(int[] results) {
+
+    float[] resultValues = new float[configuration.getFieldCount()];
+    for (int field = 0; field < resultValues.length; field++) {
+
+      resultValues[field] = results[field];
+    }
+
+    return Nd4j.create(resultValues, new long[] {ROW_COUNT, resultValues.length}, Nd4j.defaultFloatingPointType());
   }
 
   protected INDArray createVector(double scalarValue) {
 
-    INDArray allDraw = Nd4j.zeros(ROW_COUNT, COLUMN_COUNT);
+    INDArray allDraw = Nd4j.zeros(ROW_COUNT, configuration.getFieldCount());
 
-    for (int index = 0; index < COLUMN_COUNT; index++) {
+    for (int index = 0; index < configuration.getFieldCount(); index++) {
 
       allDraw.putScalar(0, index, scalarValue);
     }
@@ -0,0 +1,220 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * Perfect play table of all playgrounds reachable by legal moves, indexed by the
+ * base 3 playground index of {@link TicTacToeBitboard}.
+ *
+ * Each entry holds the MiniMax value as returned by the {@link TicTacToeMiniMaxGenerator}
+ * searches and the 9 bit mask of all best moves for the player to move. The table is
+ * built once from the exhaustive generation and never changed, so one instance can be
+ * shared by any number of threads. Lookups by index or stone masks allocate nothing.
+ */
+public final class TicTacToeMiniMaxOracle {
+
+  public static final int NO_MOVE = -1;
+
+  private static final byte UNREACHABLE = Byte.MIN_VALUE;
+
+  private final byte[] values;
+
+  private final short[] bestMoveMasks;
+
+  private TicTacToeMiniMaxOracle(byte[] values, short[] bestMoveMasks) {
+
+    this.values = values;
+    this.bestMoveMasks = bestMoveMasks;
+  }
+
+  private static final class InstanceHolder {
+
+    private static final TicTacToeMiniMaxOracle INSTANCE = build();
+  }
+
+  /**
+   * @return the shared oracle, built on first use
+   */
+  public static TicTacToeMiniMaxOracle getInstance() {
+
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * Runs the exhaustive in place generation once. Values of non terminal playgrounds
+   * are the final entries of their generated results, terminal values and best moves
+   * are derived from those afterwards.
+   */
+  public static TicTacToeMiniMaxOracle build() {
+
+    byte[] values = new byte[TicTacToeBitboard.BASE3_INDEX_COUNT];
+    short[] bestMoveMasks = new short[TicTacToeBitboard.BASE3_INDEX_COUNT];
+    int[] generatedStones = new int[TicTacToeBitboard.BASE3_INDEX_COUNT];
+    BitSet generatedPlaygrounds = new BitSet(TicTacToeBitboard.BASE3_INDEX_COUNT);
+
+    Arrays.fill(values, UNREACHABLE);
+
+    TicTacToeMiniMaxGenerator generator = new TicTacToeMiniMaxGenerator(new TicTacToeTranspositionTable());
+    generator.setInPlaceSearch(true);
+    generator.setPlaygroundResultConsumer(playgroundResult -> {
+
+      TicTacToeBitboard bitboard = TicTacToeBitboard.fromPlayground(playgroundResult.getFirst());
+      int playgroundIndex = bitboard.toBase3Index();
+      int lastEmptyField = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(bitboard.getEmptyMask());
+
+      values[playgroundIndex] = (byte) playgroundResult.getSecond().getInt(lastEmptyField);
+      generatedStones[playgroundIndex] = packStones(bitboard.getMaxStones(), bitboard.getMinStones());
+      generatedPlaygrounds.set(playgroundIndex);
+    });
+    generator.searchInitial();
+
+    TicTacToeBitboard bitboard = new TicTacToeBitboard();
+    for (int playgroundIndex = generatedPlaygrounds.nextSetBit(0); playgroundIndex >= 0;
+        playgroundIndex = generatedPlaygrounds.nextSetBit(playgroundIndex + 1)) {
+
+      bitboard.setStones(generatedStones[playgroundIndex] & TicTacToeBitboard.FULL_MASK,
+          generatedStones[playgroundIndex] >>> COLUMN_COUNT);
+      bestMoveMasks[playgroundIndex] = (short) bestMoveMask(bitboard, values[playgroundIndex], values);
+    }
+
+    return new TicTacToeMiniMaxOracle(values, bestMoveMasks);
+  }
+
+  public boolean isReachable(int playgroundIndex) {
+
+    return UNREACHABLE != values[playgroundIndex];
+  }
+
+  /**
+   * @return the MiniMax value, positive if the max player wins with perfect play
+   * @throws IllegalArgumentException for playgrounds not reachable by legal moves
+   */
+  public int getValue(int playgroundIndex) {
+
+    if (!isReachable(playgroundIndex)) {
+
+      throw new IllegalArgumentException("Playground not reachable: " + playgroundIndex);
+    }
+
+    return values[playgroundIndex];
+  }
+
+  public int getValue(int maxStones, int minStones) {
+
+    return getValue(TicTacToeBitboard.base3Index(maxStones, minStones));
+  }
+
+  public int getValue(INDArray playground) {
+
+    return getValue(base3Index(playground));
+  }
+
+  /**
+   * @return the mask of all best moves, empty for terminal and unreachable playgrounds
+   */
+  public int getBestMoveMask(int playgroundIndex) {
+
+    return bestMoveMasks[playgroundIndex];
+  }
+
+  public int getBestMoveMask(int maxStones, int minStones) {
+
+    return getBestMoveMask(TicTacToeBitboard.base3Index(maxStones, minStones));
+  }
+
+  public int getBestMoveMask(INDArray playground) {
+
+    return getBestMoveMask(base3Index(playground));
+  }
+
+  /**
+   * @return the best move with the lowest field index, as found by
+   * {@link TicTacToeMiniMaxGenerator#searchCurrent(INDArray)}, or {@link #NO_MOVE}
+   */
+  public int getBestMove(int playgroundIndex) {
+
+    int bestMoveMask = bestMoveMasks[playgroundIndex];
+
+    return 0 == bestMoveMask ? NO_MOVE : Integer.numberOfTrailingZeros(bestMoveMask);
+  }
+
+  public int getBestMove(int maxStones, int minStones) {
+
+    return getBestMove(TicTacToeBitboard.base3Index(maxStones, minStones));
+  }
+
+  public int getBestMove(INDArray playground) {
+
+    return getBestMove(base3Index(playground));
+  }
+
+  public boolean isBestMove(int playgroundIndex, int field) {
+
+    return (bestMoveMasks[playgroundIndex] & (1 << field)) != 0;
+  }
+
+  /**
+   * @return the base 3 index of a flat playground, with fields compared as by
+   * {@link TicTacToeBitboard#fromPlayground(INDArray)}
+   */
+  static int base3Index(INDArray playground) {
+
+    return TicTacToeBitboard.fromPlayground(playground).toBase3Index();
+  }
+
+  static int packStones(int maxStones, int minStones) {
+
+    return maxStones | minStones << COLUMN_COUNT;
+  }
+
+  /**
+   * Stores the values of terminal children on the way, since the generation only adds
+   * non terminal playgrounds.
+   */
+  static int bestMoveMask(TicTacToeBitboard bitboard, int value, byte[] values) {
+
+    double currentPlayer = bitboard.getCurrentPlayer();
+    int bestMoveMask = TicTacToeBitboard.EMPTY_MASK;
+
+    for (int empty = bitboard.getEmptyMask(); empty != 0; empty &= empty - 1) {
+
+      int move = Integer.numberOfTrailingZeros(empty);
+
+      bitboard.makeMove(move, currentPlayer);
+      int childIndex = bitboard.toBase3Index();
+      if (UNREACHABLE == values[childIndex]) {
+
+        values[childIndex] = (byte) terminalValue(bitboard);
+      }
+      bitboard.undoMove(move);
+
+      if (value == values[childIndex]) {
+
+        bestMoveMask |= 1 << move;
+      }
+    }
+
+    return bestMoveMask;
+  }
+
+  static int terminalValue(TicTacToeBitboard bitboard) {
+
+    int depth = bitboard.countStones();
+
+    if (bitboard.hasWon(MAX_PLAYER)) {
+
+      return MAX_WIN - depth;
+
+    } else if (bitboard.hasWon(MIN_PLAYER)) {
+
+      return MIN_WIN + depth;
+    }
+
+    return MINIMAX_DRAW_VALUE;
+  }
+}
@@ -0,0 +1,53 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+/**
+ * Order in which the in place alpha beta searches of {@link TicTacToeMiniMaxGenerator}
+ * try the moves of a node. The earlier a refuting move is searched, the more moves
+ * the cutoff leaves unsearched.
+ *
+ * An ordering belongs to one searching thread, stateful ones hand out own instances
+ * to the workers of a parallel generation.
+ */
+public interface TicTacToeMoveOrdering {
+
+  int NO_MOVE = -1;
+
+  /**
+   * Writes the empty fields of position to moves in the order to search them.
+   *
+   * @param hashMove the best move stored for position by an earlier search or {@link #NO_MOVE}
+   * @return the number of moves written
+   */
+  int orderMoves(TicTacToeBitboard position, int depth, int hashMove, int[] moves);
+
+  /**
+   * The move of player caused a cutoff at depth, e.g. to update killer moves.
+   */
+  default void cutoff(int move, double player, int depth) {
+  }
+
+  /**
+   * @return the ordering for another searching thread, stateless orderings are shared
+   */
+  default TicTacToeMoveOrdering forWorker() {
+
+    return this;
+  }
+
+  /**
+   * @return the field index order searched without move ordering
+   */
+  static TicTacToeMoveOrdering indexOrder() {
+
+    return (position, depth, hashMove, moves) -> {
+
+      int moveCount = 0;
+      for (int empty = position.getEmptyMask(); empty != 0; empty &= empty - 1) {
+
+        moves[moveCount++] = Integer.numberOfTrailingZeros(empty);
+      }
+
+      return moveCount;
+    };
+  }
+}
@@ -5,70 +5,74 @@ import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
 import static ch.evolutionsoft.net.game.tictactoe.TicTacToeGameHelper.*;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.nd4j.common.primitives.Pair;
+import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 
 import ch.evolutionsoft.net.game.NeuralNetConstants;
 
+/**
+ * Converts generated MiniMax playgrounds and results to net inputs and labels.
+ *
+ * Label conversions work on playground rows of any m,n,k board, image conversions
+ * take the {@link TicTacToeBoardConfiguration} for other than the standard 3x3 board.
+ */
 public class TicTacToeNeuralDataConverter {
 
   public static final double SMALLEST_MAX_WIN = 1;
   public static final double BIGGEST_MIN_WIN = -1;
 
+  /**
+   * Version of the label and image conversions, increment it with every change of their
+   * results to invalidate the {@link TicTacToeConvertedDataCache}.
+   */
+  public static final int CONVERSION_VERSION = 1;
+
   private TicTacToeNeuralDataConverter() {
     // Hide constructor
   }
 
   public static List<Pair<INDArray, INDArray>> generateMultiClassLabelsConvolutional(List<Pair<INDArray, INDArray>> allPlaygroundsResults) {
 
-    List<Pair<INDArray, INDArray>> convertedLabels = convertMultiMiniMaxLabels(allPlaygroundsResults);
-    
-    List<Pair<INDArray, INDArray>> resultList = new LinkedList<>();
-
-    for (int index = 0; index < allPlaygroundsResults.size(); index++) {
-
-      INDArray playgroundArray = convertedLabels.get(index).getFirst();
+    return generateMultiClassLabelsConvolutional(TicTacToeBoardConfiguration.STANDARD, allPlaygroundsResults);
+  }
 
-      INDArray playgroundImage = TicTacToeNeuralDataConverter.convertTo3x3Image(playgroundArray);
-      INDArray playgroundImage4dRow = Nd4j.create(1, IMAGE_CHANNELS, IMAGE_SIZE, IMAGE_SIZE);
-      playgroundImage4dRow.putRow(0, playgroundImage);
+  public static List<Pair<INDArray, INDArray>> generateMultiClassLabelsConvolutional(
+      TicTacToeBoardConfiguration configuration, List<Pair<INDArray, INDArray>> allPlaygroundsResults) {
 
-      resultList.add(new Pair<INDArray, INDArray>(playgroundImage4dRow, convertedLabels.get(index).getSecond()));
-    }
-
-    return resultList;
+    return convertToConvolutionalData(configuration, convertMultiMiniMaxLabels(allPlaygroundsResults));
   }
 
   public static List<Pair<INDArray, INDArray>> convertMiniMaxPlaygroundLabelsToConvolutionalData(
       List<Pair<INDArray, INDArray>> allPlaygroundsResults) {
 
-    List<Pair<INDArray, INDArray>> convertedLabels = convertMiniMaxLabels(allPlaygroundsResults);
-    List<Pair<INDArray, INDArray>> resultList = new LinkedList<>();
-
-    for (int index = 0; index < allPlaygroundsResults.size(); index++) {
-
-      INDArray playgroundArray = convertedLabels.get(index).getFirst();
-
-      INDArray playgroundImage = TicTacToeNeuralDataConverter.convertTo3x3Image(playgroundArray);
-      INDArray playgroundImage4dRow = Nd4j.create(1, IMAGE_CHANNELS, IMAGE_SIZE, IMAGE_SIZE);
-      playgroundImage4dRow.putRow(0, playgroundImage);
+    return convertMiniMaxPlaygroundLabelsToConvolutionalData(TicTacToeBoardConfiguration.STANDARD, allPlaygroundsResults);
+  }
 
-      resultList.add(new Pair<INDArray, INDArray>(playgroundImage4dRow, convertedLabels.get(index).getSecond()));
-    }
+  public static List<Pair<INDArray, INDArray>> convertMiniMaxPlaygroundLabelsToConvolutionalData(
+      TicTacToeBoardConfiguration configuration, List<Pair<INDArray, INDArray>> allPlaygroundsResults) {
 
-    return resultList;
+    return convertToConvolutionalData(configuration, convertMiniMaxLabels(allPlaygroundsResults));
   }
 
+  /**
+   * Stacks playground and label rows, their length is taken from the first pair.
+   */
   public static Pair<INDArray, INDArray> stackFeedForwardPlaygroundLabels(
       List<Pair<INDArray, INDArray>> adaptedPlaygroundsLabels) {
 
     int playgroundsLabelsSize = adaptedPlaygroundsLabels.size();
-    INDArray stackedPlaygrounds = Nd4j.zeros(playgroundsLabelsSize, COLUMN_COUNT);
-    INDArray stackedLabels = Nd4j.zeros(playgroundsLabelsSize, COLUMN_COUNT);
+    long fieldCount = adaptedPlaygroundsLabels.isEmpty() ?
+        COLUMN_COUNT : adaptedPlaygroundsLabels.get(0).getFirst().length();
+    long labelCount = adaptedPlaygroundsLabels.isEmpty() ?
+        COLUMN_COUNT : adaptedPlaygroundsLabels.get(0).getSecond().length();
+    INDArray stackedPlaygrounds = Nd4j.zeros(playgroundsLabelsSize, fieldCount);
+    INDArray stackedLabels = Nd4j.zeros(playgroundsLabelsSize, labelCount);
 
     for (int index = 0; index < playgroundsLabelsSize; index++) {
 
@@ -82,12 +86,27 @@ public class TicTacToeNeuralDataConverter {
     return new Pair<>(stackedPlaygrounds, stackedLabels);
   }
 
+  /**
+   * Stacks playground images and label rows, the image height and width are taken from the first pair.
+   */
   public static Pair<INDArray, INDArray> stackConvolutionalPlaygroundLabels(
       List<Pair<INDArray, INDArray>> adaptedPlaygroundsLabels) {
 
     int playgroundsLabelsSize = adaptedPlaygroundsLabels.size();
-    INDArray stackedPlaygrounds = Nd4j.zeros(playgroundsLabelsSize, IMAGE_CHANNELS, IMAGE_SIZE, IMAGE_SIZE);
-    INDArray stackedLabels = Nd4j.zeros(playgroundsLabelsSize, COLUMN_COUNT);
+    long imageHeight = IMAGE_SIZE;
+    long imageWidth = IMAGE_SIZE;
+    long labelCount = COLUMN_COUNT;
+
+    if (!adaptedPlaygroundsLabels.isEmpty()) {
+
+      long[] imageShape = adaptedPlaygroundsLabels.get(0).getFirst().shape();
+      imageHeight = imageShape[imageShape.length - 2];
+      imageWidth = imageShape[imageShape.length - 1];
+      labelCount = adaptedPlaygroundsLabels.get(0).getSecond().length();
+    }
+
+    INDArray stackedPlaygrounds = Nd4j.zeros(playgroundsLabelsSize, IMAGE_CHANNELS, imageHeight, imageWidth);
+    INDArray stackedLabels = Nd4j.zeros(playgroundsLabelsSize, labelCount);
 
     for (int index = 0; index < playgroundsLabelsSize; index++) {
 
@@ -101,6 +120,57 @@ public class TicTacToeNeuralDataConverter {
     return new Pair<>(stackedPlaygrounds, stackedLabels);
   }
 
+  /**
+   * Reverses the stacking of features and labels of any rank, each pair holds views of one
+   * example with the leading dimension kept, e.g. images [1, 3, height, width] and labels [1, n].
+   */
+  public static List<Pair<INDArray, INDArray>> unstackPlaygroundLabels(Pair<INDArray, INDArray> stackedPlaygroundsLabels) {
+
+    INDArray stackedPlaygrounds = stackedPlaygroundsLabels.getFirst();
+    INDArray stackedLabels = stackedPlaygroundsLabels.getSecond();
+
+    int examples = (int) stackedPlaygrounds.size(0);
+    List<Pair<INDArray, INDArray>> playgroundsLabels = new ArrayList<>(examples);
+    for (int index = 0; index < examples; index++) {
+
+      playgroundsLabels.add(new Pair<>(
+          stackedPlaygrounds.get(NDArrayIndex.interval(index, index + 1)),
+          stackedLabels.get(NDArrayIndex.interval(index, index + 1))));
+    }
+
+    return playgroundsLabels;
+  }
+
+  /**
+   * Converts stacked playgrounds [N, 9] to playground images [N, 3, 3, 3] with whole
+   * array operations, each image equals the one of {@link #convertTo3x3Image(INDArray)}.
+   */
+  public static INDArray convertTo3x3Images(INDArray playgrounds) {
+
+    return convertToImages(TicTacToeBoardConfiguration.STANDARD, playgrounds);
+  }
+
+  /**
+   * Converts stacked playgrounds [N, fieldCount] to playground images [N, 3, height, width].
+   */
+  public static INDArray convertToImages(TicTacToeBoardConfiguration configuration, INDArray playgrounds) {
+
+    int fieldCount = configuration.getFieldCount();
+    INDArray playgroundRows = playgrounds.reshape(-1, fieldCount);
+    long examples = playgroundRows.size(0);
+
+    INDArray maxChannel = playgroundRows.eq(MAX_PLAYER).castTo(playgroundRows.dataType());
+    INDArray minChannel = playgroundRows.eq(MIN_PLAYER).castTo(playgroundRows.dataType());
+
+    INDArray currentPlayerColumn = maxChannel.sum(true, 1).addi(minChannel.sum(true, 1))
+        .fmodi(2).muli(-2).addi(1);
+    INDArray currentPlayerChannel = Nd4j.ones(playgroundRows.dataType(), examples, fieldCount)
+        .muliColumnVector(currentPlayerColumn);
+
+    return Nd4j.stack(1, currentPlayerChannel, maxChannel, minChannel)
+        .reshape('c', examples, IMAGE_CHANNELS, configuration.getHeight(), configuration.getWidth());
+  }
+
   public static INDArray convertTo3x3Image(INDArray playgroundArray) {
 
     INDArray playerArray = Nd4j.zeros(IMAGE_SIZE, IMAGE_SIZE);
@@ -145,10 +215,47 @@ public class TicTacToeNeuralDataConverter {
     return playgroundImage;
   }
 
+  /**
+   * @return image rows [1, 3, 3, 3] of one batch conversion with the unchanged labels
+   */
+  public static List<Pair<INDArray, INDArray>> convertToConvolutionalData(
+      List<Pair<INDArray, INDArray>> convertedPlaygroundsLabels) {
+
+    return convertToConvolutionalData(TicTacToeBoardConfiguration.STANDARD, convertedPlaygroundsLabels);
+  }
+
+  /**
+   * @return image rows [1, 3, height, width] of one batch conversion with the unchanged labels
+   */
+  public static List<Pair<INDArray, INDArray>> convertToConvolutionalData(
+      TicTacToeBoardConfiguration configuration, List<Pair<INDArray, INDArray>> convertedPlaygroundsLabels) {
+
+    List<Pair<INDArray, INDArray>> resultList = new ArrayList<>(convertedPlaygroundsLabels.size());
+    if (convertedPlaygroundsLabels.isEmpty()) {
+
+      return resultList;
+    }
+
+    INDArray playgroundImages = convertToImages(configuration,
+        stackFeedForwardPlaygroundLabels(convertedPlaygroundsLabels).getFirst());
+
+    int index = 0;
+    for (Pair<INDArray, INDArray> convertedPlaygroundLabel : convertedPlaygroundsLabels) {
+
+      INDArray playgroundImage4dRow = playgroundImages.get(
+          NDArrayIndex.interval(index, index + 1), NDArrayIndex.all(), NDArrayIndex.all(), NDArrayIndex.all());
+
+      resultList.add(new Pair<INDArray, INDArray>(playgroundImage4dRow, convertedPlaygroundLabel.getSecond()));
+      index++;
+    }
+
+    return resultList;
+  }
+
   public static List<Pair<INDArray, INDArray>> convertMultiMiniMaxLabels(
       List<Pair<INDArray, INDArray>> allPlaygroundsResults) {
 
-    List<Pair<INDArray, INDArray>> adaptedPlaygroundsLabels = new LinkedList<>();
+    List<Pair<INDArray, INDArray>> adaptedPlaygroundsLabels = new ArrayList<>(NeuralNetConstants.MEDIUM_CAPACITY);
 
     for (Pair<INDArray, INDArray> currentPair : allPlaygroundsResults) {
       
@@ -182,12 +289,258 @@ public class TicTacToeNeuralDataConverter {
     return adaptedPlaygroundsLabels;
   }
 
+  /**
+   * Converts stacked playgrounds [N, fieldCount] and MiniMax results [N, fieldCount] to
+   * the stacked labels [N, fieldCount] in one primitive pass, each row equal to the
+   * label of {@link #convertMiniMaxLabels(List)}.
+   */
+  public static INDArray convertStackedMiniMaxLabels(INDArray playgrounds, INDArray results) {
+
+    int fieldCount = (int) playgrounds.columns();
+    double[] playgroundValues = rowMajorValues(playgrounds);
+    double[] resultValues = rowMajorValues(results);
+    double[] labelValues = new double[playgroundValues.length];
+
+    for (int offset = 0; offset < playgroundValues.length; offset += fieldCount) {
+
+      binaryNetLabel(playgroundValues, resultValues, offset, fieldCount, labelValues);
+    }
+
+    return createStackedLabels(labelValues, playgrounds.rows(), fieldCount);
+  }
+
+  /**
+   * Converts stacked playgrounds [N, fieldCount] and MiniMax results [N, fieldCount] to
+   * the stacked labels [N, fieldCount] in one primitive pass, each row equal to the
+   * label of {@link #convertMultiMiniMaxLabels(List)}. Playgrounds without any possible
+   * move get an all zero label.
+   */
+  public static INDArray convertStackedMultiMiniMaxLabels(INDArray playgrounds, INDArray results) {
+
+    int fieldCount = (int) playgrounds.columns();
+    double[] playgroundValues = rowMajorValues(playgrounds);
+    double[] resultValues = rowMajorValues(results);
+    double[] labelValues = new double[playgroundValues.length];
+
+    for (int offset = 0; offset < playgroundValues.length; offset += fieldCount) {
+
+      multiClassNetLabel(playgroundValues, resultValues, offset, fieldCount, labelValues);
+    }
+
+    return createStackedLabels(labelValues, playgrounds.rows(), fieldCount);
+  }
+
+  private static double[] rowMajorValues(INDArray stackedRows) {
+
+    return stackedRows.castTo(DataType.DOUBLE).dup('c').data().asDouble();
+  }
+
+  private static INDArray createStackedLabels(double[] labelValues, long rows, long fieldCount) {
+
+    return Nd4j.create(labelValues, new long[] {rows, fieldCount}, Nd4j.defaultFloatingPointType());
+  }
+
+  /**
+   * Writes the label of the playground row at offset as
+   * {@link #convertMiniMaxResultToBinaryNetLabel(INDArray, INDArray)} into labels.
+   */
+  protected static void binaryNetLabel(double[] playgrounds, double[] results, int offset, int fieldCount,
+      double[] labels) {
+
+    int numberOfDrawMoves = 0;
+    int numberOfMaxWins = 0;
+    int numberOfMinWins = 0;
+    double currentFastestMaxWin = SMALLEST_MAX_WIN;
+    double currentFastestMinWin = BIGGEST_MIN_WIN;
+    int bestMaxIndex = -1;
+    int bestMinIndex = -1;
+    int firstDrawIndex = -1;
+    int firstEmptyIndex = -1;
+
+    for (int arrayIndex = offset; arrayIndex < offset + fieldCount; arrayIndex++) {
+
+      if (!equalsEpsilon(playgrounds[arrayIndex], EMPTY_FIELD_VALUE, DOUBLE_COMPARISON_EPSILON)) {
+
+        continue;
+      }
+
+      double upcomingFieldResult = results[arrayIndex];
+      if (firstEmptyIndex == -1) {
+
+        firstEmptyIndex = arrayIndex;
+      }
+
+      if (equalsEpsilon(upcomingFieldResult, MINIMAX_DRAW_VALUE, DOUBLE_COMPARISON_EPSILON)) {
+
+        numberOfDrawMoves++;
+        if (firstDrawIndex == -1) {
+
+          firstDrawIndex = arrayIndex;
+        }
+
+      } else if (SMALLEST_MAX_WIN <= upcomingFieldResult) {
+
+        numberOfMaxWins++;
+        if (currentFastestMaxWin > upcomingFieldResult) {
+
+          currentFastestMaxWin = upcomingFieldResult;
+          bestMaxIndex = arrayIndex;
+
+        } else if (bestMaxIndex == -1) {
+
+          bestMaxIndex = arrayIndex;
+        }
+
+      } else if (BIGGEST_MIN_WIN >= upcomingFieldResult) {
+
+        numberOfMinWins++;
+        if (currentFastestMinWin < upcomingFieldResult) {
+
+          currentFastestMinWin = upcomingFieldResult;
+          bestMinIndex = arrayIndex;
+
+        } else if (bestMinIndex == -1) {
+
+          bestMinIndex = arrayIndex;
+        }
+      }
+    }
+
+    boolean maxMove = isMaxMoveRow(playgrounds, offset, fieldCount);
+
+    if (maxMove && numberOfMaxWins > 0) {
+
+      labels[bestMaxIndex] = NET_WIN;
+
+    } else if (!maxMove && numberOfMinWins > 0) {
+
+      labels[bestMinIndex] = NET_WIN;
+
+    } else if (numberOfDrawMoves > 0) {
+
+      labels[firstDrawIndex] = NET_DRAW;
+
+    } else if (firstEmptyIndex != -1) {
+
+      labels[firstEmptyIndex] = NET_LOSS;
+    }
+  }
+
+  /**
+   * Writes the label of the playground row at offset as
+   * {@link #convertMiniMaxResultToMultiClassNetLabel(INDArray, INDArray)} into labels.
+   */
+  protected static void multiClassNetLabel(double[] playgrounds, double[] results, int offset, int fieldCount,
+      double[] labels) {
+
+    int numberOfDrawMoves = 0;
+    int numberOfMaxWins = 0;
+    int numberOfMinWins = 0;
+
+    for (int arrayIndex = offset; arrayIndex < offset + fieldCount; arrayIndex++) {
+
+      if (equalsEpsilon(playgrounds[arrayIndex], EMPTY_FIELD_VALUE, DOUBLE_COMPARISON_EPSILON)) {
+
+        if (equalsEpsilon(results[arrayIndex], MINIMAX_DRAW_VALUE, DOUBLE_COMPARISON_EPSILON)) {
+
+          numberOfDrawMoves++;
+
+        } else if (results[arrayIndex] >= SMALLEST_MAX_WIN) {
+
+          numberOfMaxWins++;
+
+        } else if (results[arrayIndex] <= BIGGEST_MIN_WIN) {
+
+          numberOfMinWins++;
+        }
+      }
+    }
+
+    boolean maxMove = isMaxMoveRow(playgrounds, offset, fieldCount);
+
+    if (maxMove && numberOfMaxWins > 0) {
+
+      markFastestWins(results, offset, fieldCount, numberOfMaxWins, 1, labels);
+
+    } else if (!maxMove && numberOfMinWins > 0) {
+
+      markFastestWins(results, offset, fieldCount, numberOfMinWins, -1, labels);
+
+    } else if (numberOfDrawMoves > 0) {
+
+      for (int arrayIndex = offset; arrayIndex < offset + fieldCount; arrayIndex++) {
+
+        if (equalsEpsilon(playgrounds[arrayIndex], EMPTY_FIELD_VALUE, DOUBLE_COMPARISON_EPSILON) &&
+            equalsEpsilon(results[arrayIndex], MINIMAX_DRAW_VALUE, DOUBLE_COMPARISON_EPSILON)) {
+
+          labels[arrayIndex] = NET_DRAW;
+        }
+      }
+
+    } else if (numberOfMinWins > 0 || numberOfMaxWins > 0) {
+
+      for (int arrayIndex = offset; arrayIndex < offset + fieldCount; arrayIndex++) {
+
+        if (equalsEpsilon(playgrounds[arrayIndex], EMPTY_FIELD_VALUE, DOUBLE_COMPARISON_EPSILON)) {
+
+          labels[arrayIndex] = 1.0;
+        }
+      }
+    }
+  }
+
+  /**
+   * As {@link #handleMultiMaxWinPosition(INDArray, int)} for sign 1 and
+   * {@link #handleMultiMinWinPosition(INDArray, int)} for sign -1, the fastest win is
+   * searched on sign * result.
+   */
+  private static void markFastestWins(double[] results, int offset, int fieldCount, int wins, int sign,
+      double[] labels) {
+
+    int winFieldsFound = 0;
+    double fastestWinFieldValue = SMALLEST_MAX_WIN - DEPTH_ADVANTAGE;
+    for (int arrayIndex = offset; arrayIndex < offset + fieldCount && winFieldsFound < wins; arrayIndex++) {
+
+      double currentWinFieldValue = sign * results[arrayIndex];
+
+      if (currentWinFieldValue > fastestWinFieldValue) {
+
+        fastestWinFieldValue = currentWinFieldValue;
+
+        Arrays.fill(labels, offset, offset + fieldCount, 0);
+        labels[arrayIndex] = NET_WIN;
+        winFieldsFound++;
+
+      } else if (sign * results[arrayIndex] > sign * NET_DRAW &&
+          equalsEpsilon(currentWinFieldValue, fastestWinFieldValue, DOUBLE_COMPARISON_EPSILON)) {
+
+        labels[arrayIndex] = NET_WIN;
+        winFieldsFound++;
+      }
+    }
+  }
+
+  private static boolean isMaxMoveRow(double[] playgrounds, int offset, int fieldCount) {
+
+    int countStones = 0;
+    for (int arrayIndex = offset; arrayIndex < offset + fieldCount; arrayIndex++) {
+
+      if (!isEmpty(playgrounds[arrayIndex])) {
+
+        countStones++;
+      }
+    }
+
+    return countStones % 2 == 0;
+  }
+
   protected static INDArray convertMiniMaxResultToMultiClassNetLabel(INDArray currentPlayground, INDArray currentResult) {
 
     int numberOfDrawMoves = 0;
     int numberOfMaxWins = 0;
     int numberOfMinWins = 0;
-    for (int arrayIndex = 0; arrayIndex < COLUMN_COUNT; arrayIndex++) {
+    int fieldCount = (int) currentResult.length();
+    for (int arrayIndex = 0; arrayIndex < fieldCount; arrayIndex++) {
 
       if (equalsEpsilon(currentPlayground.getDouble(arrayIndex), EMPTY_FIELD_VALUE,
           DOUBLE_COMPARISON_EPSILON) &&
@@ -245,7 +598,8 @@ public class TicTacToeNeuralDataConverter {
     double currentFastestMinWin = BIGGEST_MIN_WIN;
     int bestMaxIndex = -1;
     int bestMinIndex = -1;
-    for (int arrayIndex = 0; arrayIndex < COLUMN_COUNT; arrayIndex++) {
+    int fieldCount = (int) currentResult.length();
+    for (int arrayIndex = 0; arrayIndex < fieldCount; arrayIndex++) {
 
       double playgroundOccupation = currentPlayground.getDouble(arrayIndex);
       double upcomingFieldResult = currentResult.getDouble(arrayIndex);
@@ -291,11 +645,11 @@ public class TicTacToeNeuralDataConverter {
 
     if (isMaxMove(currentPlayground) && numberOfMaxWins > 0) {
 
-      adaptedResult = Nd4j.zeros(COLUMN_COUNT).putScalar(bestMaxIndex, NET_WIN);
+      adaptedResult = Nd4j.zeros(fieldCount).putScalar(bestMaxIndex, NET_WIN);
 
     } else if (!isMaxMove(currentPlayground) && numberOfMinWins > 0) {
 
-      adaptedResult = Nd4j.zeros(COLUMN_COUNT).putScalar(bestMinIndex, NET_WIN);
+      adaptedResult = Nd4j.zeros(fieldCount).putScalar(bestMinIndex, NET_WIN);
 
     } else if (numberOfDrawMoves > 0) {
 
@@ -311,11 +665,12 @@ public class TicTacToeNeuralDataConverter {
 
   protected static INDArray handleMultiMaxWinPosition(INDArray currentResult, int maxWins) {
 
-    INDArray adaptedResult = Nd4j.zeros(ROW_COUNT, COLUMN_COUNT);
+    int fieldCount = (int) currentResult.length();
+    INDArray adaptedResult = Nd4j.zeros(ROW_COUNT, fieldCount);
 
     int winFieldsFound = 0;
     double fastestWinFieldValue = SMALLEST_MAX_WIN - DEPTH_ADVANTAGE;
-    for (int arrayIndex = 0; arrayIndex < 9 && winFieldsFound < maxWins; arrayIndex++) {
+    for (int arrayIndex = 0; arrayIndex < fieldCount && winFieldsFound < maxWins; arrayIndex++) {
 
       double currentWinFieldValue = currentResult.getDouble(arrayIndex);
 
@@ -323,7 +678,7 @@ public class TicTacToeNeuralDataConverter {
 
         fastestWinFieldValue = currentWinFieldValue;
 
-        adaptedResult = Nd4j.zeros(ROW_COUNT, COLUMN_COUNT);
+        adaptedResult = Nd4j.zeros(ROW_COUNT, fieldCount);
         adaptedResult.putScalar(arrayIndex, NET_WIN);
         winFieldsFound++;
 
@@ -338,17 +693,18 @@ public class TicTacToeNeuralDataConverter {
 
   protected static INDArray handleMultiMinWinPosition(INDArray currentResult, int minWins) {
 
-    INDArray adaptedResult = Nd4j.zeros(ROW_COUNT, COLUMN_COUNT);
+    int fieldCount = (int) currentResult.length();
+    INDArray adaptedResult = Nd4j.zeros(ROW_COUNT, fieldCount);
 
     int winFieldsFound = 0;
     double fastestWinFieldValue = BIGGEST_MIN_WIN + DEPTH_ADVANTAGE;
-    for (int arrayIndex = 0; arrayIndex < 9 && winFieldsFound < minWins; arrayIndex++) {
+    for (int arrayIndex = 0; arrayIndex < fieldCount && winFieldsFound < minWins; arrayIndex++) {
 
       double currentWinFieldValue = currentResult.getDouble(arrayIndex);
 
       if (currentWinFieldValue < fastestWinFieldValue) {
 
-        adaptedResult = Nd4j.zeros(ROW_COUNT, COLUMN_COUNT);
+        adaptedResult = Nd4j.zeros(ROW_COUNT, fieldCount);
 
         fastestWinFieldValue = currentWinFieldValue;
         adaptedResult.putScalar(arrayIndex, NET_WIN);
@@ -367,10 +723,11 @@ public class TicTacToeNeuralDataConverter {
   protected static INDArray handleDrawPosition(INDArray currentPlayground, INDArray currentResult) {
 
     // Take the first field found leading to a draw
-    INDArray adaptedResult = Nd4j.zeros(ROW_COUNT, COLUMN_COUNT);
+    int fieldCount = (int) currentPlayground.length();
+    INDArray adaptedResult = Nd4j.zeros(ROW_COUNT, fieldCount);
     boolean drawFieldFound = false;
 
-    for (int arrayIndex = 0; arrayIndex < 9 && !drawFieldFound; arrayIndex++) {
+    for (int arrayIndex = 0; arrayIndex < fieldCount && !drawFieldFound; arrayIndex++) {
 
       if (equalsEpsilon(currentPlayground.getDouble(arrayIndex), EMPTY_FIELD_VALUE,
           DOUBLE_COMPARISON_EPSILON) &&
@@ -386,9 +743,10 @@ public class TicTacToeNeuralDataConverter {
 
   protected static INDArray handleMultiDrawPosition(INDArray currentPlayground, INDArray currentResult) {
 
-    INDArray adaptedResult = Nd4j.zeros(ROW_COUNT, COLUMN_COUNT);
+    int fieldCount = (int) currentPlayground.length();
+    INDArray adaptedResult = Nd4j.zeros(ROW_COUNT, fieldCount);
 
-    for (int arrayIndex = 0; arrayIndex < 9; arrayIndex++) {
+    for (int arrayIndex = 0; arrayIndex < fieldCount; arrayIndex++) {
 
       if (equalsEpsilon(currentPlayground.getDouble(arrayIndex), EMPTY_FIELD_VALUE,
           DOUBLE_COMPARISON_EPSILON) &&
@@ -405,9 +763,10 @@ public class TicTacToeNeuralDataConverter {
 
     // Take the first found empty field leading to loss
     boolean lossFieldFound = false;
-    INDArray adaptedResult = Nd4j.zeros(ROW_COUNT, COLUMN_COUNT);
+    int fieldCount = (int) currentPlayground.length();
+    INDArray adaptedResult = Nd4j.zeros(ROW_COUNT, fieldCount);
 
-    for (int arrayIndex = 0; arrayIndex < 9 && !lossFieldFound; arrayIndex++) {
+    for (int arrayIndex = 0; arrayIndex < fieldCount && !lossFieldFound; arrayIndex++) {
 
       if (equalsEpsilon(currentPlayground.getDouble(arrayIndex), EMPTY_FIELD_VALUE,
           DOUBLE_COMPARISON_EPSILON)) {
@@ -424,9 +783,10 @@ public class TicTacToeNeuralDataConverter {
 
     double lossValue = 1.0;
 
-    INDArray adaptedResult = Nd4j.zeros(ROW_COUNT, COLUMN_COUNT);
+    int fieldCount = (int) currentPlayground.length();
+    INDArray adaptedResult = Nd4j.zeros(ROW_COUNT, fieldCount);
 
-    for (int arrayIndex = 0; arrayIndex < 9; arrayIndex++) {
+    for (int arrayIndex = 0; arrayIndex < fieldCount; arrayIndex++) {
 
       if (equalsEpsilon(currentPlayground.getDouble(arrayIndex), EMPTY_FIELD_VALUE,
           DOUBLE_COMPARISON_EPSILON)) {
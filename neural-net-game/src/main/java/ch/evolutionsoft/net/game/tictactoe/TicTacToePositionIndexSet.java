@@ -0,0 +1,105 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing set of non negative base 3 position indices in one primitive array,
+ * 16 bytes per index at most instead of a boxed hash set entry.
+ *
+ * The array doubles while filled to half, up to the capacity for maxSize indices.
+ * Adding further distinct indices fails fast instead of growing until the heap is
+ * exhausted.
+ */
+class TicTacToePositionIndexSet {
+
+  private static final long EMPTY_INDEX = -1;
+
+  private static final int MIN_CAPACITY = 1 << 10;
+
+  private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+  protected final int maxSize;
+
+  protected long[] indices;
+
+  protected int size;
+
+  TicTacToePositionIndexSet(int maxSize) {
+
+    if (maxSize <= 0 || maxSize > 1 << 29) {
+
+      throw new IllegalArgumentException("Invalid maximum size " + maxSize);
+    }
+
+    this.maxSize = maxSize;
+    this.indices = emptyIndices(Math.min(MIN_CAPACITY, 2 * Integer.highestOneBit(maxSize)));
+  }
+
+  /**
+   * @return true if positionIndex was not present yet
+   * @throws IllegalStateException if maxSize indices are present already
+   */
+  boolean add(long positionIndex) {
+
+    int slot = findSlot(indices, positionIndex);
+    if (indices[slot] == positionIndex) {
+
+      return false;
+    }
+
+    if (size >= maxSize) {
+
+      throw new IllegalStateException("More than " + maxSize + " distinct positions to filter");
+    }
+
+    indices[slot] = positionIndex;
+    size++;
+
+    if (2 * size > indices.length) {
+
+      grow();
+    }
+
+    return true;
+  }
+
+  int size() {
+
+    return size;
+  }
+
+  protected void grow() {
+
+    long[] grownIndices = emptyIndices(2 * indices.length);
+    for (long positionIndex : indices) {
+
+      if (EMPTY_INDEX != positionIndex) {
+
+        grownIndices[findSlot(grownIndices, positionIndex)] = positionIndex;
+      }
+    }
+
+    indices = grownIndices;
+  }
+
+  static int findSlot(long[] indices, long positionIndex) {
+
+    int mask = indices.length - 1;
+    int slot = (int) ((positionIndex * HASH_MULTIPLIER) >>> 32) & mask;
+
+    while (indices[slot] != EMPTY_INDEX && indices[slot] != positionIndex) {
+
+      slot = (slot + 1) & mask;
+    }
+
+    return slot;
+  }
+
+  static long[] emptyIndices(int capacity) {
+
+    long[] indices = new long[capacity];
+    Arrays.fill(indices, EMPTY_INDEX);
+
+    return indices;
+  }
+}
@@ -0,0 +1,190 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.nd4j.common.primitives.Pair;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * The 8 symmetries of the TicTacToe playground (dihedral group D4): rotations by
+ * 0, 90, 180 and 270 degrees and the reflections at both middle axes and both diagonals.
+ *
+ * A symmetry is given as field permutation, the transformed playground holds
+ * {@code playground[FIELD_PERMUTATIONS[symmetry][field]]} at each field. Playgrounds
+ * and result or label vectors are permuted the same way.
+ *
+ * The canonical form of a playground is its variant with the smallest base 3 index.
+ */
+public final class TicTacToeSymmetry {
+
+  public static final int NUMBER_OF_SYMMETRIES = 8;
+  public static final int IDENTITY = 0;
+
+  public static final int[][] FIELD_PERMUTATIONS = new int[NUMBER_OF_SYMMETRIES][COLUMN_COUNT];
+
+  private static final int[][] MASK_TRANSFORMATIONS = new int[NUMBER_OF_SYMMETRIES][TicTacToeBitboard.FULL_MASK + 1];
+
+  static {
+    int last = IMAGE_SIZE - 1;
+    for (int row = 0; row < IMAGE_SIZE; row++) {
+
+      for (int column = 0; column < IMAGE_SIZE; column++) {
+
+        int field = IMAGE_SIZE * row + column;
+        FIELD_PERMUTATIONS[0][field] = field;
+        FIELD_PERMUTATIONS[1][field] = IMAGE_SIZE * (last - column) + row;
+        FIELD_PERMUTATIONS[2][field] = IMAGE_SIZE * (last - row) + last - column;
+        FIELD_PERMUTATIONS[3][field] = IMAGE_SIZE * column + last - row;
+        FIELD_PERMUTATIONS[4][field] = IMAGE_SIZE * row + last - column;
+        FIELD_PERMUTATIONS[5][field] = IMAGE_SIZE * (last - row) + column;
+        FIELD_PERMUTATIONS[6][field] = IMAGE_SIZE * column + row;
+        FIELD_PERMUTATIONS[7][field] = IMAGE_SIZE * (last - column) + last - row;
+      }
+    }
+
+    for (int symmetry = 0; symmetry < NUMBER_OF_SYMMETRIES; symmetry++) {
+
+      for (int mask = 0; mask <= TicTacToeBitboard.FULL_MASK; mask++) {
+
+        int transformedMask = TicTacToeBitboard.EMPTY_MASK;
+        for (int field = 0; field < COLUMN_COUNT; field++) {
+
+          if ((mask & (1 << FIELD_PERMUTATIONS[symmetry][field])) != 0) {
+
+            transformedMask |= 1 << field;
+          }
+        }
+        MASK_TRANSFORMATIONS[symmetry][mask] = transformedMask;
+      }
+    }
+  }
+
+  private TicTacToeSymmetry() {
+    // Hide constructor
+  }
+
+  public static int transformMask(int mask, int symmetry) {
+
+    return MASK_TRANSFORMATIONS[symmetry][mask];
+  }
+
+  /**
+   * @return the symmetry leading to the canonical form, the smallest one in case of ties
+   */
+  public static int canonicalSymmetry(int maxStones, int minStones) {
+
+    int canonicalSymmetry = IDENTITY;
+    int smallestIndex = TicTacToeBitboard.base3Index(maxStones, minStones);
+
+    for (int symmetry = 1; symmetry < NUMBER_OF_SYMMETRIES; symmetry++) {
+
+      int currentIndex = TicTacToeBitboard.base3Index(
+          transformMask(maxStones, symmetry), transformMask(minStones, symmetry));
+
+      if (currentIndex < smallestIndex) {
+
+        smallestIndex = currentIndex;
+        canonicalSymmetry = symmetry;
+      }
+    }
+
+    return canonicalSymmetry;
+  }
+
+  public static int canonicalIndex(int maxStones, int minStones) {
+
+    int canonicalSymmetry = canonicalSymmetry(maxStones, minStones);
+
+    return TicTacToeBitboard.base3Index(
+        transformMask(maxStones, canonicalSymmetry), transformMask(minStones, canonicalSymmetry));
+  }
+
+  public static TicTacToeBitboard transform(TicTacToeBitboard bitboard, int symmetry) {
+
+    return new TicTacToeBitboard(
+        transformMask(bitboard.getMaxStones(), symmetry), transformMask(bitboard.getMinStones(), symmetry));
+  }
+
+  public static TicTacToeBitboard canonicalize(TicTacToeBitboard bitboard) {
+
+    return transform(bitboard, canonicalSymmetry(bitboard.getMaxStones(), bitboard.getMinStones()));
+  }
+
+  public static boolean isCanonical(TicTacToeBitboard bitboard) {
+
+    return bitboard.toBase3Index() == canonicalIndex(bitboard.getMaxStones(), bitboard.getMinStones());
+  }
+
+  /**
+   * Permutes the 9 columns of a flat playground, result or label array with shape
+   * [9], [1, 9] or stacked [N, 9].
+   */
+  public static INDArray transformColumns(INDArray fieldValues, int symmetry) {
+
+    if (1 == fieldValues.rank()) {
+
+      return fieldValues.reshape(ROW_COUNT, COLUMN_COUNT).getColumns(FIELD_PERMUTATIONS[symmetry]).reshape(COLUMN_COUNT);
+    }
+
+    return fieldValues.getColumns(FIELD_PERMUTATIONS[symmetry]);
+  }
+
+  /**
+   * Permutes the spatial fields of playground images with shape [N, channels, 3, 3].
+   */
+  public static INDArray transformImages(INDArray playgroundImages, int symmetry) {
+
+    long examples = playgroundImages.size(0);
+    long channels = playgroundImages.size(1);
+
+    return playgroundImages.reshape('c', examples * channels, COLUMN_COUNT)
+        .getColumns(FIELD_PERMUTATIONS[symmetry])
+        .reshape('c', examples, channels, IMAGE_SIZE, IMAGE_SIZE);
+  }
+
+  /**
+   * Expands each playground and label pair into its distinct symmetric variants.
+   * The permuted labels stay valid for the transformed playground. Tie breaks
+   * by field index of a converter may choose another one of equal fields though.
+   */
+  public static List<Pair<INDArray, INDArray>> augment(List<Pair<INDArray, INDArray>> playgroundsLabels) {
+
+    List<Pair<INDArray, INDArray>> augmentedPlaygroundsLabels =
+        new ArrayList<>(NUMBER_OF_SYMMETRIES * playgroundsLabels.size());
+
+    for (Pair<INDArray, INDArray> playgroundLabel : playgroundsLabels) {
+
+      TicTacToeBitboard bitboard = TicTacToeBitboard.fromPlayground(playgroundLabel.getFirst());
+      int[] variantIndices = new int[NUMBER_OF_SYMMETRIES];
+
+      for (int symmetry = 0; symmetry < NUMBER_OF_SYMMETRIES; symmetry++) {
+
+        variantIndices[symmetry] = transform(bitboard, symmetry).toBase3Index();
+        if (isFirstVariant(variantIndices, symmetry)) {
+
+          augmentedPlaygroundsLabels.add(new Pair<>(
+              transformColumns(playgroundLabel.getFirst(), symmetry),
+              transformColumns(playgroundLabel.getSecond(), symmetry)));
+        }
+      }
+    }
+
+    return augmentedPlaygroundsLabels;
+  }
+
+  static boolean isFirstVariant(int[] variantIndices, int symmetry) {
+
+    for (int previousSymmetry = 0; previousSymmetry < symmetry; previousSymmetry++) {
+
+      if (variantIndices[previousSymmetry] == variantIndices[symmetry]) {
+
+        return false;
+      }
+    }
+
+    return true;
+  }
+}
@@ -0,0 +1,220 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * Expands each batch of a wrapped iterator at batch time into its distinct symmetric
+ * variants, e.g. to train on canonical playgrounds only stored once.
+ *
+ * Features are either flat playgrounds [N, 9] or playground images [N, channels, 3, 3],
+ * labels have shape [N, 9]. The returned batch has up to 8 * N examples ordered by symmetry.
+ * Like {@link TicTacToeSymmetry#augment(List)} it skips a variant equal to one of a smaller
+ * symmetry, symmetric playgrounds would otherwise be trained several times per batch.
+ */
+public class TicTacToeSymmetryAugmentationIterator implements DataSetIterator {
+
+  private static final long serialVersionUID = 7264081340931585416L;
+
+  private static final int IMAGE_RANK = 4;
+
+  private final DataSetIterator canonicalIterator;
+
+  private DataSetPreProcessor preProcessor;
+
+  public TicTacToeSymmetryAugmentationIterator(DataSetIterator canonicalIterator) {
+
+    this.canonicalIterator = canonicalIterator;
+  }
+
+  public static DataSet augment(DataSet canonicalDataSet) {
+
+    INDArray features = canonicalDataSet.getFeatures();
+    INDArray labels = canonicalDataSet.getLabels();
+
+    List<INDArray> featureVariants = new ArrayList<>(TicTacToeSymmetry.NUMBER_OF_SYMMETRIES);
+    List<INDArray> labelVariants = new ArrayList<>(TicTacToeSymmetry.NUMBER_OF_SYMMETRIES);
+
+    for (int symmetry = 0; symmetry < TicTacToeSymmetry.NUMBER_OF_SYMMETRIES; symmetry++) {
+
+      if (IMAGE_RANK == features.rank()) {
+
+        featureVariants.add(TicTacToeSymmetry.transformImages(features, symmetry));
+
+      } else {
+
+        featureVariants.add(TicTacToeSymmetry.transformColumns(features, symmetry));
+      }
+
+      labelVariants.add(TicTacToeSymmetry.transformColumns(labels, symmetry));
+    }
+
+    INDArray augmentedFeatures = Nd4j.concat(0, featureVariants.toArray(new INDArray[0]));
+    INDArray augmentedLabels = Nd4j.concat(0, labelVariants.toArray(new INDArray[0]));
+
+    int[] distinctRows = distinctVariantRows(features);
+    if (distinctRows.length == augmentedLabels.rows()) {
+
+      return new DataSet(augmentedFeatures, augmentedLabels);
+    }
+
+    long[] featuresShape = augmentedFeatures.shape();
+    INDArray featureRows = augmentedFeatures.reshape('c', featuresShape[0], augmentedFeatures.length() / featuresShape[0]);
+    featuresShape[0] = distinctRows.length;
+
+    return new DataSet(
+        Nd4j.pullRows(featureRows, 1, distinctRows).reshape('c', featuresShape),
+        Nd4j.pullRows(augmentedLabels, 1, distinctRows));
+  }
+
+  /**
+   * @return the rows of the augmented batch, symmetry * N + example, whose features
+   * differ from the variants of all smaller symmetries of the example
+   */
+  static int[] distinctVariantRows(INDArray features) {
+
+    int examples = (int) features.size(0);
+    if (0 == examples) {
+
+      return new int[0];
+    }
+
+    double[][] exampleFields = features.reshape('c', examples, features.length() / examples).toDoubleMatrix();
+    int channels = exampleFields[0].length / COLUMN_COUNT;
+
+    List<Integer> distinctRows = new ArrayList<>(TicTacToeSymmetry.NUMBER_OF_SYMMETRIES * examples);
+    double[][][] variantFields = new double[examples][TicTacToeSymmetry.NUMBER_OF_SYMMETRIES][];
+
+    for (int symmetry = 0; symmetry < TicTacToeSymmetry.NUMBER_OF_SYMMETRIES; symmetry++) {
+
+      int[] permutation = TicTacToeSymmetry.FIELD_PERMUTATIONS[symmetry];
+
+      for (int example = 0; example < examples; example++) {
+
+        double[] fields = new double[exampleFields[example].length];
+        for (int channel = 0; channel < channels; channel++) {
+
+          for (int field = 0; field < COLUMN_COUNT; field++) {
+
+            fields[channel * COLUMN_COUNT + field] = exampleFields[example][channel * COLUMN_COUNT + permutation[field]];
+          }
+        }
+        variantFields[example][symmetry] = fields;
+
+        if (isFirstVariant(variantFields[example], symmetry)) {
+
+          distinctRows.add(symmetry * examples + example);
+        }
+      }
+    }
+
+    return distinctRows.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  static boolean isFirstVariant(double[][] variantFields, int symmetry) {
+
+    for (int previousSymmetry = 0; previousSymmetry < symmetry; previousSymmetry++) {
+
+      if (Arrays.equals(variantFields[previousSymmetry], variantFields[symmetry])) {
+
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  @Override
+  public boolean hasNext() {
+
+    return canonicalIterator.hasNext();
+  }
+
+  @Override
+  public DataSet next() {
+
+    return preProcess(augment(canonicalIterator.next()));
+  }
+
+  @Override
+  public DataSet next(int numberOfCanonicalExamples) {
+
+    return preProcess(augment(canonicalIterator.next(numberOfCanonicalExamples)));
+  }
+
+  @Override
+  public int inputColumns() {
+
+    return canonicalIterator.inputColumns();
+  }
+
+  @Override
+  public int totalOutcomes() {
+
+    return canonicalIterator.totalOutcomes();
+  }
+
+  @Override
+  public boolean resetSupported() {
+
+    return canonicalIterator.resetSupported();
+  }
+
+  @Override
+  public boolean asyncSupported() {
+
+    return canonicalIterator.asyncSupported();
+  }
+
+  @Override
+  public void reset() {
+
+    canonicalIterator.reset();
+  }
+
+  /**
+   * @return the batch size of the wrapped iterator, each returned batch is up to 8 times larger
+   */
+  @Override
+  public int batch() {
+
+    return canonicalIterator.batch();
+  }
+
+  @Override
+  public void setPreProcessor(DataSetPreProcessor preProcessor) {
+
+    this.preProcessor = preProcessor;
+  }
+
+  @Override
+  public DataSetPreProcessor getPreProcessor() {
+
+    return preProcessor;
+  }
+
+  @Override
+  public List<String> getLabels() {
+
+    return canonicalIterator.getLabels();
+  }
+
+  protected DataSet preProcess(DataSet augmentedDataSet) {
+
+    if (null != preProcessor) {
+
+      preProcessor.preProcess(augmentedDataSet);
+    }
+
+    return augmentedDataSet;
+  }
+}
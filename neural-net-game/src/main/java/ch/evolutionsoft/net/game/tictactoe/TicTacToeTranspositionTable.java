@@ -0,0 +1,201 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import java.util.Arrays;
+
+/**
+ * Fixed size transposition table for MiniMax searches keyed by the base 3
+ * playground index of {@link TicTacToeBitboard#toPositionIndex()}.
+ *
+ * Entries are kept in primitive arrays, a colliding store replaces the present entry.
+ * The default size holds every TicTacToe playground without collisions. Keys beyond
+ * the table size, as of larger m,n,k boards, are folded into a slot by xor of their
+ * index bit chunks.
+ *
+ * Alpha beta searches store the best move of a position along with its value, which
+ * a {@link TicTacToeMoveOrdering} searches first when the position is reached again.
+ *
+ * Not thread safe, use one table per searching thread.
+ */
+public class TicTacToeTranspositionTable {
+
+  public static final int DEFAULT_SIZE = 1 << 15;
+
+  public static final int MAX_DEFAULT_SIZE = 1 << 22;
+
+  public static final int NOT_FOUND = -1;
+
+  public enum Bound {
+    EXACT, LOWER, UPPER
+  }
+
+  private static final long EMPTY_KEY = -1;
+
+  private static final Bound[] BOUNDS = Bound.values();
+
+  private final int indexBits;
+  private final int indexMask;
+
+  private final long[] keys;
+  private final int[] values;
+  private final byte[] bounds;
+  private final byte[] depths;
+  private final byte[] bestMoves;
+
+  private long hits;
+  private long misses;
+
+  public TicTacToeTranspositionTable() {
+
+    this(DEFAULT_SIZE);
+  }
+
+  /**
+   * @param size number of entries, has to be a power of two
+   */
+  public TicTacToeTranspositionTable(int size) {
+
+    if (size <= 0 || Integer.bitCount(size) != 1) {
+
+      throw new IllegalArgumentException("Transposition table size has to be a power of two: " + size);
+    }
+
+    this.indexBits = Integer.numberOfTrailingZeros(size);
+    this.indexMask = size - 1;
+    this.keys = new long[size];
+    this.values = new int[size];
+    this.bounds = new byte[size];
+    this.depths = new byte[size];
+    this.bestMoves = new byte[size];
+
+    Arrays.fill(this.keys, EMPTY_KEY);
+  }
+
+  /**
+   * @return a table with one entry per playground of the configuration, at most
+   * {@link #MAX_DEFAULT_SIZE} entries
+   */
+  public static TicTacToeTranspositionTable forConfiguration(TicTacToeBoardConfiguration configuration) {
+
+    long positionCount = Math.min(configuration.getPositionCount(), MAX_DEFAULT_SIZE);
+    int size = Integer.highestOneBit((int) positionCount);
+    if (size < positionCount) {
+
+      size <<= 1;
+    }
+
+    return new TicTacToeTranspositionTable(Math.max(size, DEFAULT_SIZE));
+  }
+
+  /**
+   * @return the slot of the entry stored for key and depth or NOT_FOUND
+   */
+  public int probe(long key, int depth) {
+
+    int slot = slot(key);
+
+    if (keys[slot] == key && depths[slot] == depth) {
+
+      hits++;
+      return slot;
+    }
+
+    misses++;
+    return NOT_FOUND;
+  }
+
+  public void store(long key, int value, Bound bound, int depth) {
+
+    store(key, value, bound, depth, TicTacToeMoveOrdering.NO_MOVE);
+  }
+
+  /**
+   * @param bestMove the move leading to value or {@link TicTacToeMoveOrdering#NO_MOVE}
+   */
+  public void store(long key, int value, Bound bound, int depth, int bestMove) {
+
+    int slot = slot(key);
+
+    keys[slot] = key;
+    values[slot] = value;
+    bounds[slot] = (byte) bound.ordinal();
+    depths[slot] = (byte) depth;
+    bestMoves[slot] = (byte) bestMove;
+  }
+
+  /**
+   * Keys smaller than the table size are their own slot.
+   */
+  protected int slot(long key) {
+
+    if (0 == indexBits) {
+
+      return 0;
+    }
+
+    long foldedKey = key;
+    for (long higherBits = key >>> indexBits; higherBits != 0; higherBits >>>= indexBits) {
+
+      foldedKey ^= higherBits;
+    }
+
+    return (int) foldedKey & indexMask;
+  }
+
+  public int getValue(int slot) {
+
+    return values[slot];
+  }
+
+  public Bound getBound(int slot) {
+
+    return BOUNDS[bounds[slot]];
+  }
+
+  public int getDepth(int slot) {
+
+    return depths[slot];
+  }
+
+  public int getBestMove(int slot) {
+
+    return bestMoves[slot];
+  }
+
+  public int size() {
+
+    return keys.length;
+  }
+
+  public void clear() {
+
+    Arrays.fill(keys, EMPTY_KEY);
+    resetStatistics();
+  }
+
+  public void resetStatistics() {
+
+    hits = 0;
+    misses = 0;
+  }
+
+  public long getHits() {
+
+    return hits;
+  }
+
+  public long getMisses() {
+
+    return misses;
+  }
+
+  public double getHitRate() {
+
+    long probes = hits + misses;
+    if (probes == 0) {
+
+      return 0;
+    }
+
+    return (double) hits / probes;
+  }
+}
@@ -0,0 +1,69 @@
+package ch.evolutionsoft.net.game;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+public class NeuralDataBinaryFormatTest {
+
+  @TempDir
+  Path temporaryDirectory;
+
+  @Test
+  public void floatMatrixRoundTrip() {
+
+    INDArray playgrounds = Nd4j.rand(DataType.FLOAT, 17, 9).subi(0.5);
+    Path binaryPath = temporaryDirectory.resolve("inputs.bin");
+
+    NeuralDataBinaryFormat.write(playgrounds, binaryPath);
+    INDArray readPlaygrounds = NeuralDataBinaryFormat.read(binaryPath);
+
+    assertEquals(DataType.FLOAT, readPlaygrounds.dataType());
+    assertArrayEquals(playgrounds.shape(), readPlaygrounds.shape());
+    assertEquals(playgrounds, readPlaygrounds);
+  }
+
+  @Test
+  public void doubleImageViewRoundTrip() {
+
+    INDArray images = Nd4j.rand(DataType.DOUBLE, 4, 3, 3, 3);
+    INDArray imageView = images.get(NDArrayIndex.interval(1, 3));
+    Path binaryPath = temporaryDirectory.resolve("images.bin");
+
+    NeuralDataBinaryFormat.write(imageView, binaryPath);
+    INDArray readImages = NeuralDataBinaryFormat.read(binaryPath);
+
+    assertEquals(DataType.DOUBLE, readImages.dataType());
+    assertEquals(imageView, readImages);
+  }
+
+  @Test
+  public void truncatedDataRejected() throws IOException {
+
+    Path binaryPath = temporaryDirectory.resolve("labels.bin");
+    NeuralDataBinaryFormat.write(Nd4j.rand(DataType.FLOAT, 5, 9), binaryPath);
+    byte[] bytes = Files.readAllBytes(binaryPath);
+
+    for (int truncatedLength : new int[] {0, 6, 20, bytes.length - 1}) {
+
+      ByteBuffer truncatedBytes = ByteBuffer.wrap(Arrays.copyOf(bytes, truncatedLength));
+      assertThrows(IllegalArgumentException.class, () -> NeuralDataBinaryFormat.read(truncatedBytes));
+    }
+
+    Files.write(binaryPath, Arrays.copyOf(bytes, bytes.length - 4));
+    assertThrows(IllegalArgumentException.class, () -> NeuralDataBinaryFormat.read(binaryPath));
+  }
+}
@@ -0,0 +1,66 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import static ch.evolutionsoft.net.game.NeuralNetConstants.*;
+import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
+
+public class TicTacToeBitboardTest {
+
+  @Test
+  public void playgroundConversionRoundTrip() {
+
+    INDArray playground = Nd4j.zeros(ONE, COLUMN_COUNT);
+    playground.putScalar(0, FIELD_1, MAX_PLAYER);
+    playground.putScalar(0, FIELD_5, MIN_PLAYER);
+    playground.putScalar(0, FIELD_9, MAX_PLAYER);
+
+    TicTacToeBitboard bitboard = TicTacToeBitboard.fromPlayground(playground);
+
+    assertEquals(TicTacToeBitboard.fieldMask(FIELD_1, FIELD_9), bitboard.getMaxStones());
+    assertEquals(TicTacToeBitboard.fieldMask(FIELD_5), bitboard.getMinStones());
+    assertEquals(playground, bitboard.toPlayground());
+  }
+
+  @Test
+  public void winLinesDetected() {
+
+    for (int winLineMask : TicTacToeBitboard.WIN_LINE_MASKS) {
+
+      TicTacToeBitboard bitboard = new TicTacToeBitboard(winLineMask, TicTacToeBitboard.EMPTY_MASK);
+
+      assertTrue(bitboard.hasWon(MAX_PLAYER));
+      assertFalse(bitboard.hasWon(MIN_PLAYER));
+      assertEquals(TicTacToeGameHelper.hasWon(bitboard.toPlayground(), MAX_PLAYER), bitboard.hasWon(MAX_PLAYER));
+    }
+
+    TicTacToeBitboard noWin = new TicTacToeBitboard(
+        TicTacToeBitboard.fieldMask(FIELD_1, FIELD_2, FIELD_6, FIELD_7),
+        TicTacToeBitboard.fieldMask(FIELD_3, FIELD_4, FIELD_5, FIELD_8, FIELD_9));
+
+    assertFalse(noWin.hasWon(MAX_PLAYER));
+    assertFalse(noWin.hasWon(MIN_PLAYER));
+    assertTrue(noWin.noEmptyFieldsLeft());
+  }
+
+  @Test
+  public void emptyFieldsAndStoneCount() {
+
+    TicTacToeBitboard bitboard = new TicTacToeBitboard(
+        TicTacToeBitboard.fieldMask(FIELD_2, FIELD_5),
+        TicTacToeBitboard.fieldMask(FIELD_9));
+
+    assertEquals(Arrays.asList(FIELD_1, FIELD_3, FIELD_4, FIELD_6, FIELD_7, FIELD_8), bitboard.getEmptyFields());
+    assertEquals(THREE, bitboard.countStones());
+    assertEquals(MIN_PLAYER, bitboard.getCurrentPlayer());
+    assertEquals(THREE, TicTacToeGameHelper.countStones(bitboard.toPlayground()));
+  }
+}
@@ -0,0 +1,88 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.nd4j.common.primitives.Pair;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
+
+public class TicTacToeBoardConfigurationTest {
+
+  private static final TicTacToeBoardConfiguration SMALL_BOARD = new TicTacToeBoardConfiguration(3, 2, 2);
+
+  private static final TicTacToeBoardConfiguration FOUR_BY_FOUR = new TicTacToeBoardConfiguration(4, 4, 4);
+
+  @Test
+  public void winLinesPrecomputedPerConfiguration() {
+
+    TicTacToeBoardConfiguration standard = TicTacToeBoardConfiguration.STANDARD;
+
+    assertArrayEquals(TicTacToeBitboard.WIN_LINE_MASKS, standard.getWinLineMasks());
+    assertEquals(TicTacToeBitboard.BASE3_INDEX_COUNT, standard.getPositionCount());
+    assertEquals(MAX_WIN, standard.getMaxWin());
+    assertEquals(TicTacToeBitboard.base3Index(TicTacToeBitboard.fieldMask(FIELD_1, FIELD_9),
+        TicTacToeBitboard.fieldMask(FIELD_5)),
+        standard.base3Index(TicTacToeBitboard.fieldMask(FIELD_1, FIELD_9), TicTacToeBitboard.fieldMask(FIELD_5)));
+
+    assertEquals(10, FOUR_BY_FOUR.getWinLineCount());
+    assertEquals(28, new TicTacToeBoardConfiguration(5, 5, 4).getWinLineCount());
+    assertTrue(FOUR_BY_FOUR.hasWon(TicTacToeBitboard.fieldMask(3, 6, 9, 12)));
+
+    TicTacToeBoardConfiguration fiveByFive = new TicTacToeBoardConfiguration(5, 5, 5);
+    assertEquals(fiveByFive.getPositionCount() - 1,
+        fiveByFive.base3Index(TicTacToeBitboard.EMPTY_MASK, fiveByFive.getFullMask()));
+  }
+
+  @Test
+  public void smallBoardGeneratedInPlaceAndByArrays() {
+
+    TicTacToeMiniMaxGenerator arrayGenerator =
+        new TicTacToeMiniMaxGenerator(SMALL_BOARD, TicTacToeTranspositionTable.forConfiguration(SMALL_BOARD));
+    arrayGenerator.searchInitial();
+
+    TicTacToeMiniMaxGenerator inPlaceGenerator = TicTacToeMiniMaxDataSetIterator.createDefaultGenerator(SMALL_BOARD);
+    inPlaceGenerator.searchInitial();
+
+    List<Pair<INDArray, INDArray>> arrayPlaygroundsResults = arrayGenerator.removeDuplicates();
+    List<Pair<INDArray, INDArray>> inPlacePlaygroundsResults = inPlaceGenerator.getGeneratedPlaygroundsLabels();
+
+    assertEquals(arrayPlaygroundsResults.size(), inPlacePlaygroundsResults.size());
+    for (int index = 0; index < arrayPlaygroundsResults.size(); index++) {
+
+      assertEquals(arrayPlaygroundsResults.get(index).getFirst(), inPlacePlaygroundsResults.get(index).getFirst());
+      assertEquals(arrayPlaygroundsResults.get(index).getSecond(), inPlacePlaygroundsResults.get(index).getSecond());
+    }
+
+    // The max player completes two adjacent fields with the third stone
+    assertEquals(SMALL_BOARD.getMaxWin() - 3, inPlaceGenerator.searchCurrent(SMALL_BOARD.emptyPlayground()));
+    assertThrows(IllegalStateException.class, () -> inPlaceGenerator.setSymmetryReduction(true));
+  }
+
+  @Test
+  public void convolutionalDataHasBoardImageSize() {
+
+    INDArray playground = FOUR_BY_FOUR.emptyPlayground();
+    playground.putScalar(FOUR_BY_FOUR.field(1, 2), MAX_PLAYER);
+    playground.putScalar(FOUR_BY_FOUR.field(3, 0), MIN_PLAYER);
+
+    INDArray playgroundImage = TicTacToeNeuralDataConverter.convertToImages(FOUR_BY_FOUR, playground);
+
+    assertArrayEquals(new long[] {1, IMAGE_CHANNELS, 4, 4}, playgroundImage.shape());
+    assertEquals(MAX_PLAYER, playgroundImage.getDouble(0, CURRENT_PLAYER_CHANNEL, 0, 0));
+    assertEquals(OCCUPIED_IMAGE_POINT, playgroundImage.getDouble(0, MAX_PLAYER_CHANNEL, 1, 2));
+    assertEquals(OCCUPIED_IMAGE_POINT, playgroundImage.getDouble(0, MIN_PLAYER_CHANNEL, 3, 0));
+    assertEquals(2, TicTacToeGameHelper.countStones(playground));
+
+    TicTacToeMiniMaxDataSetIterator iterator = new TicTacToeMiniMaxDataSetIterator(SMALL_BOARD,
+        TicTacToeLabelConversion.CONVOLUTIONAL, 16);
+    assertArrayEquals(new long[] {16, IMAGE_CHANNELS, 2, 3}, iterator.next().getFeatures().shape());
+    iterator.stopGeneration();
+  }
+}
@@ -0,0 +1,85 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.nd4j.common.primitives.Pair;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import ch.evolutionsoft.net.game.NeuralDataBinaryFormat;
+
+public class TicTacToeConvertedDataCacheTest {
+
+  @TempDir
+  Path temporaryDirectory;
+
+  @Test
+  public void cachedConversionEqualsConversion() throws IOException {
+
+    TicTacToeMiniMaxGenerator generator = new TicTacToeMiniMaxGenerator(new TicTacToeTranspositionTable());
+    generator.setInPlaceSearch(true);
+    generator.searchInitial();
+    Pair<INDArray, INDArray> stackedPlaygroundsResults =
+        TicTacToeNeuralDataConverter.stackFeedForwardPlaygroundLabels(generator.getGeneratedPlaygroundsLabels());
+
+    Path inputsFile = temporaryDirectory.resolve("inputs.bin");
+    Path labelsFile = temporaryDirectory.resolve("labels.bin");
+    NeuralDataBinaryFormat.write(stackedPlaygroundsResults.getFirst(), inputsFile);
+    NeuralDataBinaryFormat.write(stackedPlaygroundsResults.getSecond(), labelsFile);
+    URL inputsUrl = inputsFile.toUri().toURL();
+    URL labelsUrl = labelsFile.toUri().toURL();
+
+    Path cacheDirectory = temporaryDirectory.resolve("cache");
+    TicTacToeConvertedDataCache cache = new TicTacToeConvertedDataCache(cacheDirectory, true);
+
+    Pair<INDArray, INDArray> converted = cache.readConverted(
+        TicTacToeLabelConversion.CONVOLUTIONAL, TicTacToeBoardConfiguration.STANDARD, inputsUrl, labelsUrl);
+    Pair<INDArray, INDArray> cached = cache.readConverted(
+        TicTacToeLabelConversion.CONVOLUTIONAL, TicTacToeBoardConfiguration.STANDARD, inputsUrl, labelsUrl);
+
+    try (Stream<Path> cacheFiles = Files.list(cacheDirectory)) {
+
+      assertEquals(2, cacheFiles.count());
+    }
+    assertEquals(converted.getFirst(), cached.getFirst());
+    assertEquals(converted.getSecond(), cached.getSecond());
+
+    Path featuresFile;
+    try (Stream<Path> cacheFiles = Files.list(cacheDirectory)) {
+
+      featuresFile = cacheFiles.filter(cacheFile -> cacheFile.toString().endsWith("-features.bin")).findFirst().get();
+    }
+    byte[] featuresBytes = Files.readAllBytes(featuresFile);
+    Files.write(featuresFile, Arrays.copyOf(featuresBytes, featuresBytes.length / 2));
+
+    Pair<INDArray, INDArray> reconverted = cache.readConverted(
+        TicTacToeLabelConversion.CONVOLUTIONAL, TicTacToeBoardConfiguration.STANDARD, inputsUrl, labelsUrl);
+
+    assertEquals(converted.getFirst(), reconverted.getFirst());
+    assertEquals(featuresBytes.length, Files.size(featuresFile));
+    try (Stream<Path> cacheFiles = Files.list(cacheDirectory)) {
+
+      assertEquals(2, cacheFiles.count());
+    }
+    assertTrue(cached.getFirst().equalsWithEps(TicTacToeLabelConversion.CONVOLUTIONAL.convertStacked(
+        TicTacToeBoardConfiguration.STANDARD, generator.getGeneratedPlaygroundsLabels()).getFirst(), 0));
+
+    byte[] inputBytes = Files.readAllBytes(inputsFile);
+    byte[] labelBytes = Files.readAllBytes(labelsFile);
+    assertNotEquals(
+        TicTacToeConvertedDataCache.cacheKey(TicTacToeLabelConversion.CONVOLUTIONAL,
+            TicTacToeBoardConfiguration.STANDARD, inputBytes, labelBytes),
+        TicTacToeConvertedDataCache.cacheKey(TicTacToeLabelConversion.BINARY,
+            TicTacToeBoardConfiguration.STANDARD, inputBytes, labelBytes));
+  }
+}
@@ -0,0 +1,61 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
+
+public class TicTacToeHeuristicMoveOrderingTest {
+
+  @Test
+  public void staticPriorityOrdersCenterCornersEdges() {
+
+    int[] moves = new int[COLUMN_COUNT];
+    int moveCount = TicTacToeHeuristicMoveOrdering.staticPriority(TicTacToeBoardConfiguration.STANDARD)
+        .orderMoves(new TicTacToeBitboard(), 0, TicTacToeMoveOrdering.NO_MOVE, moves);
+
+    assertEquals(COLUMN_COUNT, moveCount);
+    assertArrayEquals(new int[] {FIELD_5, FIELD_1, FIELD_3, FIELD_7, FIELD_9, FIELD_2, FIELD_4, FIELD_6, FIELD_8},
+        moves);
+  }
+
+  @Test
+  public void hashMoveBeforeKillerMoves() {
+
+    TicTacToeHeuristicMoveOrdering moveOrdering = TicTacToeHeuristicMoveOrdering.all(
+        TicTacToeBoardConfiguration.STANDARD);
+    TicTacToeBitboard position = new TicTacToeBitboard();
+    position.makeMove(FIELD_5, MAX_PLAYER);
+
+    moveOrdering.cutoff(FIELD_8, MIN_PLAYER, 1);
+    moveOrdering.cutoff(FIELD_2, MIN_PLAYER, 1);
+
+    int[] moves = new int[COLUMN_COUNT];
+    int moveCount = moveOrdering.orderMoves(position, 1, FIELD_6, moves);
+
+    assertEquals(COLUMN_COUNT - 1, moveCount);
+    assertArrayEquals(new int[] {FIELD_6, FIELD_2, FIELD_8}, Arrays.copyOf(moves, 3));
+
+    moveCount = moveOrdering.forWorker().orderMoves(position, 1, TicTacToeMoveOrdering.NO_MOVE, moves);
+
+    assertEquals(FIELD_1, moves[0]);
+  }
+
+  @Test
+  public void indexOrderKeepsFields() {
+
+    TicTacToeBitboard position = new TicTacToeBitboard();
+    position.makeMove(FIELD_1, MAX_PLAYER);
+    position.makeMove(FIELD_5, MIN_PLAYER);
+
+    int[] moves = new int[COLUMN_COUNT];
+    int moveCount = TicTacToeMoveOrdering.indexOrder().orderMoves(position, 2, FIELD_9, moves);
+
+    assertArrayEquals(new int[] {FIELD_2, FIELD_3, FIELD_4, FIELD_6, FIELD_7, FIELD_8, FIELD_9},
+        Arrays.copyOf(moves, moveCount));
+  }
+}
@@ -0,0 +1,96 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static ch.evolutionsoft.net.game.NeuralNetConstants.*;
+import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
+
+public class TicTacToeIncrementalStateTest {
+
+  @Test
+  public void winLinesDetected() {
+
+    for (int winLineMask : TicTacToeBitboard.WIN_LINE_MASKS) {
+
+      TicTacToeIncrementalState state = new TicTacToeIncrementalState(
+          TicTacToeBoardConfiguration.STANDARD, TicTacToeBitboard.EMPTY_MASK, winLineMask);
+
+      assertFalse(state.hasWon(MAX_PLAYER));
+      assertTrue(state.hasWon(MIN_PLAYER));
+    }
+  }
+
+  @Test
+  public void undoMoveRestoresLineCounts() {
+
+    TicTacToeIncrementalState state = new TicTacToeIncrementalState();
+    state.makeMove(FIELD_1, MAX_PLAYER);
+    state.makeMove(FIELD_5, MIN_PLAYER);
+    state.makeMove(FIELD_2, MAX_PLAYER);
+    state.makeMove(FIELD_3, MAX_PLAYER);
+
+    assertTrue(state.hasWon(MAX_PLAYER));
+    assertEquals(3, state.getLineCount(0, MAX_PLAYER));
+
+    state.undoMove(FIELD_3);
+
+    assertFalse(state.hasWon(MAX_PLAYER));
+    assertEquals(2, state.getLineCount(0, MAX_PLAYER));
+
+    state.undoMove(FIELD_5);
+
+    for (int line = 0; line < TicTacToeBitboard.WIN_LINE_MASKS.length; line++) {
+
+      assertEquals(0, state.getLineCount(line, MIN_PLAYER));
+    }
+  }
+
+  @Test
+  public void randomGamesEqualBitboard() {
+
+    Random random = new Random(DEFAULT_SEED);
+
+    for (TicTacToeBoardConfiguration configuration : new TicTacToeBoardConfiguration[] {
+        TicTacToeBoardConfiguration.STANDARD, new TicTacToeBoardConfiguration(4, 4, 3)}) {
+
+      for (int game = 0; game < 200; game++) {
+
+        TicTacToeIncrementalState state = new TicTacToeIncrementalState(configuration);
+        TicTacToeBitboard bitboard = new TicTacToeBitboard(configuration);
+
+        while (!bitboard.noEmptyFieldsLeft()) {
+
+          int move = bitboard.getEmptyFields().get(random.nextInt(Integer.bitCount(bitboard.getEmptyMask())));
+          double player = bitboard.getCurrentPlayer();
+
+          state.makeMove(move, player);
+          bitboard.makeMove(move, player);
+
+          assertEquals(bitboard.hasWon(MAX_PLAYER), state.hasWon(MAX_PLAYER));
+          assertEquals(bitboard.hasWon(MIN_PLAYER), state.hasWon(MIN_PLAYER));
+
+          if (random.nextInt(4) == 0) {
+
+            state.undoMove(move);
+            bitboard.undoMove(move);
+
+            assertEquals(bitboard.hasWon(player), state.hasWon(player));
+          }
+        }
+
+        TicTacToeIncrementalState counted = new TicTacToeIncrementalState(configuration);
+        counted.setStones(bitboard.getMaxStones(), bitboard.getMinStones());
+
+        assertEquals(bitboard, state);
+        assertEquals(state.hasWon(MAX_PLAYER), counted.hasWon(MAX_PLAYER));
+        assertEquals(state.hasWon(MIN_PLAYER), counted.hasWon(MIN_PLAYER));
+      }
+    }
+  }
+}
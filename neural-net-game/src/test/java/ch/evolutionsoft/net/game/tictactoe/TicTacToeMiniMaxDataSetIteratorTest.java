@@ -0,0 +1,115 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.nd4j.common.primitives.Pair;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
+
+public class TicTacToeMiniMaxDataSetIteratorTest {
+
+  private static final int UNIQUE_PLAYGROUNDS = 4520;
+
+  private static final int BATCH_SIZE = 1000;
+
+  @Test
+  public void streamedBatchesEqualConvertedList() {
+
+    TicTacToeMiniMaxGenerator generator = TicTacToeMiniMaxDataSetIterator.createDefaultGenerator();
+    generator.searchInitial();
+    List<Pair<INDArray, INDArray>> convertedPlaygroundsLabels =
+        TicTacToeLabelConversion.BINARY.convert(generator.getGeneratedPlaygroundsLabels());
+    Pair<INDArray, INDArray> stackedPlaygroundsLabels = TicTacToeLabelConversion.BINARY.stack(convertedPlaygroundsLabels);
+
+    TicTacToeMiniMaxDataSetIterator iterator = new TicTacToeMiniMaxDataSetIterator(
+        TicTacToeMiniMaxDataSetIterator::createDefaultGenerator, TicTacToeLabelConversion.BINARY, BATCH_SIZE, 0);
+
+    int streamedExamples = 0;
+    while (iterator.hasNext()) {
+
+      DataSet batch = iterator.next();
+      int batchEnd = streamedExamples + batch.numExamples();
+
+      assertEquals(stackedPlaygroundsLabels.getFirst().get(NDArrayIndex.interval(streamedExamples, batchEnd), NDArrayIndex.all()),
+          batch.getFeatures());
+      assertEquals(stackedPlaygroundsLabels.getSecond().get(NDArrayIndex.interval(streamedExamples, batchEnd), NDArrayIndex.all()),
+          batch.getLabels());
+
+      streamedExamples = batchEnd;
+    }
+
+    assertEquals(UNIQUE_PLAYGROUNDS, streamedExamples);
+  }
+
+  @Test
+  public void resetRestartsGeneration() {
+
+    TicTacToeMiniMaxDataSetIterator iterator =
+        new TicTacToeMiniMaxDataSetIterator(TicTacToeLabelConversion.CONVOLUTIONAL, BATCH_SIZE);
+
+    DataSet firstBatch = iterator.next();
+    assertEquals(IMAGE_CHANNELS, firstBatch.getFeatures().size(1));
+
+    iterator.reset();
+
+    int streamedExamples = 0;
+    while (iterator.hasNext()) {
+
+      streamedExamples += iterator.next().numExamples();
+    }
+
+    assertEquals(UNIQUE_PLAYGROUNDS, streamedExamples);
+    assertFalse(iterator.hasNext());
+  }
+
+  @Test
+  public void unfilteredStreamReliesOnTranspositionTable() {
+
+    TicTacToeMiniMaxDataSetIterator iterator =
+        new TicTacToeMiniMaxDataSetIterator(TicTacToeLabelConversion.BINARY, BATCH_SIZE);
+    assertTrue(iterator.isFilterDuplicates());
+    iterator.setFilterDuplicates(false);
+
+    int streamedExamples = 0;
+    while (iterator.hasNext()) {
+
+      streamedExamples += iterator.next().numExamples();
+    }
+
+    assertEquals(UNIQUE_PLAYGROUNDS, streamedExamples);
+    assertFalse(new TicTacToeMiniMaxDataSetIterator(new TicTacToeBoardConfiguration(5, 5, 4),
+        TicTacToeLabelConversion.BINARY, BATCH_SIZE).isFilterDuplicates());
+  }
+
+  @Test
+  public void generationErrorEndsIteration() {
+
+    StackOverflowError generationError = new StackOverflowError();
+    TicTacToeMiniMaxDataSetIterator iterator = new TicTacToeMiniMaxDataSetIterator(
+        () -> new TicTacToeMiniMaxGenerator() {
+
+          @Override
+          public void searchInitial() {
+
+            throw generationError;
+          }
+        }, TicTacToeLabelConversion.BINARY, BATCH_SIZE, 0);
+
+    IllegalStateException generationFailure = assertTimeoutPreemptively(Duration.ofSeconds(10),
+        () -> assertThrows(IllegalStateException.class, iterator::hasNext));
+
+    assertSame(generationError, generationFailure.getCause());
+  }
+}
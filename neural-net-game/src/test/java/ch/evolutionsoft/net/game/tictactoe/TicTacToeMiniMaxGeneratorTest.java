@@ -0,0 +1,308 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.nd4j.common.primitives.Pair;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import static ch.evolutionsoft.net.game.NeuralNetConstants.*;
+import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
+
+public class TicTacToeMiniMaxGeneratorTest {
+
+  private static final int UNIQUE_PLAYGROUNDS = 4520;
+
+  @Test
+  public void transpositionTableGeneratesUniquePlaygrounds() {
+
+    TicTacToeMiniMaxGenerator generator = new TicTacToeMiniMaxGenerator(new TicTacToeTranspositionTable());
+    generator.searchInitial();
+
+    List<Pair<INDArray, INDArray>> generatedPlaygroundsResults = generator.getGeneratedPlaygroundsLabels();
+    assertEquals(UNIQUE_PLAYGROUNDS, generatedPlaygroundsResults.size());
+
+    Set<Integer> playgroundIndices = new HashSet<>();
+    for (Pair<INDArray, INDArray> playgroundResult : generatedPlaygroundsResults) {
+
+      playgroundIndices.add(TicTacToeBitboard.fromPlayground(playgroundResult.getFirst()).toBase3Index());
+    }
+    assertEquals(UNIQUE_PLAYGROUNDS, playgroundIndices.size());
+    assertTrue(generator.getTranspositionTable().getHits() > 0);
+  }
+
+  @Test
+  public void parallelGenerationKeepsSequentialOrder() {
+
+    TicTacToeMiniMaxGenerator sequentialGenerator = new TicTacToeMiniMaxGenerator(new TicTacToeTranspositionTable());
+    sequentialGenerator.searchInitial();
+    List<Pair<INDArray, INDArray>> sequentialPlaygroundsResults = sequentialGenerator.getGeneratedPlaygroundsLabels();
+
+    ForkJoinPool forkJoinPool = new ForkJoinPool(FOUR);
+    TicTacToeMiniMaxGenerator parallelGenerator = new TicTacToeMiniMaxGenerator(new TicTacToeTranspositionTable());
+    parallelGenerator.searchInitialParallel(forkJoinPool, TicTacToeMiniMaxGenerator.DEFAULT_SPLIT_DEPTH);
+    forkJoinPool.shutdown();
+
+    List<Pair<INDArray, INDArray>> parallelPlaygroundsResults = parallelGenerator.removeDuplicates();
+
+    assertEquals(sequentialPlaygroundsResults.size(), parallelPlaygroundsResults.size());
+    for (int index = 0; index < sequentialPlaygroundsResults.size(); index++) {
+
+      assertEquals(sequentialPlaygroundsResults.get(index).getFirst(), parallelPlaygroundsResults.get(index).getFirst());
+      assertEquals(sequentialPlaygroundsResults.get(index).getSecond(), parallelPlaygroundsResults.get(index).getSecond());
+    }
+  }
+
+  @Test
+  public void parallelGenerationRejectsConsumer() {
+
+    TicTacToeMiniMaxGenerator generator = new TicTacToeMiniMaxGenerator(new TicTacToeTranspositionTable());
+    generator.setPlaygroundResultConsumer(playgroundResult -> { });
+
+    assertThrows(IllegalStateException.class, generator::searchInitialParallel);
+  }
+
+  @Test
+  public void workerTranspositionTablesReused() {
+
+    TicTacToeMiniMaxGenerator generator = new TicTacToeMiniMaxGenerator(new TicTacToeTranspositionTable());
+
+    TicTacToeMiniMaxGenerator firstWorker = generator.createWorker();
+    TicTacToeMiniMaxGenerator concurrentWorker = generator.createWorker();
+    assertNotSame(firstWorker.transpositionTable, concurrentWorker.transpositionTable);
+
+    firstWorker.transpositionTable.store(1, MAX_WIN, TicTacToeTranspositionTable.Bound.EXACT, 0);
+    generator.releaseWorker(firstWorker);
+    TicTacToeMiniMaxGenerator nextWorker = generator.createWorker();
+
+    assertSame(firstWorker.transpositionTable, nextWorker.transpositionTable);
+    assertEquals(TicTacToeTranspositionTable.NOT_FOUND, nextWorker.transpositionTable.probe(1, 0));
+  }
+
+  @Test
+  public void inPlaceGenerationEqualsArrayGeneration() {
+
+    TicTacToeMiniMaxGenerator arrayGenerator = new TicTacToeMiniMaxGenerator(new TicTacToeTranspositionTable());
+    arrayGenerator.searchInitial();
+
+    TicTacToeMiniMaxGenerator inPlaceGenerator = new TicTacToeMiniMaxGenerator(new TicTacToeTranspositionTable());
+    inPlaceGenerator.setInPlaceSearch(true);
+    inPlaceGenerator.searchInitial();
+
+    List<Pair<INDArray, INDArray>> arrayPlaygroundsResults = arrayGenerator.getGeneratedPlaygroundsLabels();
+    List<Pair<INDArray, INDArray>> inPlacePlaygroundsResults = inPlaceGenerator.getGeneratedPlaygroundsLabels();
+
+    assertEquals(arrayPlaygroundsResults.size(), inPlacePlaygroundsResults.size());
+    for (int index = 0; index < arrayPlaygroundsResults.size(); index++) {
+
+      assertEquals(arrayPlaygroundsResults.get(index).getFirst(), inPlacePlaygroundsResults.get(index).getFirst());
+      assertEquals(arrayPlaygroundsResults.get(index).getSecond(), inPlacePlaygroundsResults.get(index).getSecond());
+    }
+  }
+
+  @Test
+  public void incrementalWinDetectionEqualsInPlaceGeneration() {
+
+    TicTacToeMiniMaxGenerator inPlaceGenerator = new TicTacToeMiniMaxGenerator(new TicTacToeTranspositionTable());
+    inPlaceGenerator.setInPlaceSearch(true);
+    inPlaceGenerator.searchInitial();
+
+    TicTacToeMiniMaxGenerator incrementalGenerator = new TicTacToeMiniMaxGenerator(new TicTacToeTranspositionTable());
+    incrementalGenerator.setInPlaceSearch(true);
+    incrementalGenerator.setIncrementalWinDetection(true);
+    incrementalGenerator.searchInitial();
+
+    List<Pair<INDArray, INDArray>> inPlacePlaygroundsResults = inPlaceGenerator.getGeneratedPlaygroundsLabels();
+    List<Pair<INDArray, INDArray>> incrementalPlaygroundsResults = incrementalGenerator.getGeneratedPlaygroundsLabels();
+
+    assertEquals(inPlacePlaygroundsResults.size(), incrementalPlaygroundsResults.size());
+    for (int index = 0; index < inPlacePlaygroundsResults.size(); index++) {
+
+      assertEquals(inPlacePlaygroundsResults.get(index).getFirst(), incrementalPlaygroundsResults.get(index).getFirst());
+      assertEquals(inPlacePlaygroundsResults.get(index).getSecond(), incrementalPlaygroundsResults.get(index).getSecond());
+    }
+  }
+
+  @Test
+  public void removeDuplicatesKeepsFirstOccurrence() {
+
+    INDArray playground = Nd4j.zeros(ONE, COLUMN_COUNT);
+    playground.putScalar(0, FIELD_5, MAX_PLAYER);
+    INDArray otherPlayground = Nd4j.zeros(ONE, COLUMN_COUNT);
+    otherPlayground.putScalar(0, FIELD_1, MAX_PLAYER);
+
+    INDArray firstResult = Nd4j.ones(ONE, COLUMN_COUNT);
+    INDArray secondResult = Nd4j.zeros(ONE, COLUMN_COUNT);
+
+    TicTacToeMiniMaxGenerator generator = new TicTacToeMiniMaxGenerator();
+    List<Pair<INDArray, INDArray>> playgroundsResults = generator.getGeneratedPlaygroundsLabels();
+    playgroundsResults.add(new Pair<>(playground, firstResult));
+    playgroundsResults.add(new Pair<>(otherPlayground, secondResult));
+    playgroundsResults.add(new Pair<>(playground.dup(), secondResult));
+
+    List<Pair<INDArray, INDArray>> uniquePlaygroundsResults = generator.removeDuplicates();
+
+    assertEquals(TWO, uniquePlaygroundsResults.size());
+    assertEquals(playground, uniquePlaygroundsResults.get(0).getFirst());
+    assertEquals(firstResult, uniquePlaygroundsResults.get(0).getSecond());
+    assertEquals(otherPlayground, uniquePlaygroundsResults.get(1).getFirst());
+  }
+
+  @Test
+  public void inPlaceTranspositionTableKeepsSearchValues() {
+
+    TicTacToeMiniMaxGenerator plainGenerator = new TicTacToeMiniMaxGenerator();
+    TicTacToeMiniMaxGenerator tableGenerator = new TicTacToeMiniMaxGenerator(new TicTacToeTranspositionTable());
+    tableGenerator.setInPlaceSearch(true);
+
+    INDArray playground = Nd4j.zeros(ONE, COLUMN_COUNT);
+    playground.putScalar(0, FIELD_1, MAX_PLAYER);
+
+    assertEquals(plainGenerator.searchCurrent(playground), tableGenerator.searchCurrent(playground));
+    assertEquals(plainGenerator.getBestFoundSearchMove(), tableGenerator.getBestFoundSearchMove());
+
+    playground.putScalar(0, FIELD_5, MIN_PLAYER);
+    playground.putScalar(0, FIELD_9, MAX_PLAYER);
+
+    assertEquals(plainGenerator.searchCurrent(playground), tableGenerator.searchCurrent(playground));
+    assertEquals(plainGenerator.getBestFoundSearchMove(), tableGenerator.getBestFoundSearchMove());
+  }
+
+  @Test
+  public void searchDepthBeyondStonesRejected() {
+
+    INDArray playground = Nd4j.zeros(ONE, COLUMN_COUNT);
+    playground.putScalar(0, FIELD_1, MAX_PLAYER);
+
+    TicTacToeMiniMaxGenerator arrayGenerator = new TicTacToeMiniMaxGenerator(new TicTacToeTranspositionTable());
+    TicTacToeMiniMaxGenerator inPlaceGenerator = new TicTacToeMiniMaxGenerator(new TicTacToeTranspositionTable());
+    inPlaceGenerator.setInPlaceSearch(true);
+    inPlaceGenerator.setGenerationListener(new TicTacToeGenerationMetrics());
+
+    assertEquals(arrayGenerator.searchMin(playground, Integer.MIN_VALUE, Integer.MAX_VALUE, 1),
+        inPlaceGenerator.searchMin(playground, Integer.MIN_VALUE, Integer.MAX_VALUE, 1));
+
+    assertThrows(IllegalArgumentException.class,
+        () -> inPlaceGenerator.searchMin(playground, Integer.MIN_VALUE, Integer.MAX_VALUE, COLUMN_COUNT));
+    assertThrows(IllegalArgumentException.class,
+        () -> inPlaceGenerator.searchMax(playground, Integer.MIN_VALUE, Integer.MAX_VALUE, -1));
+    assertThrows(IllegalArgumentException.class,
+        () -> arrayGenerator.searchMin(playground, Integer.MIN_VALUE, Integer.MAX_VALUE, TWO));
+  }
+
+  @Test
+  public void reusedTranspositionTableKeepsSearchValues() {
+
+    TicTacToeMiniMaxGenerator plainGenerator = new TicTacToeMiniMaxGenerator();
+    TicTacToeMiniMaxGenerator tableGenerator = new TicTacToeMiniMaxGenerator(new TicTacToeTranspositionTable());
+    TicTacToeMiniMaxGenerator inPlaceGenerator = new TicTacToeMiniMaxGenerator(new TicTacToeTranspositionTable());
+    inPlaceGenerator.setInPlaceSearch(true);
+
+    List<TicTacToeBitboard> positions = new ArrayList<>();
+    addReachablePositions(new TicTacToeBitboard(), new HashSet<>(), positions);
+
+    for (TicTacToeBitboard position : positions) {
+
+      INDArray playground = position.toPlayground();
+      int value = plainGenerator.searchCurrent(playground);
+      assertEquals(value, tableGenerator.searchCurrent(playground), position.toString());
+      assertEquals(value, inPlaceGenerator.searchCurrent(playground), position.toString());
+    }
+  }
+
+  /**
+   * Adds the positions with a move left in depth first order, each once.
+   */
+  static void addReachablePositions(TicTacToeBitboard position, Set<Integer> visitedIndices,
+      List<TicTacToeBitboard> positions) {
+
+    if (!visitedIndices.add(position.toBase3Index()) || position.hasWon(MAX_PLAYER) ||
+        position.hasWon(MIN_PLAYER) || position.noEmptyFieldsLeft()) {
+
+      return;
+    }
+
+    positions.add(position);
+
+    for (int field : position.getEmptyFields()) {
+
+      int fieldMask = 1 << field;
+      addReachablePositions(position.isMaxMove() ?
+          new TicTacToeBitboard(position.getMaxStones() | fieldMask, position.getMinStones()) :
+          new TicTacToeBitboard(position.getMaxStones(), position.getMinStones() | fieldMask),
+          visitedIndices, positions);
+    }
+  }
+
+  @Test
+  public void moveOrderingsKeepSearchValues() {
+
+    for (TicTacToeBoardConfiguration configuration : new TicTacToeBoardConfiguration[] {
+        TicTacToeBoardConfiguration.STANDARD, new TicTacToeBoardConfiguration(4, 3, 3)}) {
+
+      TicTacToeMiniMaxGenerator indexOrderGenerator = new TicTacToeMiniMaxGenerator(configuration,
+          TicTacToeTranspositionTable.forConfiguration(configuration));
+      indexOrderGenerator.setInPlaceSearch(true);
+
+      for (TicTacToeMoveOrdering moveOrdering : new TicTacToeMoveOrdering[] {
+          TicTacToeHeuristicMoveOrdering.staticPriority(configuration),
+          new TicTacToeHeuristicMoveOrdering(configuration, false, true, false, false),
+          TicTacToeHeuristicMoveOrdering.all(configuration)}) {
+
+        TicTacToeMiniMaxGenerator orderedGenerator = new TicTacToeMiniMaxGenerator(configuration,
+            TicTacToeTranspositionTable.forConfiguration(configuration));
+        orderedGenerator.setInPlaceSearch(true);
+        orderedGenerator.setMoveOrdering(moveOrdering);
+
+        // Later searches of the game reuse the best moves stored in the table
+        TicTacToeBitboard position = new TicTacToeBitboard(configuration);
+        while (!position.noEmptyFieldsLeft() && !position.hasWon(MAX_PLAYER) && !position.hasWon(MIN_PLAYER)) {
+
+          int value = indexOrderGenerator.searchCurrent(position.toPlayground());
+          assertEquals(value, orderedGenerator.searchCurrent(position.toPlayground()), moveOrdering.toString());
+
+          position.makeMove(orderedGenerator.getBestFoundSearchMove(), position.getCurrentPlayer());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void generationMetricsCountRun() {
+
+    TicTacToeGenerationMetrics generationMetrics = new TicTacToeGenerationMetrics();
+    TicTacToeMiniMaxGenerator generator = new TicTacToeMiniMaxGenerator();
+    generator.setInPlaceSearch(true);
+    generator.setGenerationListener(generationMetrics);
+
+    generator.searchInitial();
+    generator.removeDuplicates();
+
+    assertEquals(UNIQUE_PLAYGROUNDS, generator.getGeneratedPlaygroundsLabels().size());
+    assertEquals(generationMetrics.getPositionsEmitted(), generationMetrics.getPeakListSize());
+    assertEquals(1 - UNIQUE_PLAYGROUNDS / (double) generationMetrics.getPositionsEmitted(),
+        generationMetrics.getDuplicateRatio(), 1e-9);
+    assertTrue(generationMetrics.getNodes() > generationMetrics.getTerminals());
+    assertTrue(generationMetrics.getPhaseNanos(TicTacToeGenerationListener.Phase.SEARCH) > 0);
+    assertEquals(0, generationMetrics.getCutoffs());
+
+    generator.searchCurrent(Nd4j.zeros(ONE, COLUMN_COUNT));
+    assertTrue(generationMetrics.getCutoffs() > 0);
+    assertTrue(generationMetrics.getFirstMoveCutoffs() > 0);
+    assertTrue(generationMetrics.getFirstMoveCutoffs() <= generationMetrics.getCutoffs());
+    assertTrue(generationMetrics.toJson().contains("\"firstMoveCutoffRate\": "));
+    assertTrue(generationMetrics.toJson().contains("\"cutoffsByDepth\": [0, "));
+    assertTrue(generationMetrics.toCsv().contains("duplicateRatio,"));
+  }
+}
@@ -0,0 +1,68 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.nd4j.common.primitives.Pair;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
+
+public class TicTacToeMiniMaxOracleTest {
+
+  @Test
+  public void oracleAnswersLikeSearchCurrent() {
+
+    TicTacToeMiniMaxOracle oracle = TicTacToeMiniMaxOracle.getInstance();
+
+    TicTacToeMiniMaxGenerator generator = new TicTacToeMiniMaxGenerator(new TicTacToeTranspositionTable());
+    generator.setInPlaceSearch(true);
+    generator.searchInitial();
+    List<Pair<INDArray, INDArray>> allPlaygroundsResults = generator.getGeneratedPlaygroundsLabels();
+
+    TicTacToeMiniMaxGenerator searchGenerator = new TicTacToeMiniMaxGenerator();
+    searchGenerator.setInPlaceSearch(true);
+
+    for (Pair<INDArray, INDArray> playgroundResult : allPlaygroundsResults) {
+
+      INDArray playground = playgroundResult.getFirst();
+      int searchValue = searchGenerator.searchCurrent(playground);
+
+      assertEquals(searchValue, oracle.getValue(playground));
+      assertEquals(searchGenerator.getBestFoundSearchMove(), oracle.getBestMove(playground));
+      assertTrue(oracle.isBestMove(TicTacToeMiniMaxOracle.base3Index(playground), oracle.getBestMove(playground)));
+    }
+  }
+
+  @Test
+  public void emptyPlaygroundIsDrawWithAllMovesBest() {
+
+    TicTacToeMiniMaxOracle oracle = TicTacToeMiniMaxOracle.getInstance();
+
+    assertEquals(MINIMAX_DRAW_VALUE, oracle.getValue(EMPTY_PLAYGROUND));
+    assertEquals(TicTacToeBitboard.FULL_MASK, oracle.getBestMoveMask(EMPTY_PLAYGROUND));
+    assertEquals(FIELD_1, oracle.getBestMove(EMPTY_PLAYGROUND));
+
+    int unreachableIndex = TicTacToeBitboard.base3Index(TicTacToeBitboard.fieldMask(FIELD_1, FIELD_2), 0);
+    assertFalse(oracle.isReachable(unreachableIndex));
+    assertEquals(TicTacToeMiniMaxOracle.NO_MOVE, oracle.getBestMove(unreachableIndex));
+  }
+
+  @Test
+  public void playgroundFieldsComparedWithEpsilon() {
+
+    TicTacToeMiniMaxOracle oracle = TicTacToeMiniMaxOracle.getInstance();
+
+    TicTacToeBitboard bitboard = new TicTacToeBitboard(TicTacToeBitboard.fieldMask(FIELD_1, FIELD_2),
+        TicTacToeBitboard.fieldMask(FIELD_5));
+    INDArray playground = bitboard.toPlayground();
+    INDArray roundedPlayground = playground.mul(0.999);
+
+    assertEquals(bitboard.toBase3Index(), TicTacToeMiniMaxOracle.base3Index(roundedPlayground));
+    assertEquals(oracle.getValue(playground), oracle.getValue(roundedPlayground));
+  }
+}
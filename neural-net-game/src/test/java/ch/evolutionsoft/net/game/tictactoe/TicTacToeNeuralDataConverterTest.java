@@ -113,4 +113,54 @@ public class TicTacToeNeuralDataConverterTest {
     
     assertEquals(expectedResultLabels, convertedResult);
   }
+
+  @Test
+  public void batchImagesEqualSingleImages() {
+
+    TicTacToeMiniMaxGenerator generator = new TicTacToeMiniMaxGenerator(new TicTacToeTranspositionTable());
+    generator.setInPlaceSearch(true);
+    generator.searchInitial();
+    List<Pair<INDArray, INDArray>> allPlaygroundsResults = generator.getGeneratedPlaygroundsLabels();
+
+    INDArray playgroundImages = TicTacToeNeuralDataConverter.convertTo3x3Images(
+        TicTacToeNeuralDataConverter.stackFeedForwardPlaygroundLabels(allPlaygroundsResults).getFirst());
+
+    assertEquals(allPlaygroundsResults.size(), playgroundImages.size(0));
+    for (int index = 0; index < allPlaygroundsResults.size(); index++) {
+
+      assertEquals(TicTacToeNeuralDataConverter.convertTo3x3Image(allPlaygroundsResults.get(index).getFirst()),
+          playgroundImages.slice(index));
+    }
+  }
+
+  @Test
+  public void stackedLabelsEqualSingleLabels() {
+
+    TicTacToeMiniMaxGenerator generator = new TicTacToeMiniMaxGenerator(new TicTacToeTranspositionTable());
+    generator.setInPlaceSearch(true);
+    generator.searchInitial();
+    List<Pair<INDArray, INDArray>> allPlaygroundsResults = generator.getGeneratedPlaygroundsLabels();
+
+    Pair<INDArray, INDArray> stackedPlaygroundsResults =
+        TicTacToeNeuralDataConverter.stackFeedForwardPlaygroundLabels(allPlaygroundsResults);
+    INDArray stackedLabels = TicTacToeNeuralDataConverter.convertStackedMiniMaxLabels(
+        stackedPlaygroundsResults.getFirst(), stackedPlaygroundsResults.getSecond());
+    INDArray stackedMultiClassLabels = TicTacToeNeuralDataConverter.convertStackedMultiMiniMaxLabels(
+        stackedPlaygroundsResults.getFirst(), stackedPlaygroundsResults.getSecond());
+
+    List<Pair<INDArray, INDArray>> playgroundsLabels =
+        TicTacToeNeuralDataConverter.convertMiniMaxLabels(allPlaygroundsResults);
+    List<Pair<INDArray, INDArray>> playgroundsMultiClassLabels =
+        TicTacToeNeuralDataConverter.convertMultiMiniMaxLabels(allPlaygroundsResults);
+
+    assertEquals(allPlaygroundsResults.size(), stackedLabels.rows());
+    for (int index = 0; index < allPlaygroundsResults.size(); index++) {
+
+      assertEquals(playgroundsLabels.get(index).getSecond().reshape(COLUMN_COUNT), stackedLabels.getRow(index));
+
+      INDArray multiClassLabel = playgroundsMultiClassLabels.get(index).getSecond();
+      assertEquals(null == multiClassLabel ? Nd4j.zeros(COLUMN_COUNT) : multiClassLabel.reshape(COLUMN_COUNT),
+          stackedMultiClassLabels.getRow(index));
+    }
+  }
 }
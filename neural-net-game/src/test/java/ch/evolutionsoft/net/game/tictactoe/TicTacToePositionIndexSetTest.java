@@ -0,0 +1,43 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class TicTacToePositionIndexSetTest {
+
+  @Test
+  public void addsEachIndexOnce() {
+
+    TicTacToePositionIndexSet positionIndexSet = new TicTacToePositionIndexSet(1 << 16);
+
+    for (long positionIndex = 0; positionIndex < 10_000; positionIndex++) {
+
+      assertTrue(positionIndexSet.add(positionIndex * 3_486_784_401L));
+    }
+
+    for (long positionIndex = 0; positionIndex < 10_000; positionIndex++) {
+
+      assertFalse(positionIndexSet.add(positionIndex * 3_486_784_401L));
+    }
+
+    assertEquals(10_000, positionIndexSet.size());
+  }
+
+  @Test
+  public void failsBeyondMaxSize() {
+
+    TicTacToePositionIndexSet positionIndexSet = new TicTacToePositionIndexSet(100);
+
+    for (long positionIndex = 0; positionIndex < 100; positionIndex++) {
+
+      positionIndexSet.add(positionIndex);
+    }
+
+    assertFalse(positionIndexSet.add(99));
+    assertThrows(IllegalStateException.class, () -> positionIndexSet.add(100));
+  }
+}
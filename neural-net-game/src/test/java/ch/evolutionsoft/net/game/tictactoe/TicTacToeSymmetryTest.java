@@ -0,0 +1,133 @@
+package ch.evolutionsoft.net.game.tictactoe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.nd4j.common.primitives.Pair;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+
+import static ch.evolutionsoft.net.game.NeuralNetConstants.*;
+import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
+
+public class TicTacToeSymmetryTest {
+
+  private static final int UNIQUE_PLAYGROUNDS = 4520;
+
+  @Test
+  public void symmetriesAreDistinctPermutations() {
+
+    Set<String> distinctPermutations = new HashSet<>();
+
+    for (int[] permutation : TicTacToeSymmetry.FIELD_PERMUTATIONS) {
+
+      Set<Integer> fields = new HashSet<>();
+      StringBuilder permutationString = new StringBuilder();
+      for (int field : permutation) {
+
+        fields.add(field);
+        permutationString.append(field);
+      }
+
+      assertEquals(COLUMN_COUNT, fields.size());
+      assertEquals(FIELD_5, permutation[FIELD_5]);
+      distinctPermutations.add(permutationString.toString());
+    }
+
+    assertEquals(TicTacToeSymmetry.NUMBER_OF_SYMMETRIES, distinctPermutations.size());
+  }
+
+  @Test
+  public void cornerOpeningsShareCanonicalForm() {
+
+    int canonicalIndex = TicTacToeSymmetry.canonicalIndex(
+        TicTacToeBitboard.fieldMask(FIELD_1), TicTacToeBitboard.EMPTY_MASK);
+
+    for (int corner : new int[] {FIELD_3, FIELD_7, FIELD_9}) {
+
+      assertEquals(canonicalIndex, TicTacToeSymmetry.canonicalIndex(
+          TicTacToeBitboard.fieldMask(corner), TicTacToeBitboard.EMPTY_MASK));
+    }
+  }
+
+  @Test
+  public void canonicalGenerationAugmentsToAllPlaygrounds() {
+
+    TicTacToeMiniMaxGenerator generator = new TicTacToeMiniMaxGenerator(new TicTacToeTranspositionTable());
+    generator.setSymmetryReduction(true);
+    generator.searchInitial();
+
+    List<Pair<INDArray, INDArray>> canonicalPlaygroundsResults = generator.removeDuplicates();
+    assertTrue(canonicalPlaygroundsResults.size() < UNIQUE_PLAYGROUNDS / 6);
+
+    List<Pair<INDArray, INDArray>> augmentedPlaygroundsResults = TicTacToeSymmetry.augment(canonicalPlaygroundsResults);
+    assertEquals(UNIQUE_PLAYGROUNDS, augmentedPlaygroundsResults.size());
+
+    Set<Integer> playgroundIndices = new HashSet<>();
+    for (Pair<INDArray, INDArray> playgroundResult : augmentedPlaygroundsResults) {
+
+      playgroundIndices.add(TicTacToeBitboard.fromPlayground(playgroundResult.getFirst()).toBase3Index());
+    }
+    assertEquals(UNIQUE_PLAYGROUNDS, playgroundIndices.size());
+  }
+
+  @Test
+  public void batchAugmentationPermutesFeaturesAndLabels() {
+
+    INDArray playground = Nd4j.zeros(ONE, COLUMN_COUNT);
+    playground.putScalar(0, FIELD_1, MAX_PLAYER);
+    playground.putScalar(0, FIELD_2, MIN_PLAYER);
+    INDArray label = Nd4j.zeros(ONE, COLUMN_COUNT);
+    label.putScalar(0, FIELD_3, NET_WIN);
+
+    DataSet augmentedDataSet = TicTacToeSymmetryAugmentationIterator.augment(new DataSet(playground, label));
+
+    assertEquals(TicTacToeSymmetry.NUMBER_OF_SYMMETRIES, augmentedDataSet.numExamples());
+    for (int symmetry = 0; symmetry < TicTacToeSymmetry.NUMBER_OF_SYMMETRIES; symmetry++) {
+
+      TicTacToeBitboard variant = TicTacToeBitboard.fromPlayground(augmentedDataSet.getFeatures().getRow(symmetry));
+      assertEquals(TicTacToeSymmetry.transformMask(TicTacToeBitboard.fieldMask(FIELD_1), symmetry), variant.getMaxStones());
+      assertEquals(TicTacToeSymmetry.transformMask(TicTacToeBitboard.fieldMask(FIELD_2), symmetry), variant.getMinStones());
+      assertEquals(TicTacToeSymmetry.transformMask(TicTacToeBitboard.fieldMask(FIELD_3), symmetry),
+          TicTacToeBitboard.fieldMask(augmentedDataSet.getLabels().getRow(symmetry).argMax().getInt(0)));
+    }
+  }
+
+  @Test
+  public void batchAugmentationSkipsEqualVariants() {
+
+    INDArray playgrounds = Nd4j.zeros(TWO, COLUMN_COUNT);
+    playgrounds.putScalar(0, FIELD_1, MAX_PLAYER);
+    playgrounds.putScalar(1, FIELD_1, MAX_PLAYER);
+    playgrounds.putScalar(1, FIELD_2, MIN_PLAYER);
+    INDArray labels = Nd4j.zeros(TWO, COLUMN_COUNT);
+    labels.putScalar(0, FIELD_5, NET_WIN);
+    labels.putScalar(1, FIELD_5, NET_WIN);
+
+    // 4 corners of the first playground and all 8 variants of the second
+    int distinctVariants = 4 + TicTacToeSymmetry.NUMBER_OF_SYMMETRIES;
+
+    DataSet augmentedDataSet = TicTacToeSymmetryAugmentationIterator.augment(new DataSet(playgrounds, labels));
+    assertEquals(distinctVariants, augmentedDataSet.numExamples());
+
+    Set<Integer> playgroundIndices = new HashSet<>();
+    for (int example = 0; example < distinctVariants; example++) {
+
+      playgroundIndices.add(TicTacToeBitboard.fromPlayground(augmentedDataSet.getFeatures().getRow(example)).toBase3Index());
+      assertEquals(NET_WIN, augmentedDataSet.getLabels().getDouble(example, FIELD_5));
+    }
+    assertEquals(distinctVariants, playgroundIndices.size());
+
+    INDArray playgroundImages = playgrounds.reshape('c', TWO, ONE, IMAGE_SIZE, IMAGE_SIZE);
+    DataSet augmentedImages = TicTacToeSymmetryAugmentationIterator.augment(new DataSet(playgroundImages, labels));
+
+    assertEquals(augmentedDataSet.getFeatures(), augmentedImages.getFeatures().reshape('c', distinctVariants, COLUMN_COUNT));
+    assertEquals(augmentedDataSet.getLabels(), augmentedImages.getLabels());
+  }
+}
@@ -9,11 +9,13 @@ import java.util.List;
 
 import org.deeplearning4j.datasets.iterator.INDArrayDataSetIterator;
 import org.deeplearning4j.earlystopping.EarlyStoppingConfiguration;
-import org.deeplearning4j.earlystopping.saver.InMemoryModelSaver;
+import org.deeplearning4j.earlystopping.EarlyStoppingModelSaver;
 import org.deeplearning4j.earlystopping.scorecalc.DataSetLossCalculator;
+import org.deeplearning4j.earlystopping.scorecalc.ScoreCalculator;
 import org.deeplearning4j.earlystopping.termination.MaxEpochsTerminationCondition;
 import org.deeplearning4j.earlystopping.termination.MaxScoreIterationTerminationCondition;
 import org.deeplearning4j.earlystopping.trainer.EarlyStoppingGraphTrainer;
+import org.deeplearning4j.earlystopping.trainer.IEarlyStoppingTrainer;
 import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.conf.ConvolutionMode;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
@@ -39,9 +41,27 @@ import org.nd4j.linalg.learning.config.Adam;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ch.evolutionsoft.example.dl4j.tictactoe.training.AsyncCheckpointModelSaver;
+import ch.evolutionsoft.example.dl4j.tictactoe.training.AsyncScoreCalculator;
+import ch.evolutionsoft.example.dl4j.tictactoe.training.ParallelTrainingConfiguration;
+import ch.evolutionsoft.example.dl4j.tictactoe.training.TrainingValidationSplit;
 import ch.evolutionsoft.net.game.NeuralDataHelper;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeBoardConfiguration;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeConvertedDataCache;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeLabelConversion;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeMiniMaxDataSetIterator;
 import ch.evolutionsoft.net.game.tictactoe.TicTacToeNeuralDataConverter;
 
+/**
+ * Trains the residual convolutional net on the standard 3x3 playground images or,
+ * with the system properties board.width, board.height and board.winLength, on another
+ * m,n,k board. Other boards are trained from playgrounds streamed by the MiniMax generation.
+ *
+ * With training.parallel=true the early stopping training runs data parallel, see
+ * {@link ParallelTrainingConfiguration}. Early stopping decides on the loss of the held out
+ * validation playgrounds of training.validationFraction, see {@link TrainingValidationSplit},
+ * scored in the background while training goes on.
+ */
 public class ConvolutionalNetMain {
 
   private static final String BLOCK2_SEPARABLE_CONVOLUTION1 = "block2_sepconv1";
@@ -82,11 +102,43 @@ public class ConvolutionalNetMain {
 
   public static final int CNN_OUTPUT_CHANNELS = 3;
 
+  public static final String MODEL_FILE_NAME = "TicTacToeResidualNet";
+
   private static final Logger logger = LoggerFactory.getLogger(ConvolutionalNetMain.class);
 
+  protected final TicTacToeBoardConfiguration boardConfiguration;
+
+  protected final ParallelTrainingConfiguration parallelTraining;
+
+  protected final TrainingValidationSplit validationSplit;
+
+  public ConvolutionalNetMain() {
+
+    this(TicTacToeBoardConfiguration.STANDARD);
+  }
+
+  public ConvolutionalNetMain(TicTacToeBoardConfiguration boardConfiguration) {
+
+    this(boardConfiguration, ParallelTrainingConfiguration.fromSystemProperties());
+  }
+
+  public ConvolutionalNetMain(TicTacToeBoardConfiguration boardConfiguration,
+      ParallelTrainingConfiguration parallelTraining) {
+
+    this(boardConfiguration, parallelTraining, TrainingValidationSplit.fromSystemProperties());
+  }
+
+  public ConvolutionalNetMain(TicTacToeBoardConfiguration boardConfiguration,
+      ParallelTrainingConfiguration parallelTraining, TrainingValidationSplit validationSplit) {
+
+    this.boardConfiguration = boardConfiguration;
+    this.parallelTraining = parallelTraining;
+    this.validationSplit = validationSplit;
+  }
+
   public static void main(String[] args) throws IOException {
 
-    ConvolutionalNetMain convolutionalNetMain = new ConvolutionalNetMain();
+    ConvolutionalNetMain convolutionalNetMain = new ConvolutionalNetMain(boardConfigurationFromSystemProperties());
 
     ComputationGraph convolutionalNet = convolutionalNetMain.buildNetwork();
 
@@ -99,10 +151,21 @@ public class ConvolutionalNetMain {
     convolutionalNetMain.evaluateNetwork(convolutionalNet, dataSet);
   }
 
+  /**
+   * @return the board of board.width, board.height and board.winLength, default the standard 3x3 board
+   */
+  public static TicTacToeBoardConfiguration boardConfigurationFromSystemProperties() {
+
+    return new TicTacToeBoardConfiguration(
+        Integer.getInteger("board.width", IMAGE_SIZE),
+        Integer.getInteger("board.height", IMAGE_SIZE),
+        Integer.getInteger("board.winLength", IMAGE_SIZE));
+  }
+
   protected void evaluateNetwork(ComputationGraph graphNetwork, DataSet dataSet) {
 
     INDArray output = graphNetwork.outputSingle(dataSet.getFeatures());
-    Evaluation eval = new Evaluation(COLUMN_COUNT);
+    Evaluation eval = new Evaluation(boardConfiguration.getFieldCount());
     eval.eval(dataSet.getLabels(), output);
 
     if (logger.isInfoEnabled()) {
@@ -123,57 +186,142 @@ public class ConvolutionalNetMain {
 
   protected INDArray generateCenterFieldInputImages() {
 
-    INDArray middleFieldMove = Nd4j.zeros(IMAGE_CHANNELS, IMAGE_SIZE, IMAGE_SIZE);
-    INDArray playerImage = Nd4j.ones(1, IMAGE_SIZE, IMAGE_SIZE).mul(-1);
-    middleFieldMove.putRow(0, playerImage);
-    middleFieldMove.putScalar(1, 1, 1, MAX_PLAYER);
-    INDArray graphSingleBatchInput1 = Nd4j.create(1, IMAGE_CHANNELS, IMAGE_SIZE, IMAGE_SIZE);
-    graphSingleBatchInput1.putRow(0, middleFieldMove);
-    return graphSingleBatchInput1;
+    return TicTacToeNeuralDataConverter.convertToImages(boardConfiguration,
+        boardConfiguration.emptyPlayground().putScalar(boardConfiguration.getCenterField(), MAX_PLAYER));
   }
 
   protected INDArray generateLastCornerFieldInputImages() {
 
-    INDArray cornerFieldMove = Nd4j.zeros(IMAGE_CHANNELS, IMAGE_SIZE, IMAGE_SIZE);
-    INDArray playerImage = Nd4j.ones(1, IMAGE_SIZE, IMAGE_SIZE).mul(-1);
-    cornerFieldMove.putRow(0, playerImage);
-    cornerFieldMove.putScalar(1, 2, 2, MAX_PLAYER);
-    INDArray graphSingleBatchInput2 = Nd4j.create(1, IMAGE_CHANNELS, IMAGE_SIZE, IMAGE_SIZE);
-    graphSingleBatchInput2.putRow(0, cornerFieldMove);
-    return graphSingleBatchInput2;
+    return TicTacToeNeuralDataConverter.convertToImages(boardConfiguration,
+        boardConfiguration.emptyPlayground().putScalar(boardConfiguration.getFieldCount() - 1L, MAX_PLAYER));
   }
 
   protected DataSet trainNetwork(ComputationGraph net) throws IOException {
 
-    List<Pair<INDArray, INDArray>> allPlaygroundsResults =
-        NeuralDataHelper.readAll("/inputs.txt", "/labels.txt");
+    if (!boardConfiguration.isStandard()) {
 
+      return trainGeneratedNetwork(net);
+    }
+
+    Pair<INDArray, INDArray> stackedPlaygroundImagesLabels = TicTacToeConvertedDataCache.fromSystemProperties()
+        .readConvertedResources(TicTacToeLabelConversion.CONVOLUTIONAL, boardConfiguration, "/inputs.bin", "/labels.bin");
     List<Pair<INDArray, INDArray>> trainDataSetPairsList =
-        TicTacToeNeuralDataConverter.convertMiniMaxPlaygroundLabelsToConvolutionalData(allPlaygroundsResults);
+        TicTacToeNeuralDataConverter.unstackPlaygroundLabels(stackedPlaygroundImagesLabels);
 
     NeuralDataHelper.printRandomConvolutionalNetInputAndLabels(trainDataSetPairsList,
         DEFAULT_FEATURE_EXAMPLE_NUMBER_LOG);
 
+    Pair<List<Pair<INDArray, INDArray>>, List<Pair<INDArray, INDArray>>> trainingValidationPairs =
+        validationSplit.split(trainDataSetPairsList);
+    List<Pair<INDArray, INDArray>> trainingPairs = trainingValidationPairs.getFirst();
+    List<Pair<INDArray, INDArray>> validationPairs = validationSplit.isEnabled() ?
+        trainingValidationPairs.getSecond() : trainingPairs;
+    logger.info("Train on {} and validate on {} playgrounds", trainingPairs.size(), validationPairs.size());
+
+    // Workaround https://github.com/eclipse/deeplearning4j/issues/8961, also for the batch concat
+    Nd4j.getEnvironment().allowHelpers(false);
+    // Batches bigger than the examples would be filled up with uninitialized rows
+    DataSetIterator dataSetIterator = new INDArrayDataSetIterator(trainingPairs,
+        parallelTraining.getMiniBatchSize(Math.min(DEFAULT_BATCH_SIZE, trainingPairs.size())));
+    DataSetIterator validationIterator = new INDArrayDataSetIterator(validationPairs,
+        Math.min(DEFAULT_BATCH_SIZE, validationPairs.size()));
+
+    fitAndSaveNetwork(net, dataSetIterator, validationIterator);
+
+    return new org.nd4j.linalg.dataset.DataSet(
+        stackedPlaygroundImagesLabels.getFirst(), stackedPlaygroundImagesLabels.getSecond());
+  }
+
+  /**
+   * Trains on playgrounds of the MiniMax generation for the board, each epoch generates
+   * them again. The first batch of a new generation pass is returned for evaluation.
+   *
+   * The generation has no held out playgrounds, the score is calculated on a generation
+   * pass of a second iterator.
+   */
+  protected DataSet trainGeneratedNetwork(ComputationGraph net) throws IOException {
+
+    TicTacToeMiniMaxDataSetIterator dataSetIterator = new TicTacToeMiniMaxDataSetIterator(
+        boardConfiguration, TicTacToeLabelConversion.CONVOLUTIONAL, parallelTraining.getMiniBatchSize(DEFAULT_BATCH_SIZE));
+    TicTacToeMiniMaxDataSetIterator validationIterator = new TicTacToeMiniMaxDataSetIterator(
+        boardConfiguration, TicTacToeLabelConversion.CONVOLUTIONAL, DEFAULT_BATCH_SIZE);
+
+    fitAndSaveNetwork(net, dataSetIterator, validationIterator);
+    validationIterator.stopGeneration();
+
+    dataSetIterator.reset();
+    DataSet evaluationDataSet = dataSetIterator.next();
+    dataSetIterator.stopGeneration();
+
+    return evaluationDataSet;
+  }
+
+  /**
+   * Early stopping decides on the score of validationIterator, calculated in the
+   * background by an {@link AsyncScoreCalculator}. Best and periodic models are
+   * checkpointed in the background by an {@link AsyncCheckpointModelSaver}, the best
+   * model with the parameters that scored best.
+   */
+  protected void fitAndSaveNetwork(ComputationGraph net, DataSetIterator dataSetIterator,
+      DataSetIterator validationIterator) throws IOException {
+
     // Workaround https://github.com/eclipse/deeplearning4j/issues/8961
     Nd4j.getEnvironment().allowHelpers(false);
-    DataSetIterator dataSetIterator = new INDArrayDataSetIterator(trainDataSetPairsList, DEFAULT_BATCH_SIZE);
 
+    AsyncScoreCalculator<ComputationGraph> validationScoreCalculator =
+        new AsyncScoreCalculator<>(new DataSetLossCalculator(validationIterator, true));
+    AsyncCheckpointModelSaver<ComputationGraph> checkpointModelSaver =
+        AsyncCheckpointModelSaver.fromSystemProperties(getModelName());
+    checkpointModelSaver.setScoreCalculator(validationScoreCalculator);
+    logger.info("Save {}", checkpointModelSaver);
     EarlyStoppingConfiguration<ComputationGraph> earlyStoppingConfiguration =
-        createEarlyStoppingConfiguration(dataSetIterator);
+        createEarlyStoppingConfiguration(validationScoreCalculator, checkpointModelSaver);
+
+    IEarlyStoppingTrainer<ComputationGraph> trainer;
+    if (parallelTraining.isEnabled()) {
+
+      logger.info("Data parallel training with {}", parallelTraining);
+      trainer = parallelTraining.createEarlyStoppingTrainer(earlyStoppingConfiguration, net, dataSetIterator);
+
+    } else {
 
-    EarlyStoppingGraphTrainer trainer = new EarlyStoppingGraphTrainer(earlyStoppingConfiguration, net, dataSetIterator);
+      trainer = new EarlyStoppingGraphTrainer(earlyStoppingConfiguration, net, dataSetIterator);
+    }
+
+    try {
+
+      trainer.fit();
 
-    trainer.fit();
+    } finally {
+
+      validationScoreCalculator.close();
+      checkpointModelSaver.close();
+    }
     
     // End workaround
     Nd4j.getEnvironment().allowHelpers(true);
     
-    ModelSerializer.writeModel(net, new File("TicTacToeResidualNet.bin"), false);
+    ModelSerializer.writeModel(net, new File(getModelFileName()), false);
+  }
 
-    Pair<INDArray, INDArray> stackedPlaygroundLabels =
-        TicTacToeNeuralDataConverter.stackConvolutionalPlaygroundLabels(trainDataSetPairsList);
+  /**
+   * @return the model file of the standard board as loaded by the inference server,
+   * other boards get their size and win length appended
+   */
+  public String getModelFileName() {
+
+    return getModelName() + ".bin";
+  }
+
+  protected String getModelName() {
+
+    if (boardConfiguration.isStandard()) {
+
+      return MODEL_FILE_NAME;
+    }
 
-    return new org.nd4j.linalg.dataset.DataSet(stackedPlaygroundLabels.getFirst(), stackedPlaygroundLabels.getSecond());
+    return MODEL_FILE_NAME + boardConfiguration.getWidth() + "x" + boardConfiguration.getHeight() +
+        "k" + boardConfiguration.getWinLength();
   }
 
   public ComputationGraph buildNetwork() {
@@ -200,10 +348,11 @@ public class ConvolutionalNetMain {
   ComputationGraphConfiguration createConvolutionalGraphConfiguration() {
 
     return new ComputationGraphConfiguration.GraphBuilder(createGeneralConfiguration())
-        .addInputs(INPUT).setInputTypes(InputType.convolutional(3, 3, 3))
+        .addInputs(INPUT).setInputTypes(InputType.convolutional(
+            boardConfiguration.getHeight(), boardConfiguration.getWidth(), IMAGE_CHANNELS))
         // block1
         .addLayer(BLOCK1_CONVOLUTION1,
-            new ConvolutionLayer.Builder(2, 2).stride(1, 1).nIn(3).nOut(7).hasBias(false)
+            new ConvolutionLayer.Builder(2, 2).stride(1, 1).nIn(IMAGE_CHANNELS).nOut(7).hasBias(false)
                 .build(),
             INPUT)
         .addLayer(BLOCK1_CONV1_BATCH_NORMALIZATION, new BatchNormalization(), BLOCK1_CONVOLUTION1)
@@ -242,7 +391,7 @@ public class ConvolutionalNetMain {
         .addVertex(ADD1, new ElementWiseVertex(ElementWiseVertex.Op.Add), BLOCK2_POOL, RESIDUAL1)
         
         .addLayer(DEFAULT_OUTPUT_LAYER_NAME, new OutputLayer.Builder()
-            .nOut(9)
+            .nOut(boardConfiguration.getFieldCount())
             .activation(Activation.SOFTMAX)
             .build(), ADD1)
         .setOutputs(DEFAULT_OUTPUT_LAYER_NAME)
@@ -250,14 +399,15 @@ public class ConvolutionalNetMain {
   }
 
   protected EarlyStoppingConfiguration<ComputationGraph> createEarlyStoppingConfiguration(
-      DataSetIterator dataSetIterator) {
+      ScoreCalculator<ComputationGraph> scoreCalculator, EarlyStoppingModelSaver<ComputationGraph> modelSaver) {
 
     return new EarlyStoppingConfiguration.Builder<ComputationGraph>()
         .epochTerminationConditions(new MaxEpochsTerminationCondition(NUMBER_OF_EPOCHS))
         .iterationTerminationConditions(new MaxScoreIterationTerminationCondition(DEFAULT_MAX_SCORE_EARLY_STOP))
-        .scoreCalculator(new DataSetLossCalculator(dataSetIterator, true))
+        .scoreCalculator(scoreCalculator)
         .evaluateEveryNEpochs(1)
-        .modelSaver(new InMemoryModelSaver<>())
+        .modelSaver(modelSaver)
+        .saveLastModel(true)
         .build();
   }
 }
@@ -0,0 +1,135 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.feedforward;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.api.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * Draws class balanced training sets from stacked playgrounds and labels.
+ *
+ * The row indices are bucketed once by the label class, the field of the biggest
+ * label value. Each sample takes the same number of rows from every non empty bucket,
+ * as many as the smallest bucket holds, shuffles them and gathers features and labels
+ * with one pullRows each instead of copying row by row.
+ */
+public class BalancedLabelSampler {
+
+  protected final INDArray features;
+  protected final INDArray labels;
+  protected final Random random;
+
+  protected final int[][] classRowIndices;
+  protected final int examplesPerClass;
+  protected final int sampleSize;
+
+  public BalancedLabelSampler(INDArray features, INDArray labels, Random random) {
+
+    if (features.rows() != labels.rows()) {
+
+      throw new IllegalArgumentException("Different number of feature rows " + features.rows() +
+          " and label rows " + labels.rows());
+    }
+
+    this.features = features;
+    this.labels = labels;
+    this.random = random;
+    this.classRowIndices = createClassRowIndices(labels);
+
+    int smallestBucket = Integer.MAX_VALUE;
+    int nonEmptyBuckets = 0;
+    for (int[] rowIndices : classRowIndices) {
+
+      if (rowIndices.length > 0) {
+
+        smallestBucket = Math.min(smallestBucket, rowIndices.length);
+        nonEmptyBuckets++;
+      }
+    }
+
+    this.examplesPerClass = nonEmptyBuckets > 0 ? smallestBucket : 0;
+    this.sampleSize = examplesPerClass * nonEmptyBuckets;
+  }
+
+  protected static int[][] createClassRowIndices(INDArray labels) {
+
+    int[] labelClasses = labels.argMax(1).toIntVector();
+    int numberOfClasses = (int) labels.columns();
+
+    int[] bucketSizes = new int[numberOfClasses];
+    for (int labelClass : labelClasses) {
+
+      bucketSizes[labelClass]++;
+    }
+
+    int[][] rowIndices = new int[numberOfClasses][];
+    for (int labelClass = 0; labelClass < numberOfClasses; labelClass++) {
+
+      rowIndices[labelClass] = new int[bucketSizes[labelClass]];
+    }
+
+    int[] filled = new int[numberOfClasses];
+    for (int row = 0; row < labelClasses.length; row++) {
+
+      int labelClass = labelClasses[row];
+      rowIndices[labelClass][filled[labelClass]++] = row;
+    }
+
+    return rowIndices;
+  }
+
+  /**
+   * @return a new shuffled DataSet with examplesPerClass rows of every occurring label class
+   */
+  public DataSet sample() {
+
+    int[] sampleIndices = new int[sampleSize];
+    int sampleIndex = 0;
+
+    for (int[] rowIndices : classRowIndices) {
+
+      // Partial Fisher Yates, the first examplesPerClass entries are a uniform draw
+      for (int drawn = 0; drawn < examplesPerClass && drawn < rowIndices.length; drawn++) {
+
+        swap(rowIndices, drawn, drawn + random.nextInt(rowIndices.length - drawn));
+        sampleIndices[sampleIndex++] = rowIndices[drawn];
+      }
+    }
+
+    for (int index = sampleSize - 1; index > 0; index--) {
+
+      swap(sampleIndices, index, random.nextInt(index + 1));
+    }
+
+    return new org.nd4j.linalg.dataset.DataSet(
+        Nd4j.pullRows(features, 1, sampleIndices),
+        Nd4j.pullRows(labels, 1, sampleIndices));
+  }
+
+  private static void swap(int[] indices, int first, int second) {
+
+    int swapped = indices[first];
+    indices[first] = indices[second];
+    indices[second] = swapped;
+  }
+
+  public int getExamplesPerClass() {
+
+    return examplesPerClass;
+  }
+
+  public int getSampleSize() {
+
+    return sampleSize;
+  }
+
+  /**
+   * @return the number of rows per label class
+   */
+  public int[] getClassCounts() {
+
+    return Arrays.stream(classRowIndices).mapToInt(rowIndices -> rowIndices.length).toArray();
+  }
+}
@@ -3,35 +3,68 @@ package ch.evolutionsoft.example.dl4j.tictactoe.feedforward;
 import static ch.evolutionsoft.net.game.NeuralNetConstants.*;
 import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
 
+import java.util.Collections;
 import java.util.List;
 
-import org.deeplearning4j.earlystopping.EarlyStoppingConfiguration;
-import org.deeplearning4j.earlystopping.saver.InMemoryModelSaver;
+import org.deeplearning4j.datasets.iterator.impl.ListDataSetIterator;
 import org.deeplearning4j.earlystopping.scorecalc.DataSetLossCalculator;
-import org.deeplearning4j.earlystopping.termination.MaxEpochsTerminationCondition;
-import org.deeplearning4j.earlystopping.termination.MaxScoreIterationTerminationCondition;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.optimize.listeners.ScoreIterationListener;
+import org.deeplearning4j.parallelism.ParallelWrapper;
 import org.nd4j.common.primitives.Pair;
 import org.nd4j.evaluation.classification.Evaluation;
 import org.nd4j.linalg.api.ndarray.INDArray;
-import org.nd4j.linalg.api.ops.impl.indexaccum.IMax;
 import org.nd4j.linalg.dataset.api.DataSet;
-import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
-import org.nd4j.linalg.factory.Nd4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ch.evolutionsoft.example.dl4j.tictactoe.training.AsyncScoreCalculator;
+import ch.evolutionsoft.example.dl4j.tictactoe.training.ParallelTrainingConfiguration;
+import ch.evolutionsoft.example.dl4j.tictactoe.training.TrainingValidationSplit;
 import ch.evolutionsoft.net.game.NeuralDataHelper;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeBoardConfiguration;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeConvertedDataCache;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeLabelConversion;
 import ch.evolutionsoft.net.game.tictactoe.TicTacToeNeuralDataConverter;
 
+/**
+ * Training and evaluation shared by the feed forward mains. Each epoch fits a newly
+ * sampled balanced DataSet of a {@link BalancedLabelSampler}, with training.parallel=true
+ * split into one mini batch per worker of a {@link ParallelWrapper}, see
+ * {@link ParallelTrainingConfiguration}. All playgrounds are trained by default, only an
+ * explicitly set training.validationFraction holds out playgrounds, see
+ * {@link TrainingValidationSplit}, whose loss is then logged in the background.
+ */
 public class FeedForwardCommon {
 
   private static final Logger logger = LoggerFactory.getLogger(FeedForwardCommon.class);
 
   private static final int NUMBER_OF_EPOCHS = 2000;
 
+  private static final int EVALUATE_EVERY_N_EPOCHS = 50;
+
+  protected final ParallelTrainingConfiguration parallelTraining;
+
+  protected final TrainingValidationSplit validationSplit;
+
+  public FeedForwardCommon() {
+
+    this(ParallelTrainingConfiguration.fromSystemProperties());
+  }
+
+  public FeedForwardCommon(ParallelTrainingConfiguration parallelTraining) {
+
+    // Without early stopping held out playgrounds would only be missing from training
+    this(parallelTraining, TrainingValidationSplit.fromSystemProperties(0));
+  }
+
+  public FeedForwardCommon(ParallelTrainingConfiguration parallelTraining, TrainingValidationSplit validationSplit) {
+
+    this.parallelTraining = parallelTraining;
+    this.validationSplit = validationSplit;
+  }
+
   public MultiLayerNetwork createNetworkModel(MultiLayerConfiguration multiLayerConfiguration) {
 
     String message = "Build model ...";
@@ -43,73 +76,142 @@ public class FeedForwardCommon {
     return net;
   }
 
-  public List<Pair<INDArray, INDArray>> trainNetworkModel(MultiLayerNetwork net) {
+  /**
+   * @return the playgrounds with already converted labels of all examples, read from the
+   * {@link TicTacToeConvertedDataCache} if converted before, to be stacked by
+   * {@link #stackPlaygroundsLabels(List)} without another conversion
+   */
+  public List<Pair<INDArray, INDArray>> trainNetworkModelOnConvertedLabels(MultiLayerNetwork net) {
 
     String message = "Generate adapted net input and labels ...";
     logger.info(message);
 
-    List<Pair<INDArray, INDArray>> allPlaygrounds = NeuralDataHelper.readAll("/inputs.txt", "/labels.txt");
-    List<Pair<INDArray, INDArray>> convertedMiniMaxLabels = TicTacToeNeuralDataConverter.convertMiniMaxLabels(allPlaygrounds);
+    List<Pair<INDArray, INDArray>> convertedMiniMaxLabels = TicTacToeNeuralDataConverter.unstackPlaygroundLabels(
+        TicTacToeConvertedDataCache.fromSystemProperties().readConvertedResources(
+            TicTacToeLabelConversion.BINARY, TicTacToeBoardConfiguration.STANDARD, "/inputs.bin", "/labels.bin"));
 
-    NeuralDataHelper.printRandomMiniMaxData(allPlaygrounds, DEFAULT_FEATURE_EXAMPLE_NUMBER_LOG);
     NeuralDataHelper.printRandomFeedForwardNetInputAndLabels(
         convertedMiniMaxLabels, DEFAULT_FEATURE_EXAMPLE_NUMBER_LOG);
     
     net.addListeners(new ScoreIterationListener(DEFAULT_NUMBER_OF_PRINT_EPOCHS));
     
-    for (int epochNumber = 0; epochNumber < NUMBER_OF_EPOCHS; epochNumber++) {
-      
-      DataSet randomBalancedDataSet = getTrainDataSetWithMaxLabelExampleSize(convertedMiniMaxLabels);
+    Pair<List<Pair<INDArray, INDArray>>, List<Pair<INDArray, INDArray>>> trainingValidationLabels =
+        validationSplit.split(convertedMiniMaxLabels);
+    List<Pair<INDArray, INDArray>> trainingLabels = validationSplit.isEnabled() ?
+        trainingValidationLabels.getFirst() : convertedMiniMaxLabels;
+
+    BalancedLabelSampler balancedLabelSampler = createBalancedLabelSampler(trainingLabels);
+    logger.info("Sample {} examples per label class of {}", balancedLabelSampler.getExamplesPerClass(),
+        balancedLabelSampler.getClassCounts());
 
-      net.fit(randomBalancedDataSet);
+    AsyncScoreCalculator<MultiLayerNetwork> validationScoreCalculator = null;
+    if (validationSplit.isEnabled()) {
+
+      validationScoreCalculator = new AsyncScoreCalculator<>(new DataSetLossCalculator(
+          new ListDataSetIterator<>(Collections.singletonList(
+              stackPlaygroundsLabels(trainingValidationLabels.getSecond())), DEFAULT_BATCH_SIZE), true));
+    }
+
+    try {
+
+      if (parallelTraining.isEnabled()) {
+
+        trainNetworkModelParallel(net, balancedLabelSampler, validationScoreCalculator);
+        return convertedMiniMaxLabels;
+      }
+
+      for (int epochNumber = 0; epochNumber < NUMBER_OF_EPOCHS; epochNumber++) {
+        
+        DataSet randomBalancedDataSet = balancedLabelSampler.sample();
+
+        net.fit(randomBalancedDataSet);
+        logValidationScore(net, epochNumber, validationScoreCalculator);
+      }
+
+    } finally {
+
+      if (null != validationScoreCalculator) {
+
+        validationScoreCalculator.close();
+      }
     }
     
-    return allPlaygrounds;
+    return convertedMiniMaxLabels;
   }
 
-  public DataSet getTrainDataSetWithMaxLabelExampleSize(List<Pair<INDArray, INDArray>> convertedMiniMaxLabels) {
+  /**
+   * Scores the held out validation loss every {@value #EVALUATE_EVERY_N_EPOCHS} epochs in
+   * the background and logs the last completed score with the epoch it belongs to, which
+   * lags at least one evaluation behind. The feed forward training only monitors the loss
+   * and fits all epochs, without early stopping.
+   */
+  protected void logValidationScore(MultiLayerNetwork net, int epochNumber,
+      AsyncScoreCalculator<MultiLayerNetwork> validationScoreCalculator) {
 
-    Pair<INDArray, INDArray> stackedPlaygroundLabels =
-        TicTacToeNeuralDataConverter.stackFeedForwardPlaygroundLabels(convertedMiniMaxLabels);
+    if (null != validationScoreCalculator && (epochNumber + 1) % EVALUATE_EVERY_N_EPOCHS == 0) {
 
-    INDArray labelStatisticsNdArray = stackedPlaygroundLabels.getSecond().sum(0);
-    
-    double[] labelStatistics = labelStatisticsNdArray.toDoubleVector();
-    double minOccurance = Nd4j.min(labelStatisticsNdArray).toDoubleVector()[0];
-    
-    int stackedSize = (int) minOccurance * COLUMN_COUNT;
-    
-    INDArray stackedPlaygrounds = Nd4j.zeros(stackedSize, COLUMN_COUNT);
-    INDArray stackedLabels = Nd4j.zeros(stackedSize, COLUMN_COUNT);
+      double validationScore = validationScoreCalculator.calculateScore(net);
+      int scoredEpochNumber = validationScoreCalculator.getScoredCall() * EVALUATE_EVERY_N_EPOCHS - 1;
 
-    double[] ratios = new double[] {minOccurance / labelStatistics[0], minOccurance / labelStatistics[1],minOccurance / labelStatistics[2],
-        minOccurance / labelStatistics[3],minOccurance / labelStatistics[4],minOccurance / labelStatistics[5],
-        minOccurance / labelStatistics[6],minOccurance / labelStatistics[7],minOccurance / labelStatistics[8]};
-    
-    int stackedIndex = 0;
-    for (int totalIndex = 0; stackedIndex < stackedSize && totalIndex < 4520; totalIndex++) {
-
-      INDArray currentLabel = stackedPlaygroundLabels.getSecond().getRow(totalIndex);
-      int currentLabelIndex = Nd4j.getExecutioner().execAndReturn(new IMax(currentLabel)).getFinalResult().intValue();
-      
-      if (randomGenerator.nextDouble() <= ratios[currentLabelIndex]) {
-      
-        INDArray currentPlayground = stackedPlaygroundLabels.getFirst().getRow(totalIndex);
-        stackedPlaygrounds.putRow(stackedIndex, currentPlayground);
-  
-        stackedLabels.putRow(stackedIndex, currentLabel);
-        
-        stackedIndex++;
+      logger.info("Validation score after epoch {}: {}", scoredEpochNumber, validationScore);
+    }
+  }
+
+  /**
+   * The same epochs as the sequential training, the wrapper and its replicas are kept
+   * for all epochs and averaged back into net.
+   */
+  protected void trainNetworkModelParallel(MultiLayerNetwork net, BalancedLabelSampler balancedLabelSampler,
+      AsyncScoreCalculator<MultiLayerNetwork> validationScoreCalculator) {
+
+    logger.info("Data parallel training with {}", parallelTraining);
+
+    ParallelWrapper parallelWrapper = parallelTraining.createParallelWrapper(net);
+    parallelWrapper.setListeners(new ScoreIterationListener(DEFAULT_NUMBER_OF_PRINT_EPOCHS));
+
+    try {
+      for (int epochNumber = 0; epochNumber < NUMBER_OF_EPOCHS; epochNumber++) {
+
+        DataSet randomBalancedDataSet = balancedLabelSampler.sample();
+
+        parallelWrapper.fit(parallelTraining.createMiniBatchIterator(randomBalancedDataSet));
+        logValidationScore(net, epochNumber, validationScoreCalculator);
       }
+
+    } finally {
+
+      parallelWrapper.shutdown();
     }
+  }
+
+  /**
+   * @return a single class balanced DataSet, for repeated sampling create one
+   * {@link BalancedLabelSampler} by {@link #createBalancedLabelSampler(List)}
+   */
+  public DataSet getTrainDataSetWithMaxLabelExampleSize(List<Pair<INDArray, INDArray>> convertedMiniMaxLabels) {
 
-    return new org.nd4j.linalg.dataset.DataSet(stackedPlaygrounds, stackedLabels);
+    return createBalancedLabelSampler(convertedMiniMaxLabels).sample();
+  }
+
+  public BalancedLabelSampler createBalancedLabelSampler(List<Pair<INDArray, INDArray>> convertedMiniMaxLabels) {
+
+    Pair<INDArray, INDArray> stackedPlaygroundLabels =
+        TicTacToeNeuralDataConverter.stackFeedForwardPlaygroundLabels(convertedMiniMaxLabels);
+
+    return new BalancedLabelSampler(stackedPlaygroundLabels.getFirst(), stackedPlaygroundLabels.getSecond(),
+        randomGenerator);
   }
 
   public DataSet stackPlaygroundInputsLabels(List<Pair<INDArray, INDArray>> allPlaygrounds) {
 
     List<Pair<INDArray, INDArray>> convertedMiniMaxLabels = TicTacToeNeuralDataConverter.convertMiniMaxLabels(allPlaygrounds);
 
+    return stackPlaygroundsLabels(convertedMiniMaxLabels);
+  }
+
+  public org.nd4j.linalg.dataset.DataSet stackPlaygroundsLabels(
+      List<Pair<INDArray, INDArray>> convertedMiniMaxLabels) {
+
     Pair<INDArray, INDArray> stackedPlaygroundLabels =
         TicTacToeNeuralDataConverter.stackFeedForwardPlaygroundLabels(convertedMiniMaxLabels);
 
@@ -129,16 +231,4 @@ public class FeedForwardCommon {
     logger.info("Answer to center field opening: {}", net.output(CENTER_FIELD_MOVE));
     logger.info("Answer to last corner field opening: {}", net.output(LAST_CORNER_FIELD_MOVE));
   }
-
-  protected EarlyStoppingConfiguration<MultiLayerNetwork> createEarlyStoppingConfiguration(
-      DataSetIterator dataSetIterator) {
-
-    return new EarlyStoppingConfiguration.Builder<MultiLayerNetwork>()
-        .epochTerminationConditions(new MaxEpochsTerminationCondition(NUMBER_OF_EPOCHS))
-        .iterationTerminationConditions(new MaxScoreIterationTerminationCondition(DEFAULT_MAX_SCORE_EARLY_STOP))
-        .scoreCalculator(new DataSetLossCalculator(dataSetIterator, true))
-        .evaluateEveryNEpochs(50)
-        .modelSaver(new InMemoryModelSaver<>())
-        .build();
-  }
 }
@@ -2,6 +2,8 @@ package ch.evolutionsoft.example.dl4j.tictactoe.feedforward;
 
 import static ch.evolutionsoft.net.game.NeuralNetConstants.*;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
 
 import org.deeplearning4j.nn.api.OptimizationAlgorithm;
@@ -10,6 +12,7 @@ import org.deeplearning4j.nn.conf.layers.DenseLayer;
 import org.deeplearning4j.nn.conf.layers.OutputLayer;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.weights.WeightInit;
+import org.deeplearning4j.util.ModelSerializer;
 import org.nd4j.common.primitives.Pair;
 import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -27,7 +30,7 @@ public class FeedForwardFourLayerMain {
 
   private static final Logger logger = LoggerFactory.getLogger(FeedForwardFourLayerMain.class);
 
-  public static void main(String[] args) {
+  public static void main(String[] args) throws IOException {
 
     FeedForwardFourLayerMain hiddenLayerSetup = new FeedForwardFourLayerMain();
 
@@ -40,10 +43,12 @@ public class FeedForwardFourLayerMain {
       logger.info(net.summary());
     }
 
-    List<Pair<INDArray, INDArray>> allPlaygroundsLabels = feedForwardCommon.trainNetworkModel(net);
+    List<Pair<INDArray, INDArray>> convertedPlaygroundsLabels = feedForwardCommon.trainNetworkModelOnConvertedLabels(net);
+
+    ModelSerializer.writeModel(net, new File("TicTacToeFeedForwardNet.bin"), false);
 
     feedForwardCommon.evaluateNetworkPerformance(net,
-        feedForwardCommon.stackPlaygroundInputsLabels(allPlaygroundsLabels));
+        feedForwardCommon.stackPlaygroundsLabels(convertedPlaygroundsLabels));
   }
 
   public NeuralNetConfiguration.Builder createGeneralConfiguration() {
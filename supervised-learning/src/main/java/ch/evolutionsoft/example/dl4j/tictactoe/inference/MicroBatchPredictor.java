@@ -0,0 +1,203 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.inference;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects concurrent single example predictions into batched forward passes.
+ *
+ * One dispatcher thread waits for the first pending request, then for further ones
+ * until the max batch size is reached or the max wait time since the first request
+ * has passed. The stacked features run through the model in one call, the output
+ * rows complete the futures of the requests in order.
+ *
+ * The model function is only called from the dispatcher thread, so nets which are
+ * not thread safe can be used directly.
+ */
+public class MicroBatchPredictor implements AutoCloseable {
+
+  public static final int DEFAULT_MAX_BATCH_SIZE = 64;
+  public static final long DEFAULT_MAX_WAIT_MICROS = 2000;
+
+  private static final Logger logger = LoggerFactory.getLogger(MicroBatchPredictor.class);
+
+  private final UnaryOperator<INDArray> batchModel;
+
+  private final int maxBatchSize;
+
+  private final long maxWaitNanos;
+
+  private final BlockingQueue<PendingPrediction> pendingPredictions = new LinkedBlockingQueue<>();
+
+  private final Thread dispatcherThread;
+
+  private volatile boolean running = true;
+
+  /**
+   * @param batchModel maps stacked features [N, ...] to outputs [N, ...]
+   */
+  public MicroBatchPredictor(UnaryOperator<INDArray> batchModel, int maxBatchSize, long maxWaitMicros) {
+
+    if (maxBatchSize <= 0 || maxWaitMicros < 0) {
+
+      throw new IllegalArgumentException(
+          "Invalid max batch size " + maxBatchSize + " or max wait micros " + maxWaitMicros);
+    }
+
+    this.batchModel = batchModel;
+    this.maxBatchSize = maxBatchSize;
+    this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(maxWaitMicros);
+
+    this.dispatcherThread = new Thread(this::dispatch, "MicroBatchPredictor");
+    this.dispatcherThread.setDaemon(true);
+    this.dispatcherThread.start();
+  }
+
+  /**
+   * @param features one example with leading dimension 1, e.g. a playground [1, 9]
+   * @return the output row [1, ...] of the example
+   */
+  public CompletableFuture<INDArray> predict(INDArray features) {
+
+    CompletableFuture<INDArray> futureOutput = new CompletableFuture<>();
+
+    if (!running) {
+
+      futureOutput.completeExceptionally(new IllegalStateException("Predictor closed"));
+      return futureOutput;
+    }
+
+    PendingPrediction pendingPrediction = new PendingPrediction(features, futureOutput);
+    pendingPredictions.add(pendingPrediction);
+
+    // A close since the running check may have drained the queue already
+    if (!running && pendingPredictions.remove(pendingPrediction)) {
+
+      futureOutput.completeExceptionally(new IllegalStateException("Predictor closed"));
+    }
+
+    return futureOutput;
+  }
+
+  public int getMaxBatchSize() {
+
+    return maxBatchSize;
+  }
+
+  @Override
+  public void close() {
+
+    running = false;
+    dispatcherThread.interrupt();
+
+    try {
+      dispatcherThread.join();
+
+    } catch (InterruptedException ie) {
+
+      Thread.currentThread().interrupt();
+    }
+
+    List<PendingPrediction> remainingPredictions = new ArrayList<>();
+    pendingPredictions.drainTo(remainingPredictions);
+    for (PendingPrediction pendingPrediction : remainingPredictions) {
+
+      pendingPrediction.futureOutput.completeExceptionally(new IllegalStateException("Predictor closed"));
+    }
+  }
+
+  protected void dispatch() {
+
+    List<PendingPrediction> batch = new ArrayList<>(maxBatchSize);
+
+    try {
+      while (running) {
+
+        collectBatch(batch);
+        predictBatch(batch);
+        batch.clear();
+      }
+
+    } catch (InterruptedException ie) {
+
+      Thread.currentThread().interrupt();
+    }
+
+    for (PendingPrediction pendingPrediction : batch) {
+
+      pendingPrediction.futureOutput.completeExceptionally(new IllegalStateException("Predictor closed"));
+    }
+  }
+
+  protected void collectBatch(List<PendingPrediction> batch) throws InterruptedException {
+
+    batch.add(pendingPredictions.take());
+    long deadline = System.nanoTime() + maxWaitNanos;
+
+    while (batch.size() < maxBatchSize) {
+
+      long remainingNanos = deadline - System.nanoTime();
+      PendingPrediction pendingPrediction = remainingNanos > 0 ?
+          pendingPredictions.poll(remainingNanos, TimeUnit.NANOSECONDS) : pendingPredictions.poll();
+
+      if (null == pendingPrediction) {
+
+        return;
+      }
+
+      batch.add(pendingPrediction);
+    }
+  }
+
+  protected void predictBatch(List<PendingPrediction> batch) {
+
+    try {
+      INDArray[] batchFeatures = new INDArray[batch.size()];
+      for (int index = 0; index < batchFeatures.length; index++) {
+
+        batchFeatures[index] = batch.get(index).features;
+      }
+
+      INDArray batchOutput = batchModel.apply(Nd4j.concat(0, batchFeatures));
+
+      for (int index = 0; index < batchFeatures.length; index++) {
+
+        batch.get(index).futureOutput.complete(batchOutput.get(
+            NDArrayIndex.interval(index, index + 1), NDArrayIndex.all()).dup());
+      }
+
+    } catch (RuntimeException re) {
+
+      logger.warn("Batch prediction of {} examples failed", batch.size(), re);
+
+      for (PendingPrediction pendingPrediction : batch) {
+
+        pendingPrediction.futureOutput.completeExceptionally(re);
+      }
+    }
+  }
+
+  static class PendingPrediction {
+
+    final INDArray features;
+
+    final CompletableFuture<INDArray> futureOutput;
+
+    PendingPrediction(INDArray features, CompletableFuture<INDArray> futureOutput) {
+
+      this.features = features;
+      this.futureOutput = futureOutput;
+    }
+  }
+}
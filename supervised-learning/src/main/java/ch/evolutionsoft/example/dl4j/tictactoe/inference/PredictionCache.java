@@ -0,0 +1,204 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.inference;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * Bounded cache of net predictions keyed by the base 3 position index of a playground,
+ * see TicTacToeBitboard#toPositionIndex().
+ *
+ * Keys are spread over lock stripes, each an access ordered LinkedHashMap evicting its
+ * least recently used entry beyond its share of the max size. Predictions of a miss are
+ * made outside of the stripe lock, so concurrent misses of one position may predict it
+ * twice. Cached values are shared between callers and must not be modified.
+ *
+ * A reloaded model invalidates all entries. Predictions started before the invalidation
+ * are not cached afterwards.
+ */
+public class PredictionCache<V> {
+
+  public static final int DEFAULT_MAX_SIZE = 8192;
+  public static final int DEFAULT_STRIPES = 16;
+
+  private final Stripe<V>[] stripes;
+
+  private final int stripeMask;
+
+  private final AtomicLong modelGeneration = new AtomicLong();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder invalidations = new LongAdder();
+
+  public PredictionCache() {
+
+    this(DEFAULT_MAX_SIZE, DEFAULT_STRIPES);
+  }
+
+  /**
+   * @param stripes the number of locks, rounded up to a power of two
+   */
+  @SuppressWarnings("unchecked")
+  public PredictionCache(int maxSize, int stripes) {
+
+    if (maxSize <= 0 || stripes <= 0) {
+
+      throw new IllegalArgumentException("Invalid max size " + maxSize + " or stripes " + stripes);
+    }
+
+    int stripeCount = Integer.highestOneBit(Math.min(stripes, maxSize));
+    if (stripeCount < Math.min(stripes, maxSize)) {
+
+      stripeCount <<= 1;
+    }
+
+    this.stripes = new Stripe[stripeCount];
+    this.stripeMask = stripeCount - 1;
+
+    for (int stripe = 0; stripe < stripeCount; stripe++) {
+
+      int stripeMaxSize = Math.max(1, maxSize / stripeCount + (stripe < maxSize % stripeCount ? 1 : 0));
+      this.stripes[stripe] = new Stripe<>(stripeMaxSize, evictions);
+    }
+  }
+
+  /**
+   * @return the cached prediction of positionIndex, otherwise the one of predict, which is cached
+   */
+  public V get(long positionIndex, LongFunction<V> predict) {
+
+    Stripe<V> stripe = stripeOf(positionIndex);
+    long generation = modelGeneration.get();
+
+    V cachedPrediction;
+    synchronized (stripe) {
+
+      cachedPrediction = stripe.get(positionIndex);
+    }
+
+    if (null != cachedPrediction) {
+
+      hits.increment();
+      return cachedPrediction;
+    }
+
+    misses.increment();
+    V prediction = predict.apply(positionIndex);
+
+    synchronized (stripe) {
+
+      // Drop predictions of a model replaced meanwhile
+      if (generation == modelGeneration.get()) {
+
+        stripe.put(positionIndex, prediction);
+      }
+    }
+
+    return prediction;
+  }
+
+  /**
+   * Removes all predictions, to be called when the model is reloaded.
+   */
+  public void invalidateAll() {
+
+    modelGeneration.incrementAndGet();
+    invalidations.increment();
+
+    for (Stripe<V> stripe : stripes) {
+
+      synchronized (stripe) {
+
+        stripe.clear();
+      }
+    }
+  }
+
+  public int size() {
+
+    int size = 0;
+    for (Stripe<V> stripe : stripes) {
+
+      synchronized (stripe) {
+
+        size += stripe.size();
+      }
+    }
+
+    return size;
+  }
+
+  public long getHits() {
+
+    return hits.sum();
+  }
+
+  public long getMisses() {
+
+    return misses.sum();
+  }
+
+  public long getEvictions() {
+
+    return evictions.sum();
+  }
+
+  public long getInvalidations() {
+
+    return invalidations.sum();
+  }
+
+  public double getHitRate() {
+
+    long currentHits = hits.sum();
+    long requests = currentHits + misses.sum();
+
+    return requests > 0 ? (double) currentHits / requests : 0;
+  }
+
+  @Override
+  public String toString() {
+
+    return "size " + size() + ", hits " + getHits() + ", misses " + getMisses() + ", hit rate " +
+        String.format("%.3f", getHitRate()) + ", evictions " + getEvictions() + ", invalidations " + getInvalidations();
+  }
+
+  protected Stripe<V> stripeOf(long positionIndex) {
+
+    // Mix the bits, neighbouring position indices differ in the lowest fields only
+    long hash = positionIndex * 0x9E3779B97F4A7C15L;
+    return stripes[(int) (hash >>> 32) & stripeMask];
+  }
+
+  static class Stripe<V> extends LinkedHashMap<Long, V> {
+
+    private static final long serialVersionUID = 1L;
+
+    final int maxSize;
+
+    final transient LongAdder evictions;
+
+    Stripe(int maxSize, LongAdder evictions) {
+
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+      this.evictions = evictions;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Long, V> eldest) {
+
+      if (size() > maxSize) {
+
+        evictions.increment();
+        return true;
+      }
+
+      return false;
+    }
+  }
+}
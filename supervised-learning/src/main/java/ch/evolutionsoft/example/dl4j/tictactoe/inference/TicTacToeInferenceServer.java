@@ -0,0 +1,359 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.inference;
+
+import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.util.ModelSerializer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeBitboard;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeNeuralDataConverter;
+
+/**
+ * Local HTTP service answering playground predictions of a trained net.
+ *
+ * A POST to /predict with the 9 field values 1, -1 or 0 separated by commas or white
+ * space returns the 9 net outputs separated by commas. Concurrent requests are
+ * handled by a thread pool and batched by a {@link MicroBatchPredictor}. Predictions of
+ * repeated playgrounds are answered from a {@link PredictionCache}.
+ *
+ * A POST to /reload reads the model file again and invalidates the cache, a GET of
+ * /stats returns the cache metrics.
+ *
+ * Port, max batch size, max wait time, handler threads and cache size are read from the
+ * system properties inference.port, inference.maxBatchSize, inference.maxWaitMicros,
+ * inference.handlerThreads and inference.cacheSize.
+ */
+public class TicTacToeInferenceServer implements AutoCloseable {
+
+  public static final String CONVOLUTIONAL = "convolutional";
+  public static final String FEED_FORWARD = "feedforward";
+
+  public static final String CONVOLUTIONAL_MODEL_FILE = "TicTacToeResidualNet.bin";
+  public static final String FEED_FORWARD_MODEL_FILE = "TicTacToeFeedForwardNet.bin";
+
+  public static final String PREDICT_PATH = "/predict";
+  public static final String RELOAD_PATH = "/reload";
+  public static final String STATS_PATH = "/stats";
+
+  public static final int DEFAULT_PORT = 8080;
+  public static final int DEFAULT_HANDLER_THREADS = 2 * MicroBatchPredictor.DEFAULT_MAX_BATCH_SIZE;
+
+  private static final String FIELD_SEPARATORS = "[,\\s]+";
+
+  private static final Logger logger = LoggerFactory.getLogger(TicTacToeInferenceServer.class);
+
+  private final AtomicReference<UnaryOperator<INDArray>> playgroundModel;
+
+  private final MicroBatchPredictor predictor;
+
+  private final PredictionCache<INDArray> predictionCache;
+
+  private volatile Callable<UnaryOperator<INDArray>> modelLoader;
+
+  private final HttpServer httpServer;
+
+  private final ExecutorService handlerExecutor;
+
+  public TicTacToeInferenceServer(UnaryOperator<INDArray> playgroundModel, int port, int maxBatchSize,
+      long maxWaitMicros, int handlerThreads) throws IOException {
+
+    this(playgroundModel, port, maxBatchSize, maxWaitMicros, handlerThreads, PredictionCache.DEFAULT_MAX_SIZE);
+  }
+
+  public TicTacToeInferenceServer(UnaryOperator<INDArray> playgroundModel, int port, int maxBatchSize,
+      long maxWaitMicros, int handlerThreads, int cacheSize) throws IOException {
+
+    this.playgroundModel = new AtomicReference<>(playgroundModel);
+    this.predictor = new MicroBatchPredictor(
+        playgrounds -> this.playgroundModel.get().apply(playgrounds), maxBatchSize, maxWaitMicros);
+    this.predictionCache = new PredictionCache<>(cacheSize, PredictionCache.DEFAULT_STRIPES);
+    this.handlerExecutor = Executors.newFixedThreadPool(handlerThreads);
+
+    this.httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+    this.httpServer.createContext(PREDICT_PATH, this::handlePredict);
+    this.httpServer.createContext(RELOAD_PATH, this::handleReload);
+    this.httpServer.createContext(STATS_PATH, this::handleStats);
+    this.httpServer.setExecutor(handlerExecutor);
+  }
+
+  /**
+   * @param arguments convolutional or feedforward, optionally followed by the model file
+   */
+  public static void main(String[] arguments) throws IOException {
+
+    String modelType = arguments.length > 0 ? arguments[0] : CONVOLUTIONAL;
+    boolean convolutional = CONVOLUTIONAL.equals(modelType);
+    String modelFile = arguments.length > 1 ? arguments[1] :
+      convolutional ? CONVOLUTIONAL_MODEL_FILE : FEED_FORWARD_MODEL_FILE;
+
+    int port = Integer.getInteger("inference.port", DEFAULT_PORT);
+
+    TicTacToeInferenceServer server = new TicTacToeInferenceServer(loadModel(convolutional, modelFile), port,
+        Integer.getInteger("inference.maxBatchSize", MicroBatchPredictor.DEFAULT_MAX_BATCH_SIZE),
+        Long.getLong("inference.maxWaitMicros", MicroBatchPredictor.DEFAULT_MAX_WAIT_MICROS),
+        Integer.getInteger("inference.handlerThreads", DEFAULT_HANDLER_THREADS),
+        Integer.getInteger("inference.cacheSize", PredictionCache.DEFAULT_MAX_SIZE));
+    server.setModelLoader(() -> loadModel(convolutional, modelFile));
+    server.start();
+
+    logger.info("Serving {} model {} at http://localhost:{}{}", modelType, modelFile, port, PREDICT_PATH);
+  }
+
+  public static UnaryOperator<INDArray> loadModel(boolean convolutional, String modelFile) throws IOException {
+
+    return convolutional ?
+        convolutionalModel(ModelSerializer.restoreComputationGraph(new File(modelFile), false)) :
+        feedForwardModel(ModelSerializer.restoreMultiLayerNetwork(new File(modelFile), false));
+  }
+
+  /**
+   * @return the model converting stacked playgrounds [N, 9] to images before the forward pass
+   */
+  public static UnaryOperator<INDArray> convolutionalModel(ComputationGraph convolutionalNet) {
+
+    return playgrounds -> convolutionalNet.outputSingle(TicTacToeNeuralDataConverter.convertTo3x3Images(playgrounds));
+  }
+
+  public static UnaryOperator<INDArray> feedForwardModel(MultiLayerNetwork feedForwardNet) {
+
+    return feedForwardNet::output;
+  }
+
+  public void start() {
+
+    httpServer.start();
+  }
+
+  public int getPort() {
+
+    return httpServer.getAddress().getPort();
+  }
+
+  /**
+   * Replaces the served model, batches already dispatched finish with the previous one.
+   * Cached predictions of the previous model are invalidated.
+   */
+  public void reloadModel(UnaryOperator<INDArray> newPlaygroundModel) {
+
+    playgroundModel.set(newPlaygroundModel);
+    predictionCache.invalidateAll();
+  }
+
+  /**
+   * @param modelLoader loads the model again on a POST to /reload
+   */
+  public void setModelLoader(Callable<UnaryOperator<INDArray>> modelLoader) {
+
+    this.modelLoader = modelLoader;
+  }
+
+  public PredictionCache<INDArray> getPredictionCache() {
+
+    return predictionCache;
+  }
+
+  @Override
+  public void close() {
+
+    httpServer.stop(0);
+    handlerExecutor.shutdown();
+    predictor.close();
+
+    logger.info("Prediction cache {}", predictionCache);
+  }
+
+  protected void handlePredict(HttpExchange exchange) throws IOException {
+
+    try {
+      if (!"POST".equals(exchange.getRequestMethod())) {
+
+        sendResponse(exchange, HttpURLConnection.HTTP_BAD_METHOD, "POST the 9 playground field values\n");
+        return;
+      }
+
+      INDArray playground = parsePlayground(readBody(exchange.getRequestBody()));
+      INDArray output = predictionCache.get(
+          TicTacToeBitboard.fromPlayground(playground).toPositionIndex(), positionIndex -> predict(playground));
+
+      sendResponse(exchange, HttpURLConnection.HTTP_OK, formatOutput(output));
+
+    } catch (IllegalArgumentException iae) {
+
+      sendResponse(exchange, HttpURLConnection.HTTP_BAD_REQUEST, iae.getMessage() + "\n");
+
+    } catch (PredictionException pe) {
+
+      sendResponse(exchange, HttpURLConnection.HTTP_INTERNAL_ERROR, "Prediction failed\n");
+
+    } catch (PredictionInterruptedException pie) {
+
+      Thread.currentThread().interrupt();
+      sendResponse(exchange, HttpURLConnection.HTTP_UNAVAILABLE, "Prediction interrupted\n");
+
+    } finally {
+
+      exchange.close();
+    }
+  }
+
+  protected void handleReload(HttpExchange exchange) throws IOException {
+
+    try {
+      if (!"POST".equals(exchange.getRequestMethod())) {
+
+        sendResponse(exchange, HttpURLConnection.HTTP_BAD_METHOD, "POST to reload the model\n");
+        return;
+      }
+
+      Callable<UnaryOperator<INDArray>> currentModelLoader = modelLoader;
+      if (null == currentModelLoader) {
+
+        sendResponse(exchange, HttpURLConnection.HTTP_NOT_FOUND, "No model loader configured\n");
+        return;
+      }
+
+      reloadModel(currentModelLoader.call());
+      logger.info("Model reloaded, prediction cache invalidated");
+
+      sendResponse(exchange, HttpURLConnection.HTTP_OK, "Model reloaded\n");
+
+    } catch (Exception e) {
+
+      logger.warn("Model reload failed", e);
+      sendResponse(exchange, HttpURLConnection.HTTP_INTERNAL_ERROR, "Model reload failed\n");
+
+    } finally {
+
+      exchange.close();
+    }
+  }
+
+  protected void handleStats(HttpExchange exchange) throws IOException {
+
+    try {
+      sendResponse(exchange, HttpURLConnection.HTTP_OK, predictionCache + "\n");
+
+    } finally {
+
+      exchange.close();
+    }
+  }
+
+  protected INDArray predict(INDArray playground) {
+
+    try {
+      return predictor.predict(playground).get();
+
+    } catch (ExecutionException ee) {
+
+      throw new PredictionException(ee.getCause());
+
+    } catch (InterruptedException ie) {
+
+      throw new PredictionInterruptedException(ie);
+    }
+  }
+
+  static INDArray parsePlayground(String body) {
+
+    String[] fieldValues = body.trim().split(FIELD_SEPARATORS);
+    if (COLUMN_COUNT != fieldValues.length) {
+
+      throw new IllegalArgumentException("Expected " + COLUMN_COUNT + " field values, got " + fieldValues.length);
+    }
+
+    float[] fields = new float[COLUMN_COUNT];
+    for (int field = 0; field < COLUMN_COUNT; field++) {
+
+      fields[field] = Float.parseFloat(fieldValues[field]);
+      if (MAX_PLAYER != fields[field] && MIN_PLAYER != fields[field] && EMPTY_FIELD_VALUE != fields[field]) {
+
+        throw new IllegalArgumentException("Invalid field value " + fieldValues[field]);
+      }
+    }
+
+    return Nd4j.create(fields, new long[] {ROW_COUNT, COLUMN_COUNT}, Nd4j.defaultFloatingPointType());
+  }
+
+  static String formatOutput(INDArray output) {
+
+    StringBuilder formattedOutput = new StringBuilder();
+    for (int field = 0; field < output.length(); field++) {
+
+      if (field > 0) {
+
+        formattedOutput.append(',');
+      }
+      formattedOutput.append(output.getFloat(field));
+    }
+
+    return formattedOutput.append('\n').toString();
+  }
+
+  static String readBody(InputStream requestBody) throws IOException {
+
+    ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+    byte[] buffer = new byte[256];
+    for (int read = requestBody.read(buffer); read >= 0; read = requestBody.read(buffer)) {
+
+      bodyBytes.write(buffer, 0, read);
+    }
+
+    return new String(bodyBytes.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  static void sendResponse(HttpExchange exchange, int status, String body) throws IOException {
+
+    byte[] bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+    exchange.sendResponseHeaders(status, bodyBytes.length);
+
+    try (OutputStream responseBody = exchange.getResponseBody()) {
+
+      responseBody.write(bodyBytes);
+    }
+  }
+
+  static class PredictionException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    PredictionException(Throwable cause) {
+
+      super(cause);
+    }
+  }
+
+  static class PredictionInterruptedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    PredictionInterruptedException(InterruptedException cause) {
+
+      super(cause);
+    }
+  }
+}
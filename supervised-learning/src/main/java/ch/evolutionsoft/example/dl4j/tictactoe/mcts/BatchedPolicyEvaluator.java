@@ -0,0 +1,87 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.mcts;
+
+import java.util.concurrent.CompletionException;
+import java.util.function.UnaryOperator;
+
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import ch.evolutionsoft.example.dl4j.tictactoe.inference.MicroBatchPredictor;
+import ch.evolutionsoft.example.dl4j.tictactoe.inference.PredictionCache;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeBitboard;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeBoardConfiguration;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeNeuralDataConverter;
+
+/**
+ * Takes the softmax output of a trained net as move priors. The leaf playgrounds of
+ * concurrent search threads are queued in a {@link MicroBatchPredictor} and run through
+ * the net in one forward pass, a max batch size of the number of search threads
+ * dispatches as soon as every thread waits for its leaf.
+ *
+ * Priors of positions seen before, in the same or an earlier search, come from a
+ * {@link PredictionCache}.
+ */
+public class BatchedPolicyEvaluator implements PolicyEvaluator, AutoCloseable {
+
+  protected final MicroBatchPredictor predictor;
+
+  protected final PredictionCache<double[]> priorsCache;
+
+  public BatchedPolicyEvaluator(UnaryOperator<INDArray> playgroundModel, int maxBatchSize, long maxWaitMicros) {
+
+    this(playgroundModel, maxBatchSize, maxWaitMicros, new PredictionCache<>());
+  }
+
+  /**
+   * @param playgroundModel maps stacked playgrounds [N, fieldCount] to priors [N, fieldCount]
+   */
+  public BatchedPolicyEvaluator(UnaryOperator<INDArray> playgroundModel, int maxBatchSize, long maxWaitMicros,
+      PredictionCache<double[]> priorsCache) {
+
+    this.predictor = new MicroBatchPredictor(playgroundModel, maxBatchSize, maxWaitMicros);
+    this.priorsCache = priorsCache;
+  }
+
+  public static BatchedPolicyEvaluator forConvolutionalNet(ComputationGraph convolutionalNet,
+      TicTacToeBoardConfiguration configuration, int maxBatchSize) {
+
+    return new BatchedPolicyEvaluator(
+        playgrounds -> convolutionalNet.outputSingle(TicTacToeNeuralDataConverter.convertToImages(configuration, playgrounds)),
+        maxBatchSize, MicroBatchPredictor.DEFAULT_MAX_WAIT_MICROS);
+  }
+
+  public static BatchedPolicyEvaluator forFeedForwardNet(MultiLayerNetwork feedForwardNet, int maxBatchSize) {
+
+    return new BatchedPolicyEvaluator(feedForwardNet::output, maxBatchSize, MicroBatchPredictor.DEFAULT_MAX_WAIT_MICROS);
+  }
+
+  @Override
+  public double[] evaluate(TicTacToeBitboard position) {
+
+    return priorsCache.get(position.toPositionIndex(), positionIndex -> predict(position));
+  }
+
+  public PredictionCache<double[]> getPriorsCache() {
+
+    return priorsCache;
+  }
+
+  protected double[] predict(TicTacToeBitboard position) {
+
+    try {
+
+      return predictor.predict(position.toPlayground()).join().toDoubleVector();
+
+    } catch (CompletionException ce) {
+
+      throw new IllegalStateException("Policy of " + position + " not evaluated", ce.getCause());
+    }
+  }
+
+  @Override
+  public void close() {
+
+    predictor.close();
+  }
+}
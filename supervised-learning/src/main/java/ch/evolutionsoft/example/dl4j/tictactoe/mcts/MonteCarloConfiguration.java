@@ -0,0 +1,93 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.mcts;
+
+/**
+ * Settings of the {@link MonteCarloTreeSearch}, read from the system properties
+ * mcts.simulations, mcts.threads, mcts.exploration, mcts.virtualLoss and
+ * mcts.temperatureMoves.
+ */
+public class MonteCarloConfiguration {
+
+  public static final String SIMULATIONS_PROPERTY = "mcts.simulations";
+  public static final String THREADS_PROPERTY = "mcts.threads";
+  public static final String EXPLORATION_PROPERTY = "mcts.exploration";
+  public static final String VIRTUAL_LOSS_PROPERTY = "mcts.virtualLoss";
+  public static final String TEMPERATURE_MOVES_PROPERTY = "mcts.temperatureMoves";
+
+  public static final int DEFAULT_SIMULATIONS = 400;
+  public static final double DEFAULT_EXPLORATION = 1.5;
+  public static final int DEFAULT_VIRTUAL_LOSS = 3;
+  public static final int DEFAULT_TEMPERATURE_MOVES = 2;
+
+  protected final int simulations;
+  protected final int threads;
+  protected final double exploration;
+  protected final int virtualLoss;
+  protected final int temperatureMoves;
+
+  /**
+   * @param exploration the PUCT constant weighting the net priors against the mean values
+   * @param virtualLoss losses added to a node while a thread searches below it
+   * @param temperatureMoves self play moves sampled by visit counts, the best move is played afterwards
+   */
+  public MonteCarloConfiguration(int simulations, int threads, double exploration, int virtualLoss,
+      int temperatureMoves) {
+
+    if (simulations <= 0 || threads <= 0 || exploration < 0 || virtualLoss < 0 || temperatureMoves < 0) {
+
+      throw new IllegalArgumentException("Invalid simulations " + simulations + ", threads " + threads +
+          ", exploration " + exploration + ", virtual loss " + virtualLoss +
+          " or temperature moves " + temperatureMoves);
+    }
+
+    this.simulations = simulations;
+    this.threads = threads;
+    this.exploration = exploration;
+    this.virtualLoss = virtualLoss;
+    this.temperatureMoves = temperatureMoves;
+  }
+
+  /**
+   * @return the settings of the mcts.* system properties, defaults to one thread per core
+   */
+  public static MonteCarloConfiguration fromSystemProperties() {
+
+    return new MonteCarloConfiguration(
+        Integer.getInteger(SIMULATIONS_PROPERTY, DEFAULT_SIMULATIONS),
+        Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()),
+        Double.parseDouble(System.getProperty(EXPLORATION_PROPERTY, String.valueOf(DEFAULT_EXPLORATION))),
+        Integer.getInteger(VIRTUAL_LOSS_PROPERTY, DEFAULT_VIRTUAL_LOSS),
+        Integer.getInteger(TEMPERATURE_MOVES_PROPERTY, DEFAULT_TEMPERATURE_MOVES));
+  }
+
+  public int getSimulations() {
+
+    return simulations;
+  }
+
+  public int getThreads() {
+
+    return threads;
+  }
+
+  public double getExploration() {
+
+    return exploration;
+  }
+
+  public int getVirtualLoss() {
+
+    return virtualLoss;
+  }
+
+  public int getTemperatureMoves() {
+
+    return temperatureMoves;
+  }
+
+  @Override
+  public String toString() {
+
+    return simulations + " simulations, threads " + threads + ", exploration " + exploration +
+        ", virtual loss " + virtualLoss + ", temperature moves " + temperatureMoves;
+  }
+}
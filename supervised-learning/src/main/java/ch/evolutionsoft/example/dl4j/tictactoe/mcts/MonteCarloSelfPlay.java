@@ -0,0 +1,170 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.mcts;
+
+import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.util.ModelSerializer;
+import org.nd4j.common.primitives.Pair;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.evolutionsoft.example.dl4j.tictactoe.convolutional.ConvolutionalNetMain;
+import ch.evolutionsoft.net.game.NeuralDataBinaryFormat;
+import ch.evolutionsoft.net.game.NeuralNetConstants;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeBitboard;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeBoardConfiguration;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeNeuralDataConverter;
+
+/**
+ * Plays games of the {@link MonteCarloTreeSearch} against itself and records every
+ * searched playground [1, fieldCount] with the visit distribution of its moves as label,
+ * the policy training data for the nets.
+ *
+ * The first temperatureMoves moves of a game are sampled by visit counts for diverse
+ * openings, the most visited move is played afterwards.
+ */
+public class MonteCarloSelfPlay {
+
+  public static final String GAMES_PROPERTY = "mcts.games";
+
+  public static final int DEFAULT_GAMES = 20;
+
+  public static final String INPUTS_FILE = "selfPlayInputs.bin";
+  public static final String LABELS_FILE = "selfPlayLabels.bin";
+
+  private static final Logger logger = LoggerFactory.getLogger(MonteCarloSelfPlay.class);
+
+  protected final MonteCarloTreeSearch treeSearch;
+
+  protected final TicTacToeBoardConfiguration boardConfiguration;
+
+  protected final Random random;
+
+  public MonteCarloSelfPlay(MonteCarloTreeSearch treeSearch, TicTacToeBoardConfiguration boardConfiguration,
+      Random random) {
+
+    this.treeSearch = treeSearch;
+    this.boardConfiguration = boardConfiguration;
+    this.random = random;
+  }
+
+  /**
+   * Plays self play games with the residual net of ConvolutionalNetMain as policy and
+   * writes the stacked playgrounds and labels to selfPlayInputs.bin and selfPlayLabels.bin.
+   *
+   * @param arguments optionally the model file, by default the one of the board size
+   */
+  public static void main(String[] arguments) throws IOException {
+
+    TicTacToeBoardConfiguration boardConfiguration = ConvolutionalNetMain.boardConfigurationFromSystemProperties();
+    String modelFile = arguments.length > 0 ? arguments[0] :
+      new ConvolutionalNetMain(boardConfiguration).getModelFileName();
+
+    MonteCarloConfiguration configuration = MonteCarloConfiguration.fromSystemProperties();
+    logger.info("Self play with {} on {}", configuration, boardConfiguration);
+
+    ComputationGraph convolutionalNet = ModelSerializer.restoreComputationGraph(new File(modelFile), false);
+
+    try (BatchedPolicyEvaluator policyEvaluator = BatchedPolicyEvaluator.forConvolutionalNet(
+            convolutionalNet, boardConfiguration, configuration.getThreads());
+        MonteCarloTreeSearch treeSearch = new MonteCarloTreeSearch(policyEvaluator, configuration)) {
+
+      MonteCarloSelfPlay selfPlay = new MonteCarloSelfPlay(treeSearch, boardConfiguration,
+          new Random(NeuralNetConstants.DEFAULT_SEED));
+
+      long startNanos = System.nanoTime();
+      List<Pair<INDArray, INDArray>> playgroundsPolicies =
+          selfPlay.playGames(Integer.getInteger(GAMES_PROPERTY, DEFAULT_GAMES));
+      logger.info("Recorded {} positions in {} ms, priors cache {}", playgroundsPolicies.size(),
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), policyEvaluator.getPriorsCache());
+
+      Pair<INDArray, INDArray> stackedPlaygroundsPolicies =
+          TicTacToeNeuralDataConverter.stackFeedForwardPlaygroundLabels(playgroundsPolicies);
+      NeuralDataBinaryFormat.write(stackedPlaygroundsPolicies.getFirst(), Paths.get(INPUTS_FILE));
+      NeuralDataBinaryFormat.write(stackedPlaygroundsPolicies.getSecond(), Paths.get(LABELS_FILE));
+    }
+  }
+
+  public List<Pair<INDArray, INDArray>> playGames(int games) {
+
+    List<Pair<INDArray, INDArray>> playgroundsPolicies = new ArrayList<>();
+    for (int game = 0; game < games; game++) {
+
+      playgroundsPolicies.addAll(playGame());
+    }
+
+    return playgroundsPolicies;
+  }
+
+  /**
+   * @return the searched playgrounds of one game with their visit distributions
+   */
+  public List<Pair<INDArray, INDArray>> playGame() {
+
+    TicTacToeBitboard position = new TicTacToeBitboard(boardConfiguration);
+    List<Pair<INDArray, INDArray>> playgroundsPolicies = new ArrayList<>();
+
+    for (int moveNumber = 0; !gameEnded(position); moveNumber++) {
+
+      double[] policy = MonteCarloTreeSearch.visitPolicy(treeSearch.search(position), boardConfiguration.getFieldCount());
+      playgroundsPolicies.add(new Pair<>(position.toPlayground(),
+          Nd4j.create(policy, new long[] {1, policy.length}, Nd4j.defaultFloatingPointType())));
+
+      int move = moveNumber < treeSearch.getConfiguration().getTemperatureMoves() ?
+          sampleMove(policy) : bestMove(policy);
+      position.makeMove(move, position.getCurrentPlayer());
+    }
+
+    return playgroundsPolicies;
+  }
+
+  protected int sampleMove(double[] policy) {
+
+    double threshold = random.nextDouble();
+    int lastMove = bestMove(policy);
+    for (int field = 0; field < policy.length; field++) {
+
+      if (policy[field] > 0) {
+
+        threshold -= policy[field];
+        lastMove = field;
+        if (threshold < 0) {
+
+          return field;
+        }
+      }
+    }
+
+    return lastMove;
+  }
+
+  protected static int bestMove(double[] policy) {
+
+    int bestMove = 0;
+    for (int field = 1; field < policy.length; field++) {
+
+      if (policy[field] > policy[bestMove]) {
+
+        bestMove = field;
+      }
+    }
+
+    return bestMove;
+  }
+
+  protected static boolean gameEnded(TicTacToeBitboard position) {
+
+    return position.hasWon(MAX_PLAYER) || position.hasWon(MIN_PLAYER) ||
+        position.noEmptyFieldsLeft();
+  }
+}
@@ -0,0 +1,199 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.mcts;
+
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeBitboard;
+
+/**
+ * Node of the {@link MonteCarloTreeSearch}, reached by move from its parent. Values are
+ * seen from the player who made the move: 1 for a win, 0 for a draw and -1 for a loss.
+ *
+ * Statistics and children are guarded by the node monitor. A node is expanded by the
+ * one thread claiming it, others reaching it meanwhile estimate its value by a rollout.
+ */
+public class MonteCarloTreeNode {
+
+  public static final double WIN_VALUE = 1;
+  public static final double DRAW_VALUE = 0;
+  public static final double LOSS_VALUE = -1;
+
+  protected final int move;
+  protected final double prior;
+  protected final boolean terminal;
+  protected final double terminalValue;
+
+  protected MonteCarloTreeNode[] children;
+  protected boolean expansionClaimed;
+
+  protected int visits;
+  protected double valueSum;
+  protected int virtualLosses;
+
+  /**
+   * @param move the field played to reach this node, -1 for the root
+   */
+  public MonteCarloTreeNode(int move, double prior, boolean terminal, double terminalValue) {
+
+    this.move = move;
+    this.prior = prior;
+    this.terminal = terminal;
+    this.terminalValue = terminalValue;
+  }
+
+  public static MonteCarloTreeNode root() {
+
+    return new MonteCarloTreeNode(-1, 1, false, DRAW_VALUE);
+  }
+
+  /**
+   * @return true for the one caller allowed to expand this node
+   */
+  public synchronized boolean claimExpansion() {
+
+    if (expansionClaimed) {
+
+      return false;
+    }
+
+    expansionClaimed = true;
+    return true;
+  }
+
+  /**
+   * Creates one child per empty field of position with the normalized priors, children
+   * ending the game are marked terminal.
+   */
+  public void expand(TicTacToeBitboard position, double[] priors) {
+
+    int emptyMask = position.getEmptyMask();
+    double player = position.getCurrentPlayer();
+
+    double priorSum = 0;
+    for (int empty = emptyMask; empty != 0; empty &= empty - 1) {
+
+      priorSum += Math.max(0, priors[Integer.numberOfTrailingZeros(empty)]);
+    }
+
+    MonteCarloTreeNode[] newChildren = new MonteCarloTreeNode[Integer.bitCount(emptyMask)];
+    int childIndex = 0;
+    for (int empty = emptyMask; empty != 0; empty &= empty - 1) {
+
+      int field = Integer.numberOfTrailingZeros(empty);
+      double childPrior = priorSum > 0 ? Math.max(0, priors[field]) / priorSum : 1.0 / newChildren.length;
+
+      position.makeMove(field, player);
+      boolean won = position.hasWon(player);
+      boolean terminalChild = won || position.noEmptyFieldsLeft();
+      position.undoMove(field);
+
+      newChildren[childIndex++] = new MonteCarloTreeNode(field, childPrior, terminalChild, won ? WIN_VALUE : DRAW_VALUE);
+    }
+
+    synchronized (this) {
+
+      children = newChildren;
+    }
+  }
+
+  /**
+   * @return the child with the highest PUCT score, with a virtual loss added to it
+   */
+  public synchronized MonteCarloTreeNode selectChild(double exploration, int virtualLoss) {
+
+    double explorationVisits = exploration * Math.sqrt(Math.max(1, visits + virtualLosses));
+
+    MonteCarloTreeNode bestChild = null;
+    double bestScore = Double.NEGATIVE_INFINITY;
+    for (MonteCarloTreeNode child : children) {
+
+      double score = child.puctScore(explorationVisits);
+      if (score > bestScore) {
+
+        bestScore = score;
+        bestChild = child;
+      }
+    }
+
+    if (null != bestChild) {
+
+      bestChild.addVirtualLoss(virtualLoss);
+    }
+
+    return bestChild;
+  }
+
+  protected synchronized double puctScore(double explorationVisits) {
+
+    int effectiveVisits = visits + virtualLosses;
+    double meanValue = effectiveVisits > 0 ? (valueSum - virtualLosses) / effectiveVisits : 0;
+
+    return meanValue + prior * explorationVisits / (1 + effectiveVisits);
+  }
+
+  protected synchronized void addVirtualLoss(int virtualLoss) {
+
+    virtualLosses += virtualLoss;
+  }
+
+  /**
+   * Adds a simulation result and removes the virtual loss of its selection.
+   */
+  public synchronized void update(double value, int virtualLoss) {
+
+    virtualLosses -= virtualLoss;
+    visits++;
+    valueSum += value;
+  }
+
+  public synchronized boolean isExpanded() {
+
+    return null != children;
+  }
+
+  public synchronized MonteCarloTreeNode[] getChildren() {
+
+    return children;
+  }
+
+  public int getMove() {
+
+    return move;
+  }
+
+  public double getPrior() {
+
+    return prior;
+  }
+
+  public boolean isTerminal() {
+
+    return terminal;
+  }
+
+  public double getTerminalValue() {
+
+    return terminalValue;
+  }
+
+  public synchronized int getVisits() {
+
+    return visits;
+  }
+
+  /**
+   * @return the virtual losses of the threads searching below this node, 0 after a search
+   */
+  public synchronized int getVirtualLosses() {
+
+    return virtualLosses;
+  }
+
+  public synchronized double getMeanValue() {
+
+    return visits > 0 ? valueSum / visits : 0;
+  }
+
+  @Override
+  public synchronized String toString() {
+
+    return "move " + move + ", prior " + prior + ", visits " + visits + ", mean value " + getMeanValue();
+  }
+}
@@ -0,0 +1,239 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.mcts;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeBitboard;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeGameHelper;
+
+/**
+ * Monte Carlo tree search with PUCT selection guided by the move priors of a
+ * {@link PolicyEvaluator}, e.g. the softmax output of the residual net.
+ *
+ * Several threads simulate on one shared tree. A selected child gets a virtual loss
+ * until its simulation is backed up, so concurrent threads spread over different
+ * branches. A leaf is expanded with the priors of its position, whose evaluation the
+ * {@link BatchedPolicyEvaluator} batches over the waiting threads. The nets have no value
+ * output, the value of a leaf is the result of a random rollout.
+ */
+public class MonteCarloTreeSearch implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(MonteCarloTreeSearch.class);
+
+  protected final PolicyEvaluator policyEvaluator;
+
+  protected final MonteCarloConfiguration configuration;
+
+  protected final ExecutorService searchExecutor;
+
+  public MonteCarloTreeSearch(PolicyEvaluator policyEvaluator, MonteCarloConfiguration configuration) {
+
+    this.policyEvaluator = policyEvaluator;
+    this.configuration = configuration;
+
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.searchExecutor = Executors.newFixedThreadPool(configuration.getThreads(), runnable -> {
+
+      Thread searchThread = new Thread(runnable, "MonteCarloTreeSearch-" + threadNumber.incrementAndGet());
+      searchThread.setDaemon(true);
+      return searchThread;
+    });
+  }
+
+  /**
+   * Runs the configured number of simulations from position, which is left unchanged.
+   *
+   * @return the searched root, its children hold the visit counts per move
+   */
+  public MonteCarloTreeNode search(TicTacToeBitboard position) {
+
+    if (position.hasWon(TicTacToeGameHelper.getOpponentPlayer(position.getCurrentPlayer())) ||
+        position.noEmptyFieldsLeft()) {
+
+      throw new IllegalArgumentException("Game already ended: " + position);
+    }
+
+    // Expand the root up front, threads would otherwise roll out the unexpanded root meanwhile
+    MonteCarloTreeNode root = MonteCarloTreeNode.root();
+    root.claimExpansion();
+    root.expand(position, policyEvaluator.evaluate(position));
+    AtomicInteger startedSimulations = new AtomicInteger();
+
+    List<Future<?>> searchThreads = new ArrayList<>(configuration.getThreads());
+    for (int thread = 0; thread < configuration.getThreads(); thread++) {
+
+      searchThreads.add(searchExecutor.submit(() -> {
+
+        while (startedSimulations.getAndIncrement() < configuration.getSimulations()) {
+
+          simulate(root, copyOf(position));
+        }
+      }));
+    }
+
+    for (Future<?> searchThread : searchThreads) {
+
+      awaitSearch(searchThread);
+    }
+
+    return root;
+  }
+
+  /**
+   * @return the visit counts of the moves normalized to a distribution over all fields
+   */
+  public double[] searchPolicy(TicTacToeBitboard position) {
+
+    return visitPolicy(search(position), position.getConfiguration().getFieldCount());
+  }
+
+  /**
+   * @return the most visited move
+   */
+  public int searchMove(TicTacToeBitboard position) {
+
+    return mostVisitedMove(search(position));
+  }
+
+  public static double[] visitPolicy(MonteCarloTreeNode root, int fieldCount) {
+
+    double[] policy = new double[fieldCount];
+    int rootVisits = 0;
+    for (MonteCarloTreeNode child : root.getChildren()) {
+
+      policy[child.getMove()] = child.getVisits();
+      rootVisits += child.getVisits();
+    }
+
+    for (int field = 0; field < fieldCount && rootVisits > 0; field++) {
+
+      policy[field] /= rootVisits;
+    }
+
+    return policy;
+  }
+
+  public static int mostVisitedMove(MonteCarloTreeNode root) {
+
+    MonteCarloTreeNode mostVisitedChild = null;
+    for (MonteCarloTreeNode child : root.getChildren()) {
+
+      if (null == mostVisitedChild || child.getVisits() > mostVisitedChild.getVisits()) {
+
+        mostVisitedChild = child;
+      }
+    }
+
+    return mostVisitedChild.getMove();
+  }
+
+  @Override
+  public void close() {
+
+    searchExecutor.shutdownNow();
+  }
+
+  public MonteCarloConfiguration getConfiguration() {
+
+    return configuration;
+  }
+
+  /**
+   * Selects down to a leaf, expands or rolls it out and backs the value up the path.
+   */
+  protected void simulate(MonteCarloTreeNode root, TicTacToeBitboard position) {
+
+    List<MonteCarloTreeNode> path = new ArrayList<>();
+    path.add(root);
+    MonteCarloTreeNode node = root;
+
+    while (node.isExpanded() && !node.isTerminal()) {
+
+      node = node.selectChild(configuration.getExploration(), configuration.getVirtualLoss());
+      position.makeMove(node.getMove(), position.getCurrentPlayer());
+      path.add(node);
+    }
+
+    double value;
+    if (node.isTerminal()) {
+
+      value = node.getTerminalValue();
+
+    } else if (node.claimExpansion()) {
+
+      node.expand(position, policyEvaluator.evaluate(position));
+      value = rollout(position);
+
+    } else {
+
+      logger.trace("Leaf {} expanded by another thread, roll out", node);
+      value = rollout(position);
+    }
+
+    for (int index = path.size() - 1; index >= 0; index--) {
+
+      path.get(index).update(value, index > 0 ? configuration.getVirtualLoss() : 0);
+      value = -value;
+    }
+  }
+
+  /**
+   * Plays random moves to the end of the game.
+   *
+   * @return the result seen from the player who made the last move before position
+   */
+  protected static double rollout(TicTacToeBitboard position) {
+
+    double lastPlayer = TicTacToeGameHelper.getOpponentPlayer(position.getCurrentPlayer());
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+
+    while (!position.noEmptyFieldsLeft()) {
+
+      double player = position.getCurrentPlayer();
+      int emptyMask = position.getEmptyMask();
+      for (int skip = random.nextInt(Integer.bitCount(emptyMask)); skip > 0; skip--) {
+
+        emptyMask &= emptyMask - 1;
+      }
+      position.makeMove(Integer.numberOfTrailingZeros(emptyMask), player);
+
+      if (position.hasWon(player)) {
+
+        return player == lastPlayer ? MonteCarloTreeNode.WIN_VALUE : MonteCarloTreeNode.LOSS_VALUE;
+      }
+    }
+
+    return MonteCarloTreeNode.DRAW_VALUE;
+  }
+
+  protected static TicTacToeBitboard copyOf(TicTacToeBitboard position) {
+
+    return new TicTacToeBitboard(position.getConfiguration(), position.getMaxStones(), position.getMinStones());
+  }
+
+  protected static void awaitSearch(Future<?> searchThread) {
+
+    try {
+
+      searchThread.get();
+
+    } catch (InterruptedException ie) {
+
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted waiting for the search threads", ie);
+
+    } catch (ExecutionException ee) {
+
+      throw new IllegalStateException("Search thread failed", ee.getCause());
+    }
+  }
+}
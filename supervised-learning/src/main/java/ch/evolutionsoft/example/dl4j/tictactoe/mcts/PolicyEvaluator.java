@@ -0,0 +1,31 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.mcts;
+
+import java.util.Arrays;
+
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeBitboard;
+
+/**
+ * Move priors of a playground for the {@link MonteCarloTreeSearch}. The search threads
+ * call it concurrently, implementations have to be thread safe.
+ */
+public interface PolicyEvaluator {
+
+  /**
+   * @return one non negative prior per field of the board, occupied fields are ignored,
+   *   the array may be cached and must not be modified
+   */
+  double[] evaluate(TicTacToeBitboard position);
+
+  /**
+   * @return equal priors for all fields, a plain MCTS guided by rollouts only
+   */
+  static PolicyEvaluator uniform() {
+
+    return position -> {
+
+      double[] priors = new double[position.getConfiguration().getFieldCount()];
+      Arrays.fill(priors, 1);
+      return priors;
+    };
+  }
+}
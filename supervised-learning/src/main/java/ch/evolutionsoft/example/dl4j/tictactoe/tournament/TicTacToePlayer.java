@@ -0,0 +1,106 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.tournament;
+
+import java.util.Random;
+
+import ch.evolutionsoft.example.dl4j.tictactoe.mcts.PolicyEvaluator;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeBitboard;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeMiniMaxOracle;
+
+/**
+ * Player of a {@link TicTacToeTournament}. The games run concurrently, implementations
+ * have to be thread safe and take all randomness from the given random of the game.
+ */
+public interface TicTacToePlayer {
+
+  String getName();
+
+  /**
+   * @return an empty field of position, which is a running game with the player to move
+   */
+  int selectMove(TicTacToeBitboard position, Random random);
+
+  /**
+   * @return a player of uniformly random moves
+   */
+  static TicTacToePlayer random() {
+
+    return new TicTacToePlayer() {
+
+      @Override
+      public String getName() {
+
+        return "random";
+      }
+
+      @Override
+      public int selectMove(TicTacToeBitboard position, Random random) {
+
+        return randomField(position.getEmptyMask(), random);
+      }
+    };
+  }
+
+  /**
+   * @return a perfect player choosing randomly between the best moves of the oracle
+   */
+  static TicTacToePlayer perfect(TicTacToeMiniMaxOracle oracle) {
+
+    return new TicTacToePlayer() {
+
+      @Override
+      public String getName() {
+
+        return "minimax";
+      }
+
+      @Override
+      public int selectMove(TicTacToeBitboard position, Random random) {
+
+        return randomField(oracle.getBestMoveMask(position.toBase3Index()), random);
+      }
+    };
+  }
+
+  /**
+   * @return a player of the empty field with the highest prior, e.g. the output of a trained net
+   */
+  static TicTacToePlayer policy(String name, PolicyEvaluator policyEvaluator) {
+
+    return new TicTacToePlayer() {
+
+      @Override
+      public String getName() {
+
+        return name;
+      }
+
+      @Override
+      public int selectMove(TicTacToeBitboard position, Random random) {
+
+        double[] priors = policyEvaluator.evaluate(position);
+
+        int bestMove = -1;
+        for (int empty = position.getEmptyMask(); empty != 0; empty &= empty - 1) {
+
+          int field = Integer.numberOfTrailingZeros(empty);
+          if (bestMove < 0 || priors[field] > priors[bestMove]) {
+
+            bestMove = field;
+          }
+        }
+
+        return bestMove;
+      }
+    };
+  }
+
+  static int randomField(int fieldMask, Random random) {
+
+    for (int skip = random.nextInt(Integer.bitCount(fieldMask)); skip > 0; skip--) {
+
+      fieldMask &= fieldMask - 1;
+    }
+
+    return Integer.numberOfTrailingZeros(fieldMask);
+  }
+}
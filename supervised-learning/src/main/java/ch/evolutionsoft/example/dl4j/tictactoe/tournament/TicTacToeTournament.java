@@ -0,0 +1,368 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.tournament;
+
+import static ch.evolutionsoft.net.game.tictactoe.TicTacToeConstants.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.evolutionsoft.example.dl4j.tictactoe.inference.MicroBatchPredictor;
+import ch.evolutionsoft.example.dl4j.tictactoe.inference.TicTacToeInferenceServer;
+import ch.evolutionsoft.example.dl4j.tictactoe.mcts.BatchedPolicyEvaluator;
+import ch.evolutionsoft.net.game.NeuralNetConstants;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeBitboard;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeMiniMaxOracle;
+
+/**
+ * Plays full games between each pairing of {@link TicTacToePlayer}s on the 3x3 board.
+ *
+ * The games of a pairing run in parallel on a thread pool, alternating which player
+ * starts, each with its own random seeded by the game number. Every move is checked
+ * against the {@link TicTacToeMiniMaxOracle}: a move changing the perfect play outcome
+ * of the game to the disadvantage of its player is counted as blunder.
+ *
+ * The number of games per pairing and the threads are read from the system properties
+ * tournament.games and tournament.threads.
+ */
+public class TicTacToeTournament implements AutoCloseable {
+
+  public static final String GAMES_PROPERTY = "tournament.games";
+  public static final String THREADS_PROPERTY = "tournament.threads";
+
+  public static final int DEFAULT_GAMES = 100;
+
+  private static final Logger logger = LoggerFactory.getLogger(TicTacToeTournament.class);
+
+  protected final TicTacToeMiniMaxOracle oracle;
+
+  protected final ExecutorService gameExecutor;
+
+  public TicTacToeTournament(TicTacToeMiniMaxOracle oracle, int threads) {
+
+    if (threads <= 0) {
+
+      throw new IllegalArgumentException("Invalid threads " + threads);
+    }
+
+    this.oracle = oracle;
+
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.gameExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+
+      Thread gameThread = new Thread(runnable, "TicTacToeTournament-" + threadNumber.incrementAndGet());
+      gameThread.setDaemon(true);
+      return gameThread;
+    });
+  }
+
+  /**
+   * Plays the trained nets, if their model files exist, the perfect MiniMax player and a
+   * random player against each other.
+   *
+   * @param arguments optionally the feedforward and the convolutional model file
+   */
+  public static void main(String[] arguments) throws IOException {
+
+    String feedForwardModelFile = arguments.length > 0 ? arguments[0] :
+      TicTacToeInferenceServer.FEED_FORWARD_MODEL_FILE;
+    String convolutionalModelFile = arguments.length > 1 ? arguments[1] :
+      TicTacToeInferenceServer.CONVOLUTIONAL_MODEL_FILE;
+
+    int threads = Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors());
+    int games = Integer.getInteger(GAMES_PROPERTY, DEFAULT_GAMES);
+
+    List<TicTacToePlayer> players = new ArrayList<>();
+    List<BatchedPolicyEvaluator> policyEvaluators = new ArrayList<>();
+
+    try (TicTacToeTournament tournament = new TicTacToeTournament(TicTacToeMiniMaxOracle.getInstance(), threads)) {
+
+      addNetPlayer("feedforward", false, feedForwardModelFile, threads, players, policyEvaluators);
+      addNetPlayer("convolutional", true, convolutionalModelFile, threads, players, policyEvaluators);
+      players.add(TicTacToePlayer.perfect(TicTacToeMiniMaxOracle.getInstance()));
+      players.add(TicTacToePlayer.random());
+
+      logger.info("Play {} games per pairing on {} threads", games, threads);
+
+      List<PairingResult> pairingResults = tournament.play(players, games);
+
+      long totalGames = 0;
+      long totalNanos = 0;
+      for (PairingResult pairingResult : pairingResults) {
+
+        logger.info("{}", pairingResult);
+        totalGames += pairingResult.getGames();
+        totalNanos += pairingResult.getElapsedNanos();
+      }
+
+      logger.info("{} games at {} games/s", totalGames, String.format("%.1f", gamesPerSecond(totalGames, totalNanos)));
+
+    } finally {
+
+      for (BatchedPolicyEvaluator policyEvaluator : policyEvaluators) {
+
+        policyEvaluator.close();
+      }
+    }
+  }
+
+  /**
+   * @return the results of each pairing of two different players
+   */
+  public List<PairingResult> play(List<TicTacToePlayer> players, int gamesPerPairing) {
+
+    List<PairingResult> pairingResults = new ArrayList<>();
+    for (int first = 0; first < players.size(); first++) {
+
+      for (int second = first + 1; second < players.size(); second++) {
+
+        pairingResults.add(playPairing(players.get(first), players.get(second), gamesPerPairing));
+      }
+    }
+
+    return pairingResults;
+  }
+
+  /**
+   * Plays the games in parallel, first starts the games with even numbers.
+   */
+  public PairingResult playPairing(TicTacToePlayer first, TicTacToePlayer second, int games) {
+
+    long startNanos = System.nanoTime();
+
+    List<Future<GameRecord>> futureGames = new ArrayList<>(games);
+    for (int game = 0; game < games; game++) {
+
+      boolean firstStarts = game % 2 == 0;
+      Random random = new Random(NeuralNetConstants.DEFAULT_SEED + game);
+      futureGames.add(gameExecutor.submit(() -> playGame(first, second, firstStarts, random)));
+    }
+
+    PairingResult pairingResult = new PairingResult(first.getName(), second.getName());
+    for (Future<GameRecord> futureGame : futureGames) {
+
+      pairingResult.add(awaitGame(futureGame));
+    }
+    pairingResult.elapsedNanos = System.nanoTime() - startNanos;
+
+    return pairingResult;
+  }
+
+  @Override
+  public void close() {
+
+    gameExecutor.shutdownNow();
+  }
+
+  protected GameRecord playGame(TicTacToePlayer first, TicTacToePlayer second, boolean firstStarts, Random random) {
+
+    TicTacToeBitboard position = new TicTacToeBitboard();
+    GameRecord gameRecord = new GameRecord();
+    double firstPlayer = firstStarts ? MAX_PLAYER : MIN_PLAYER;
+
+    while (!position.noEmptyFieldsLeft()) {
+
+      double player = position.getCurrentPlayer();
+      boolean firstMoves = player == firstPlayer;
+      TicTacToePlayer mover = firstMoves ? first : second;
+
+      int outcomeBefore = Integer.signum(oracle.getValue(position.toBase3Index()));
+      int move = mover.selectMove(position, random);
+      if (move < 0 || move >= COLUMN_COUNT || !position.isEmpty(move)) {
+
+        throw new IllegalStateException(mover.getName() + " played invalid move " + move + " at " + position);
+      }
+
+      position.makeMove(move, player);
+      boolean blunder = Integer.signum(oracle.getValue(position.toBase3Index())) != outcomeBefore;
+      gameRecord.addMove(firstMoves, blunder);
+
+      if (position.hasWon(player)) {
+
+        gameRecord.firstOutcome = firstMoves ? 1 : -1;
+        return gameRecord;
+      }
+    }
+
+    return gameRecord;
+  }
+
+  static void addNetPlayer(String name, boolean convolutional, String modelFile, int threads,
+      List<TicTacToePlayer> players, List<BatchedPolicyEvaluator> policyEvaluators) throws IOException {
+
+    if (!new File(modelFile).isFile()) {
+
+      logger.warn("Skip {} net, model file {} not found", name, modelFile);
+      return;
+    }
+
+    BatchedPolicyEvaluator policyEvaluator = new BatchedPolicyEvaluator(
+        TicTacToeInferenceServer.loadModel(convolutional, modelFile), threads,
+        MicroBatchPredictor.DEFAULT_MAX_WAIT_MICROS);
+    policyEvaluators.add(policyEvaluator);
+    players.add(TicTacToePlayer.policy(name, policyEvaluator));
+  }
+
+  static GameRecord awaitGame(Future<GameRecord> futureGame) {
+
+    try {
+
+      return futureGame.get();
+
+    } catch (InterruptedException ie) {
+
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted waiting for the tournament games", ie);
+
+    } catch (ExecutionException ee) {
+
+      throw new IllegalStateException("Tournament game failed", ee.getCause());
+    }
+  }
+
+  static double gamesPerSecond(long games, long nanos) {
+
+    return nanos > 0 ? games * 1e9 / nanos : 0;
+  }
+
+  static class GameRecord {
+
+    int firstOutcome;
+
+    int firstMoves;
+    int firstBlunders;
+    int secondMoves;
+    int secondBlunders;
+
+    void addMove(boolean firstMoved, boolean blunder) {
+
+      if (firstMoved) {
+
+        firstMoves++;
+        firstBlunders += blunder ? 1 : 0;
+
+      } else {
+
+        secondMoves++;
+        secondBlunders += blunder ? 1 : 0;
+      }
+    }
+  }
+
+  /**
+   * Wins, draws and losses of the first player against the second and the blunders of both.
+   */
+  public static class PairingResult {
+
+    protected final String firstName;
+    protected final String secondName;
+
+    protected int wins;
+    protected int draws;
+    protected int losses;
+
+    protected long firstMoves;
+    protected long firstBlunders;
+    protected long secondMoves;
+    protected long secondBlunders;
+
+    protected long elapsedNanos;
+
+    public PairingResult(String firstName, String secondName) {
+
+      this.firstName = firstName;
+      this.secondName = secondName;
+    }
+
+    void add(GameRecord gameRecord) {
+
+      if (gameRecord.firstOutcome > 0) {
+
+        wins++;
+
+      } else if (gameRecord.firstOutcome < 0) {
+
+        losses++;
+
+      } else {
+
+        draws++;
+      }
+
+      firstMoves += gameRecord.firstMoves;
+      firstBlunders += gameRecord.firstBlunders;
+      secondMoves += gameRecord.secondMoves;
+      secondBlunders += gameRecord.secondBlunders;
+    }
+
+    public String getFirstName() {
+
+      return firstName;
+    }
+
+    public String getSecondName() {
+
+      return secondName;
+    }
+
+    public int getWins() {
+
+      return wins;
+    }
+
+    public int getDraws() {
+
+      return draws;
+    }
+
+    public int getLosses() {
+
+      return losses;
+    }
+
+    public int getGames() {
+
+      return wins + draws + losses;
+    }
+
+    /**
+     * @return the share of the moves of the first player which were blunders
+     */
+    public double getFirstBlunderRate() {
+
+      return firstMoves > 0 ? (double) firstBlunders / firstMoves : 0;
+    }
+
+    public double getSecondBlunderRate() {
+
+      return secondMoves > 0 ? (double) secondBlunders / secondMoves : 0;
+    }
+
+    public long getElapsedNanos() {
+
+      return elapsedNanos;
+    }
+
+    public double getGamesPerSecond() {
+
+      return gamesPerSecond(getGames(), elapsedNanos);
+    }
+
+    @Override
+    public String toString() {
+
+      return String.format("%s vs %s: %d wins, %d draws, %d losses, blunder rate %.4f vs %.4f, %.1f games/s",
+          firstName, secondName, wins, draws, losses, getFirstBlunderRate(), getSecondBlunderRate(),
+          getGamesPerSecond());
+    }
+  }
+}
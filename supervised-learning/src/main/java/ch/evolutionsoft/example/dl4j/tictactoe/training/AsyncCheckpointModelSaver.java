@@ -0,0 +1,271 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.training;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.deeplearning4j.earlystopping.EarlyStoppingModelSaver;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.util.ModelSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the best and latest model in memory like an InMemoryModelSaver and checkpoints
+ * them to disk on a background thread, so that training does not wait for serialization.
+ *
+ * Every best and latest model is copied with parameters and updater state. New best
+ * models and every checkpointEveryNEpochs-th latest model are written to a temporary
+ * file, atomically renamed to its checkpoint file. The best model goes to
+ * baseName-best.bin, the periodic ones to baseName-epochN.bin, of which the last
+ * checkpointHistory files are kept. Latest models are only saved with
+ * saveLastModel(true) and count evaluated epochs.
+ *
+ * With an {@link AsyncScoreCalculator} set, the best model is the snapshot that scored
+ * the best score instead of the network under training, see
+ * {@link #setScoreCalculator(AsyncScoreCalculator)}.
+ *
+ * A queued best model is replaced by a newer one, a periodic checkpoint is skipped while
+ * the previous one is not yet written. Write failures are logged and thrown by
+ * {@link #close()}, which waits for the pending writes.
+ */
+public class AsyncCheckpointModelSaver<T extends Model> implements EarlyStoppingModelSaver<T>, Closeable {
+
+  private static final long serialVersionUID = -3052178264815549127L;
+
+  public static final String DIRECTORY_PROPERTY = "training.checkpointDirectory";
+  public static final String EVERY_N_EPOCHS_PROPERTY = "training.checkpointEveryNEpochs";
+  public static final String HISTORY_PROPERTY = "training.checkpointHistory";
+
+  public static final String DEFAULT_DIRECTORY = "checkpoints";
+  public static final int DEFAULT_EVERY_N_EPOCHS = 10;
+  public static final int DEFAULT_HISTORY = 3;
+
+  private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+  private static final Logger logger = LoggerFactory.getLogger(AsyncCheckpointModelSaver.class);
+
+  protected final String directory;
+  protected final String baseName;
+  protected final int checkpointEveryNEpochs;
+  protected final int checkpointHistory;
+
+  protected final transient ExecutorService checkpointExecutor = Executors.newSingleThreadExecutor(runnable -> {
+
+    Thread checkpointThread = new Thread(runnable, "AsyncCheckpointModelSaver");
+    checkpointThread.setDaemon(true);
+    return checkpointThread;
+  });
+
+  protected final transient Deque<Path> writtenCheckpoints = new ArrayDeque<>();
+
+  protected transient AsyncScoreCalculator<T> scoreCalculator;
+
+  protected transient T bestModel;
+  protected transient T latestModel;
+
+  protected transient Future<?> pendingBestCheckpoint;
+  protected transient Future<?> pendingCheckpoint;
+
+  protected transient volatile IOException writeFailure;
+
+  protected int savedLatestModels;
+
+  /**
+   * @param checkpointEveryNEpochs 0 writes the best models only
+   */
+  public AsyncCheckpointModelSaver(String directory, String baseName, int checkpointEveryNEpochs,
+      int checkpointHistory) {
+
+    if (checkpointEveryNEpochs < 0 || checkpointHistory <= 0) {
+
+      throw new IllegalArgumentException("Invalid checkpoint every " + checkpointEveryNEpochs +
+          " epochs or history " + checkpointHistory);
+    }
+
+    this.directory = directory;
+    this.baseName = baseName;
+    this.checkpointEveryNEpochs = checkpointEveryNEpochs;
+    this.checkpointHistory = checkpointHistory;
+  }
+
+  public static <T extends Model> AsyncCheckpointModelSaver<T> fromSystemProperties(String baseName) {
+
+    return new AsyncCheckpointModelSaver<>(
+        System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY),
+        baseName,
+        Integer.getInteger(EVERY_N_EPOCHS_PROPERTY, DEFAULT_EVERY_N_EPOCHS),
+        Integer.getInteger(HISTORY_PROPERTY, DEFAULT_HISTORY));
+  }
+
+  /**
+   * @param scoreCalculator the calculator of the scores passed to
+   * {@link #saveBestModel(Model, double)}, which holds the model they belong to
+   */
+  public synchronized void setScoreCalculator(AsyncScoreCalculator<T> scoreCalculator) {
+
+    this.scoreCalculator = scoreCalculator;
+  }
+
+  @Override
+  public synchronized void saveBestModel(T network, double score) {
+
+    T scoredModel = null != scoreCalculator ? scoreCalculator.copyOfScoredModel(network) : null;
+    bestModel = null != scoredModel ? scoredModel : ModelSnapshots.copyOf(network);
+
+    if (null != pendingBestCheckpoint && pendingBestCheckpoint.cancel(false)) {
+
+      logger.debug("Replace queued best model checkpoint");
+    }
+
+    T snapshot = bestModel;
+    pendingBestCheckpoint = checkpointExecutor.submit(() -> {
+
+      if (write(snapshot, getBestModelFile())) {
+
+        logger.info("Best model with score {} checkpointed", score);
+      }
+    });
+  }
+
+  @Override
+  public synchronized void saveLatestModel(T network, double score) {
+
+    savedLatestModels++;
+    latestModel = ModelSnapshots.copyOf(network);
+
+    if (checkpointEveryNEpochs == 0 || savedLatestModels % checkpointEveryNEpochs != 0) {
+
+      return;
+    }
+
+    if (null != pendingCheckpoint && !pendingCheckpoint.isDone()) {
+
+      logger.debug("Previous checkpoint still written, skip epoch {}", savedLatestModels);
+      return;
+    }
+
+    T snapshot = latestModel;
+    Path checkpointFile = getDirectory().resolve(baseName + "-epoch" + savedLatestModels + ".bin");
+    pendingCheckpoint = checkpointExecutor.submit(() -> {
+
+      if (write(snapshot, checkpointFile)) {
+
+        removeOldCheckpoints(checkpointFile);
+      }
+    });
+  }
+
+  @Override
+  public synchronized T getBestModel() {
+
+    return bestModel;
+  }
+
+  @Override
+  public synchronized T getLatestModel() {
+
+    return latestModel;
+  }
+
+  public Path getBestModelFile() {
+
+    return getDirectory().resolve(baseName + "-best.bin");
+  }
+
+  public Path getDirectory() {
+
+    return Paths.get(directory);
+  }
+
+  /**
+   * Waits for the pending checkpoints to be written.
+   *
+   * @throws IOException the first failed checkpoint write
+   */
+  @Override
+  public void close() throws IOException {
+
+    checkpointExecutor.shutdown();
+
+    try {
+
+      checkpointExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+    } catch (InterruptedException ie) {
+
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for model checkpoints");
+    }
+
+    if (null != writeFailure) {
+
+      throw writeFailure;
+    }
+  }
+
+  /**
+   * @return false if the checkpoint could not be written
+   */
+  protected boolean write(T snapshot, Path checkpointFile) {
+
+    Path temporaryFile = checkpointFile.resolveSibling(checkpointFile.getFileName() + TEMPORARY_FILE_SUFFIX);
+
+    try {
+
+      Files.createDirectories(checkpointFile.toAbsolutePath().getParent());
+      ModelSerializer.writeModel(snapshot, temporaryFile.toFile(), true);
+      Files.move(temporaryFile, checkpointFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+      logger.info("Checkpoint {} written", checkpointFile);
+      return true;
+
+    } catch (IOException ioe) {
+
+      logger.error("Checkpoint {} could not be written", checkpointFile, ioe);
+      if (null == writeFailure) {
+
+        writeFailure = ioe;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Runs on the checkpoint thread only, after checkpointFile is written.
+   */
+  protected void removeOldCheckpoints(Path checkpointFile) {
+
+    writtenCheckpoints.addLast(checkpointFile);
+
+    while (writtenCheckpoints.size() > checkpointHistory) {
+
+      Path oldCheckpoint = writtenCheckpoints.removeFirst();
+      try {
+
+        Files.deleteIfExists(oldCheckpoint);
+
+      } catch (IOException ioe) {
+
+        logger.warn("Old checkpoint {} could not be removed", oldCheckpoint, ioe);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+
+    return "checkpoints of " + baseName + " in " + directory + " every " + checkpointEveryNEpochs +
+        " epochs, history " + checkpointHistory;
+  }
+}
@@ -0,0 +1,177 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.training;
+
+import java.io.Closeable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.deeplearning4j.earlystopping.scorecalc.ScoreCalculator;
+import org.deeplearning4j.nn.api.Model;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Calculates the score of a wrapped {@link ScoreCalculator} on a background thread,
+ * so that training goes on while the validation examples are scored.
+ *
+ * Each call copies the current parameters into a snapshot and, unless an evaluation is
+ * still running, scores it on one daemon thread with an own clone of the network. The
+ * call returns the last completed score, only the very first one waits for its result.
+ * Early stopping thus decides on a score lagging one evaluation behind the network.
+ *
+ * The returned score belongs to the parameters of {@link #copyOfScoredModel(Model)},
+ * taken at call number {@link #getScoredCall()}, which a model saver has to keep as
+ * best model instead of the network passed along with the score.
+ */
+public class AsyncScoreCalculator<T extends Model> implements ScoreCalculator<T>, Closeable {
+
+  private static final long serialVersionUID = 4139208318457113520L;
+
+  private static final Logger logger = LoggerFactory.getLogger(AsyncScoreCalculator.class);
+
+  protected final ScoreCalculator<? super T> scoreCalculator;
+
+  protected final transient ExecutorService evaluationExecutor = Executors.newSingleThreadExecutor(runnable -> {
+
+    Thread evaluationThread = new Thread(runnable, "AsyncScoreCalculator");
+    evaluationThread.setDaemon(true);
+    return evaluationThread;
+  });
+
+  protected transient T evaluationModel;
+
+  protected transient Future<Double> runningEvaluation;
+
+  protected transient INDArray runningParameters;
+
+  protected transient INDArray scoredParameters;
+
+  protected int calls;
+
+  protected int runningCall;
+
+  protected int scoredCall;
+
+  protected boolean scored;
+
+  protected double lastScore = Double.NaN;
+
+  public AsyncScoreCalculator(ScoreCalculator<? super T> scoreCalculator) {
+
+    this.scoreCalculator = scoreCalculator;
+  }
+
+  @Override
+  public synchronized double calculateScore(T network) {
+
+    calls++;
+
+    if (null != runningEvaluation && runningEvaluation.isDone()) {
+
+      collectRunningEvaluation();
+    }
+
+    if (null == runningEvaluation) {
+
+      if (null == evaluationModel) {
+
+        evaluationModel = ModelSnapshots.copyOf(network);
+      }
+
+      INDArray parameterSnapshot = network.params().dup();
+      runningParameters = parameterSnapshot;
+      runningCall = calls;
+      runningEvaluation = evaluationExecutor.submit(() -> {
+
+        evaluationModel.setParams(parameterSnapshot);
+        return scoreCalculator.calculateScore(evaluationModel);
+      });
+
+    } else {
+
+      logger.debug("Previous evaluation still running, skip snapshot");
+    }
+
+    if (!scored) {
+
+      collectRunningEvaluation();
+    }
+
+    return lastScore;
+  }
+
+  protected void collectRunningEvaluation() {
+
+    lastScore = completedScore(runningEvaluation);
+    scoredParameters = runningParameters;
+    scoredCall = runningCall;
+    scored = true;
+
+    runningEvaluation = null;
+    runningParameters = null;
+  }
+
+  @Override
+  public boolean minimizeScore() {
+
+    return scoreCalculator.minimizeScore();
+  }
+
+  public synchronized double getLastScore() {
+
+    return lastScore;
+  }
+
+  /**
+   * @return the 1 based number of the {@link #calculateScore(Model)} call whose network
+   * parameters scored the last score, 0 before the first call
+   */
+  public synchronized int getScoredCall() {
+
+    return scoredCall;
+  }
+
+  /**
+   * @param network the network under training, copied with its configuration and
+   * updater state
+   * @return a copy of network with the parameters that scored the last score, null
+   * before the first call
+   */
+  public synchronized T copyOfScoredModel(T network) {
+
+    if (!scored) {
+
+      return null;
+    }
+
+    T scoredModel = ModelSnapshots.copyOf(network);
+    scoredModel.setParams(scoredParameters);
+
+    return scoredModel;
+  }
+
+  @Override
+  public void close() {
+
+    evaluationExecutor.shutdownNow();
+  }
+
+  protected static double completedScore(Future<Double> evaluation) {
+
+    try {
+
+      return evaluation.get();
+
+    } catch (InterruptedException ie) {
+
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted waiting for the validation score", ie);
+
+    } catch (ExecutionException ee) {
+
+      throw new IllegalStateException("Validation score calculation failed", ee.getCause());
+    }
+  }
+}
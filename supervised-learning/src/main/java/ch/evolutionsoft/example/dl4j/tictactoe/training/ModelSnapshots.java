@@ -0,0 +1,35 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.training;
+
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+
+/**
+ * Copies of a network under training, used by the background score calculation and
+ * model saving.
+ */
+public final class ModelSnapshots {
+
+  private ModelSnapshots() {
+    // Hide constructor
+  }
+
+  /**
+   * @return a copy of the network with duplicated parameters and updater state, that
+   * another thread may use while training goes on
+   */
+  @SuppressWarnings("unchecked")
+  public static <T extends Model> T copyOf(T network) {
+
+    if (network instanceof ComputationGraph) {
+
+      return (T) ((ComputationGraph) network).clone();
+
+    } else if (network instanceof MultiLayerNetwork) {
+
+      return (T) ((MultiLayerNetwork) network).clone();
+    }
+
+    throw new IllegalArgumentException("Unsupported model " + network.getClass().getName());
+  }
+}
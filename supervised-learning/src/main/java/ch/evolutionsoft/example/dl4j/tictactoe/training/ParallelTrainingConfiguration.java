@@ -0,0 +1,139 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.training;
+
+import org.deeplearning4j.datasets.iterator.impl.ListDataSetIterator;
+import org.deeplearning4j.earlystopping.EarlyStoppingConfiguration;
+import org.deeplearning4j.earlystopping.trainer.IEarlyStoppingTrainer;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.parallelism.EarlyStoppingParallelTrainer;
+import org.deeplearning4j.parallelism.ParallelWrapper;
+import org.nd4j.linalg.dataset.api.DataSet;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+
+/**
+ * Opt in data parallel training with {@link ParallelWrapper}, one model replica per
+ * worker with parameters averaged every averaging frequency mini batches.
+ *
+ * Enabled by the system property training.parallel=true, the number of workers,
+ * averaging frequency and prefetch buffer are read from training.workers,
+ * training.averagingFrequency and training.prefetchBuffer. Without it the mains train
+ * sequentially as before.
+ */
+public class ParallelTrainingConfiguration {
+
+  public static final String ENABLED_PROPERTY = "training.parallel";
+  public static final String WORKERS_PROPERTY = "training.workers";
+  public static final String AVERAGING_FREQUENCY_PROPERTY = "training.averagingFrequency";
+  public static final String PREFETCH_BUFFER_PROPERTY = "training.prefetchBuffer";
+
+  public static final int MIN_PARALLEL_WORKERS = 2;
+  public static final int DEFAULT_AVERAGING_FREQUENCY = 1;
+  public static final int DEFAULT_PREFETCH_BUFFER_PER_WORKER = 2;
+
+  public static final ParallelTrainingConfiguration SEQUENTIAL = new ParallelTrainingConfiguration(false, 1, 1, 0);
+
+  protected final boolean enabled;
+  protected final int workers;
+  protected final int averagingFrequency;
+  protected final int prefetchBuffer;
+
+  public ParallelTrainingConfiguration(boolean enabled, int workers, int averagingFrequency, int prefetchBuffer) {
+
+    if (workers <= 0 || (enabled && workers < MIN_PARALLEL_WORKERS) || averagingFrequency <= 0 || prefetchBuffer < 0) {
+
+      throw new IllegalArgumentException("Invalid workers " + workers + ", averaging frequency " +
+          averagingFrequency + " or prefetch buffer " + prefetchBuffer);
+    }
+
+    this.enabled = enabled;
+    this.workers = workers;
+    this.averagingFrequency = averagingFrequency;
+    this.prefetchBuffer = prefetchBuffer;
+  }
+
+  /**
+   * @return the settings of the training.* system properties, defaults to one worker per core
+   */
+  public static ParallelTrainingConfiguration fromSystemProperties() {
+
+    int workers = Integer.getInteger(WORKERS_PROPERTY,
+        Math.max(MIN_PARALLEL_WORKERS, Runtime.getRuntime().availableProcessors()));
+
+    return new ParallelTrainingConfiguration(
+        Boolean.getBoolean(ENABLED_PROPERTY),
+        workers,
+        Integer.getInteger(AVERAGING_FREQUENCY_PROPERTY, DEFAULT_AVERAGING_FREQUENCY),
+        Integer.getInteger(PREFETCH_BUFFER_PROPERTY, DEFAULT_PREFETCH_BUFFER_PER_WORKER * workers));
+  }
+
+  /**
+   * @return the mini batch size splitting a batch evenly among all workers, the
+   * unchanged batch size for sequential training
+   */
+  public int getMiniBatchSize(int batchSize) {
+
+    if (!enabled) {
+
+      return batchSize;
+    }
+
+    return Math.max(1, (batchSize + workers - 1) / workers);
+  }
+
+  /**
+   * @return an iterator over batch split into mini batches of {@link #getMiniBatchSize(int)},
+   * one per worker
+   */
+  public DataSetIterator createMiniBatchIterator(DataSet batch) {
+
+    // The batch of a ListDataSetIterator is the number of list elements merged per next()
+    return new ListDataSetIterator<>(batch.batchBy(getMiniBatchSize(batch.numExamples())), 1);
+  }
+
+  public ParallelWrapper createParallelWrapper(Model model) {
+
+    return new ParallelWrapper.Builder<>(model)
+        .workers(workers)
+        .averagingFrequency(averagingFrequency)
+        .prefetchBuffer(prefetchBuffer)
+        .reportScoreAfterAveraging(true)
+        .trainingMode(ParallelWrapper.TrainingMode.AVERAGING)
+        .build();
+  }
+
+  /**
+   * @return an early stopping trainer fitting by a {@link ParallelWrapper}, score
+   * calculation and model saving work as for the sequential trainers
+   */
+  public <T extends Model> IEarlyStoppingTrainer<T> createEarlyStoppingTrainer(
+      EarlyStoppingConfiguration<T> earlyStoppingConfiguration, T model, DataSetIterator dataSetIterator) {
+
+    return new EarlyStoppingParallelTrainer<>(earlyStoppingConfiguration, model, dataSetIterator, null,
+        workers, prefetchBuffer, averagingFrequency);
+  }
+
+  public boolean isEnabled() {
+
+    return enabled;
+  }
+
+  public int getWorkers() {
+
+    return workers;
+  }
+
+  public int getAveragingFrequency() {
+
+    return averagingFrequency;
+  }
+
+  public int getPrefetchBuffer() {
+
+    return prefetchBuffer;
+  }
+
+  @Override
+  public String toString() {
+
+    return "workers " + workers + ", averaging frequency " + averagingFrequency + ", prefetch buffer " + prefetchBuffer;
+  }
+}
@@ -0,0 +1,84 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.training;
+
+import static ch.evolutionsoft.net.game.NeuralNetConstants.DEFAULT_SEED;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.nd4j.common.primitives.Pair;
+
+/**
+ * Splits the examples into training and held out validation examples, validation
+ * fraction read from the system property training.validationFraction.
+ *
+ * The split shuffles with the default seed and is thus the same for every run on the
+ * same examples. A fraction of 0 keeps all examples for training, early stopping then
+ * scores the training examples as before.
+ */
+public class TrainingValidationSplit {
+
+  public static final String VALIDATION_FRACTION_PROPERTY = "training.validationFraction";
+
+  public static final double DEFAULT_VALIDATION_FRACTION = 0.1;
+
+  protected final double validationFraction;
+
+  public TrainingValidationSplit(double validationFraction) {
+
+    if (validationFraction < 0 || validationFraction >= 1) {
+
+      throw new IllegalArgumentException("Invalid validation fraction " + validationFraction);
+    }
+
+    this.validationFraction = validationFraction;
+  }
+
+  public static TrainingValidationSplit fromSystemProperties() {
+
+    return fromSystemProperties(DEFAULT_VALIDATION_FRACTION);
+  }
+
+  /**
+   * @param defaultValidationFraction the fraction without training.validationFraction set
+   */
+  public static TrainingValidationSplit fromSystemProperties(double defaultValidationFraction) {
+
+    return new TrainingValidationSplit(Double.parseDouble(
+        System.getProperty(VALIDATION_FRACTION_PROPERTY, String.valueOf(defaultValidationFraction))));
+  }
+
+  /**
+   * @return the training examples first and the validation examples second, both in
+   * shuffled order
+   */
+  public <T> Pair<List<T>, List<T>> split(List<T> examples) {
+
+    List<T> shuffledExamples = new ArrayList<>(examples);
+    Collections.shuffle(shuffledExamples, new Random(DEFAULT_SEED));
+
+    int validationSize = (int) Math.round(examples.size() * validationFraction);
+    int trainingSize = shuffledExamples.size() - validationSize;
+
+    return new Pair<>(
+        new ArrayList<>(shuffledExamples.subList(0, trainingSize)),
+        new ArrayList<>(shuffledExamples.subList(trainingSize, shuffledExamples.size())));
+  }
+
+  public boolean isEnabled() {
+
+    return validationFraction > 0;
+  }
+
+  public double getValidationFraction() {
+
+    return validationFraction;
+  }
+
+  @Override
+  public String toString() {
+
+    return "validation fraction " + validationFraction;
+  }
+}
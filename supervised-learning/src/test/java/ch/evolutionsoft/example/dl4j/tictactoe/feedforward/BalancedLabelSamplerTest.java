@@ -0,0 +1,87 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.feedforward;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.api.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+
+import ch.evolutionsoft.net.game.NeuralNetConstants;
+
+public class BalancedLabelSamplerTest {
+
+  private static final int[] ROW_CLASSES = {0, 0, 1, 0, 2, 0, 2, 1, 0, 2};
+
+  private static final int NUMBER_OF_CLASSES = 4;
+
+  @Test
+  public void sampleHoldsSmallestBucketOfEveryClass() {
+
+    BalancedLabelSampler sampler = createSampler();
+
+    assertArrayEquals(new int[] {5, 2, 3, 0}, sampler.getClassCounts());
+    assertEquals(2, sampler.getExamplesPerClass());
+    assertEquals(6, sampler.getSampleSize());
+
+    for (int sample = 0; sample < 20; sample++) {
+
+      DataSet dataSet = sampler.sample();
+      int[] labelClasses = dataSet.getLabels().argMax(1).toIntVector();
+      int[] sampledRows = dataSet.getFeatures().getColumn(0).toIntVector();
+
+      int[] sampledClassCounts = new int[NUMBER_OF_CLASSES];
+      Set<Integer> distinctRows = new HashSet<>();
+      for (int index = 0; index < sampledRows.length; index++) {
+
+        // Features and labels of a sampled row stay together
+        assertEquals(ROW_CLASSES[sampledRows[index]], labelClasses[index]);
+        assertTrue(distinctRows.add(sampledRows[index]));
+        sampledClassCounts[labelClasses[index]]++;
+      }
+
+      assertArrayEquals(new int[] {2, 2, 2, 0}, sampledClassCounts);
+    }
+  }
+
+  @Test
+  public void samplesPermuteRows() {
+
+    BalancedLabelSampler sampler = createSampler();
+
+    Set<String> sampledOrders = new HashSet<>();
+    Set<Integer> sampledRows = new HashSet<>();
+    for (int sample = 0; sample < 50; sample++) {
+
+      int[] rows = sampler.sample().getFeatures().getColumn(0).toIntVector();
+      sampledOrders.add(Arrays.toString(rows));
+      for (int row : rows) {
+
+        sampledRows.add(row);
+      }
+    }
+
+    assertTrue(sampledOrders.size() > 1);
+    assertEquals(ROW_CLASSES.length, sampledRows.size());
+  }
+
+  static BalancedLabelSampler createSampler() {
+
+    INDArray features = Nd4j.zeros(ROW_CLASSES.length, 2);
+    INDArray labels = Nd4j.zeros(ROW_CLASSES.length, NUMBER_OF_CLASSES);
+    for (int row = 0; row < ROW_CLASSES.length; row++) {
+
+      features.putScalar(row, 0, row);
+      labels.putScalar(row, ROW_CLASSES[row], 1);
+    }
+
+    return new BalancedLabelSampler(features, labels, new Random(NeuralNetConstants.DEFAULT_SEED));
+  }
+}
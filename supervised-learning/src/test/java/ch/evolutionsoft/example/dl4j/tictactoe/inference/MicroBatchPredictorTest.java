@@ -0,0 +1,93 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.inference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+public class MicroBatchPredictorTest {
+
+  private static final long TIMEOUT_SECONDS = 10;
+
+  @Test
+  public void batchesUpToMaxSize() throws Exception {
+
+    List<Long> batchSizes = new ArrayList<>();
+    try (MicroBatchPredictor predictor = new MicroBatchPredictor(batchFeatures -> {
+
+      batchSizes.add(batchFeatures.size(0));
+      return batchFeatures.mul(2);
+
+    }, 4, TimeUnit.SECONDS.toMicros(TIMEOUT_SECONDS))) {
+
+      List<CompletableFuture<INDArray>> futureOutputs = new ArrayList<>();
+      for (int example = 0; example < 8; example++) {
+
+        futureOutputs.add(predictor.predict(Nd4j.createFromArray(new double[][] {{example, -example}})));
+      }
+
+      for (int example = 0; example < 8; example++) {
+
+        INDArray output = futureOutputs.get(example).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(Nd4j.createFromArray(new double[][] {{2.0 * example, -2.0 * example}}), output);
+      }
+
+      assertEquals(2, batchSizes.size());
+      assertEquals(4L, batchSizes.get(0).longValue());
+      assertEquals(4L, batchSizes.get(1).longValue());
+    }
+  }
+
+  @Test
+  public void deadlineDispatchesPartialBatch() throws Exception {
+
+    try (MicroBatchPredictor predictor = new MicroBatchPredictor(batchFeatures -> batchFeatures.add(1),
+        MicroBatchPredictor.DEFAULT_MAX_BATCH_SIZE, MicroBatchPredictor.DEFAULT_MAX_WAIT_MICROS)) {
+
+      INDArray output = predictor.predict(Nd4j.createFromArray(new double[][] {{1, 2}}))
+          .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+      assertEquals(Nd4j.createFromArray(new double[][] {{2.0, 3.0}}), output);
+    }
+  }
+
+  @Test
+  public void closeCompletesPendingPredictions() throws Exception {
+
+    CountDownLatch batchStarted = new CountDownLatch(1);
+    MicroBatchPredictor predictor = new MicroBatchPredictor(batchFeatures -> {
+
+      batchStarted.countDown();
+      try {
+        // Block the dispatcher until close interrupts it
+        new CountDownLatch(1).await();
+
+      } catch (InterruptedException ie) {
+
+        Thread.currentThread().interrupt();
+      }
+      return batchFeatures;
+
+    }, 1, 0);
+
+    CompletableFuture<INDArray> runningPrediction = predictor.predict(Nd4j.zeros(1, 2));
+    assertTrue(batchStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    CompletableFuture<INDArray> pendingPrediction = predictor.predict(Nd4j.zeros(1, 2));
+
+    predictor.close();
+
+    assertTrue(runningPrediction.isDone());
+    assertFalse(runningPrediction.isCompletedExceptionally());
+    assertTrue(pendingPrediction.isCompletedExceptionally());
+    assertTrue(predictor.predict(Nd4j.zeros(1, 2)).isCompletedExceptionally());
+  }
+}
@@ -0,0 +1,79 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.inference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+import org.junit.jupiter.api.Test;
+
+public class PredictionCacheTest {
+
+  @Test
+  public void leastRecentlyUsedEvicted() {
+
+    PredictionCache<String> cache = new PredictionCache<>(2, 1);
+    AtomicInteger predictions = new AtomicInteger();
+    LongFunction<String> predict = positionIndex -> {
+
+      predictions.incrementAndGet();
+      return "prediction " + positionIndex;
+    };
+
+    cache.get(1, predict);
+    cache.get(2, predict);
+    assertEquals("prediction 1", cache.get(1, predict));
+    cache.get(3, predict);
+
+    assertEquals(3, predictions.get());
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.getEvictions());
+
+    cache.get(1, predict);
+    cache.get(3, predict);
+    assertEquals(3, predictions.get());
+
+    assertEquals("prediction 2", cache.get(2, predict));
+    assertEquals(4, predictions.get());
+    assertEquals(3, cache.getHits());
+    assertEquals(4, cache.getMisses());
+  }
+
+  @Test
+  public void invalidationDropsOldModelPredictions() {
+
+    PredictionCache<String> cache = new PredictionCache<>();
+    cache.get(1, positionIndex -> "old model");
+
+    cache.invalidateAll();
+    assertEquals(0, cache.size());
+    assertEquals("new model", cache.get(1, positionIndex -> "new model"));
+
+    // The model is reloaded while the prediction of the old one is made
+    String predictionDuringReload = cache.get(2, positionIndex -> {
+
+      cache.invalidateAll();
+      return "old model";
+    });
+
+    assertEquals("old model", predictionDuringReload);
+    assertEquals(0, cache.size());
+    assertEquals("new model", cache.get(2, positionIndex -> "new model"));
+    assertEquals(2, cache.getInvalidations());
+  }
+
+  @Test
+  public void stripesShareMaxSize() {
+
+    PredictionCache<Long> cache = new PredictionCache<>(100, 3);
+
+    for (long positionIndex = 0; positionIndex < 1000; positionIndex++) {
+
+      cache.get(positionIndex, Long::valueOf);
+    }
+
+    assertTrue(cache.size() <= 100);
+    assertEquals(1000 - cache.size(), cache.getEvictions());
+  }
+}
@@ -0,0 +1,70 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.mcts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeBitboard;
+
+public class MonteCarloTreeNodeTest {
+
+  @Test
+  public void expandNormalizesPriorsAndMarksWins() {
+
+    // X X .
+    // O O .
+    // . . .
+    TicTacToeBitboard position = new TicTacToeBitboard(
+        TicTacToeBitboard.fieldMask(0, 1), TicTacToeBitboard.fieldMask(3, 4));
+    double[] priors = new double[] {5, 5, 2, 5, 5, 1, 0, 1, 1};
+
+    MonteCarloTreeNode root = MonteCarloTreeNode.root();
+    assertTrue(root.claimExpansion());
+    assertFalse(root.claimExpansion());
+    root.expand(position, priors);
+
+    MonteCarloTreeNode[] children = root.getChildren();
+    assertEquals(5, children.length);
+
+    double priorSum = 0;
+    for (MonteCarloTreeNode child : children) {
+
+      priorSum += child.getPrior();
+      assertEquals(2 == child.getMove(), child.isTerminal());
+    }
+    assertEquals(1, priorSum, 1e-9);
+
+    assertEquals(2, children[0].getMove());
+    assertEquals(0.4, children[0].getPrior(), 1e-9);
+    assertEquals(MonteCarloTreeNode.WIN_VALUE, children[0].getTerminalValue(), 0);
+    assertEquals(0, children[2].getPrior(), 0);
+  }
+
+  @Test
+  public void updateRemovesVirtualLoss() {
+
+    MonteCarloTreeNode root = MonteCarloTreeNode.root();
+    root.claimExpansion();
+    root.expand(new TicTacToeBitboard(), PolicyEvaluator.uniform().evaluate(new TicTacToeBitboard()));
+
+    MonteCarloTreeNode selectedChild = root.selectChild(MonteCarloConfiguration.DEFAULT_EXPLORATION, 3);
+    assertEquals(3, selectedChild.getVirtualLosses());
+
+    // The virtual loss steers the next selection to another child
+    MonteCarloTreeNode otherChild = root.selectChild(MonteCarloConfiguration.DEFAULT_EXPLORATION, 3);
+    assertNotSame(selectedChild, otherChild);
+
+    selectedChild.update(MonteCarloTreeNode.WIN_VALUE, 3);
+    otherChild.update(MonteCarloTreeNode.LOSS_VALUE, 3);
+
+    assertEquals(0, selectedChild.getVirtualLosses());
+    assertEquals(1, selectedChild.getVisits());
+    assertEquals(MonteCarloTreeNode.WIN_VALUE, selectedChild.getMeanValue(), 0);
+    assertEquals(0, otherChild.getVirtualLosses());
+    assertSame(selectedChild, root.selectChild(MonteCarloConfiguration.DEFAULT_EXPLORATION, 0));
+  }
+}
@@ -0,0 +1,85 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.mcts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeBitboard;
+
+public class MonteCarloTreeSearchTest {
+
+  private static final MonteCarloConfiguration CONFIGURATION = new MonteCarloConfiguration(2000, 4,
+      MonteCarloConfiguration.DEFAULT_EXPLORATION, MonteCarloConfiguration.DEFAULT_VIRTUAL_LOSS, 0);
+
+  @Test
+  public void immediateWinFound() {
+
+    // X X .
+    // O O .
+    // . . .
+    TicTacToeBitboard position = new TicTacToeBitboard(
+        TicTacToeBitboard.fieldMask(0, 1), TicTacToeBitboard.fieldMask(3, 4));
+
+    try (MonteCarloTreeSearch search = new MonteCarloTreeSearch(PolicyEvaluator.uniform(), CONFIGURATION)) {
+
+      assertEquals(2, search.searchMove(position));
+    }
+  }
+
+  @Test
+  public void immediateLossBlocked() {
+
+    // X X .
+    // . O .
+    // . . .
+    TicTacToeBitboard position = new TicTacToeBitboard(
+        TicTacToeBitboard.fieldMask(0, 1), TicTacToeBitboard.fieldMask(4));
+
+    try (MonteCarloTreeSearch search = new MonteCarloTreeSearch(PolicyEvaluator.uniform(), CONFIGURATION)) {
+
+      assertEquals(2, search.searchMove(position));
+    }
+  }
+
+  @Test
+  public void virtualLossesRemovedAfterSearch() {
+
+    TicTacToeBitboard position = new TicTacToeBitboard();
+
+    try (MonteCarloTreeSearch search = new MonteCarloTreeSearch(PolicyEvaluator.uniform(), CONFIGURATION)) {
+
+      MonteCarloTreeNode root = search.search(position);
+
+      assertEquals(CONFIGURATION.getSimulations(), root.getVisits());
+      assertEquals(0, countVirtualLosses(root));
+      assertEquals(new TicTacToeBitboard(), position);
+    }
+  }
+
+  @Test
+  public void endedGameRejected() {
+
+    TicTacToeBitboard position = new TicTacToeBitboard(
+        TicTacToeBitboard.fieldMask(0, 1, 2), TicTacToeBitboard.fieldMask(3, 4));
+
+    try (MonteCarloTreeSearch search = new MonteCarloTreeSearch(PolicyEvaluator.uniform(), CONFIGURATION)) {
+
+      assertThrows(IllegalArgumentException.class, () -> search.search(position));
+    }
+  }
+
+  static int countVirtualLosses(MonteCarloTreeNode node) {
+
+    int virtualLosses = node.getVirtualLosses();
+    if (node.isExpanded()) {
+
+      for (MonteCarloTreeNode child : node.getChildren()) {
+
+        virtualLosses += countVirtualLosses(child);
+      }
+    }
+
+    return virtualLosses;
+  }
+}
@@ -0,0 +1,82 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.tournament;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeBitboard;
+import ch.evolutionsoft.net.game.tictactoe.TicTacToeMiniMaxOracle;
+
+public class TicTacToeTournamentTest {
+
+  private static final int GAMES = 20;
+
+  @Test
+  public void perfectPlayersDrawWithoutBlunders() {
+
+    TicTacToePlayer perfect = TicTacToePlayer.perfect(TicTacToeMiniMaxOracle.getInstance());
+
+    try (TicTacToeTournament tournament = new TicTacToeTournament(TicTacToeMiniMaxOracle.getInstance(), 4)) {
+
+      TicTacToeTournament.PairingResult pairingResult = tournament.playPairing(perfect, perfect, GAMES);
+
+      assertEquals(GAMES, pairingResult.getGames());
+      assertEquals(GAMES, pairingResult.getDraws());
+      assertEquals(0, pairingResult.getFirstBlunderRate(), 0);
+      assertEquals(0, pairingResult.getSecondBlunderRate(), 0);
+    }
+  }
+
+  @Test
+  public void blundersOfWeakPlayerCounted() {
+
+    TicTacToePlayer perfect = TicTacToePlayer.perfect(TicTacToeMiniMaxOracle.getInstance());
+
+    try (TicTacToeTournament tournament = new TicTacToeTournament(TicTacToeMiniMaxOracle.getInstance(), 4)) {
+
+      List<TicTacToeTournament.PairingResult> pairingResults =
+          tournament.play(Arrays.asList(perfect, TicTacToePlayer.random(), lowestFieldPlayer()), GAMES);
+
+      assertEquals(3, pairingResults.size());
+
+      for (TicTacToeTournament.PairingResult pairingResult : pairingResults.subList(0, 2)) {
+
+        assertEquals(GAMES, pairingResult.getGames());
+        assertEquals(0, pairingResult.getLosses());
+        assertEquals(0, pairingResult.getFirstBlunderRate(), 0);
+      }
+
+      TicTacToeTournament.PairingResult lowestFieldResult = pairingResults.get(1);
+      assertEquals("lowest field", lowestFieldResult.getSecondName());
+      assertTrue(lowestFieldResult.getWins() > 0);
+      assertTrue(lowestFieldResult.getSecondBlunderRate() > 0);
+    }
+  }
+
+  /**
+   * Plays the empty field with the lowest index, which leaves the diagonal threat of a
+   * perfect second player open.
+   */
+  static TicTacToePlayer lowestFieldPlayer() {
+
+    return new TicTacToePlayer() {
+
+      @Override
+      public String getName() {
+
+        return "lowest field";
+      }
+
+      @Override
+      public int selectMove(TicTacToeBitboard position, Random random) {
+
+        return Integer.numberOfTrailingZeros(position.getEmptyMask());
+      }
+    };
+  }
+}
@@ -0,0 +1,121 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.training;
+
+import static ch.evolutionsoft.example.dl4j.tictactoe.training.AsyncScoreCalculatorTest.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.util.ModelSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class AsyncCheckpointModelSaverTest {
+
+  private static final long TIMEOUT_SECONDS = 10;
+
+  private static final String BASE_NAME = "TestNet";
+
+  @TempDir
+  Path checkpointDirectory;
+
+  @Test
+  public void latestModelKeptEveryEpoch() throws Exception {
+
+    MultiLayerNetwork network = createNetwork(0);
+    AsyncCheckpointModelSaver<MultiLayerNetwork> modelSaver =
+        new AsyncCheckpointModelSaver<>(checkpointDirectory.toString(), BASE_NAME, 2, 3);
+
+    for (int epoch = 1; epoch <= 3; epoch++) {
+
+      network.params().assign(epoch);
+      modelSaver.saveLatestModel(network, epoch);
+      awaitPendingCheckpoints(modelSaver);
+
+      assertEquals(epoch, modelSaver.getLatestModel().params().getDouble(0), 0.0);
+    }
+
+    modelSaver.close();
+
+    assertFalse(Files.exists(checkpointFile(1)));
+    assertTrue(Files.exists(checkpointFile(2)));
+    assertFalse(Files.exists(checkpointFile(3)));
+    assertEquals(2.0, ModelSerializer.restoreMultiLayerNetwork(checkpointFile(2).toFile())
+        .params().getDouble(0), 0.0);
+  }
+
+  @Test
+  public void oldCheckpointsRemoved() throws Exception {
+
+    MultiLayerNetwork network = createNetwork(0);
+    AsyncCheckpointModelSaver<MultiLayerNetwork> modelSaver =
+        new AsyncCheckpointModelSaver<>(checkpointDirectory.toString(), BASE_NAME, 1, 2);
+
+    for (int epoch = 1; epoch <= 4; epoch++) {
+
+      modelSaver.saveLatestModel(network, epoch);
+      awaitPendingCheckpoints(modelSaver);
+    }
+
+    modelSaver.close();
+
+    assertFalse(Files.exists(checkpointFile(1)));
+    assertFalse(Files.exists(checkpointFile(2)));
+    assertTrue(Files.exists(checkpointFile(3)));
+    assertTrue(Files.exists(checkpointFile(4)));
+  }
+
+  @Test
+  public void bestModelIsScoredSnapshot() throws Exception {
+
+    FirstParameterScoreCalculator scoreCalculator = new FirstParameterScoreCalculator();
+    scoreCalculator.evaluationPermits.release();
+    MultiLayerNetwork network = createNetwork(1);
+    AsyncCheckpointModelSaver<MultiLayerNetwork> modelSaver =
+        new AsyncCheckpointModelSaver<>(checkpointDirectory.toString(), BASE_NAME, 0, 1);
+
+    try (AsyncScoreCalculator<MultiLayerNetwork> asyncScoreCalculator =
+        new AsyncScoreCalculator<>(scoreCalculator)) {
+
+      modelSaver.setScoreCalculator(asyncScoreCalculator);
+
+      network.params().assign(2);
+      asyncScoreCalculator.calculateScore(network);
+      scoreCalculator.evaluationPermits.release();
+
+      network.params().assign(3);
+      asyncScoreCalculator.calculateScore(network);
+      awaitRunningEvaluation(asyncScoreCalculator);
+
+      network.params().assign(4);
+      double score = asyncScoreCalculator.calculateScore(network);
+      modelSaver.saveBestModel(network, score);
+
+      assertEquals(3.0, score, 0.0);
+      assertEquals(3.0, modelSaver.getBestModel().params().getDouble(0), 0.0);
+    }
+
+    modelSaver.close();
+
+    assertEquals(3.0, ModelSerializer.restoreMultiLayerNetwork(modelSaver.getBestModelFile().toFile())
+        .params().getDouble(0), 0.0);
+  }
+
+  Path checkpointFile(int epoch) {
+
+    return checkpointDirectory.resolve(BASE_NAME + "-epoch" + epoch + ".bin");
+  }
+
+  /**
+   * Waits for the checkpoints submitted so far, the single checkpoint thread writes them
+   * in order.
+   */
+  static void awaitPendingCheckpoints(AsyncCheckpointModelSaver<?> modelSaver) throws Exception {
+
+    modelSaver.checkpointExecutor.submit(() -> {}).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+  }
+}
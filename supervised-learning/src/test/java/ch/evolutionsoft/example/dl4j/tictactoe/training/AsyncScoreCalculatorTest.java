@@ -0,0 +1,149 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.training;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.deeplearning4j.earlystopping.scorecalc.ScoreCalculator;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.junit.jupiter.api.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.lossfunctions.LossFunctions.LossFunction;
+
+public class AsyncScoreCalculatorTest {
+
+  private static final long TIMEOUT_SECONDS = 10;
+
+  @Test
+  public void firstCallWaitsForScore() {
+
+    FirstParameterScoreCalculator scoreCalculator = new FirstParameterScoreCalculator();
+    scoreCalculator.evaluationPermits.release();
+    MultiLayerNetwork network = createNetwork(1);
+
+    try (AsyncScoreCalculator<MultiLayerNetwork> asyncScoreCalculator =
+        new AsyncScoreCalculator<>(scoreCalculator)) {
+
+      assertNull(asyncScoreCalculator.copyOfScoredModel(network));
+
+      assertEquals(1.0, asyncScoreCalculator.calculateScore(network), 0.0);
+      assertEquals(1, asyncScoreCalculator.getScoredCall());
+      assertEquals(network.params(), asyncScoreCalculator.copyOfScoredModel(network).params());
+    }
+  }
+
+  @Test
+  public void scoreBelongsToScoredModel() throws Exception {
+
+    FirstParameterScoreCalculator scoreCalculator = new FirstParameterScoreCalculator();
+    scoreCalculator.evaluationPermits.release();
+    MultiLayerNetwork network = createNetwork(1);
+
+    try (AsyncScoreCalculator<MultiLayerNetwork> asyncScoreCalculator =
+        new AsyncScoreCalculator<>(scoreCalculator)) {
+
+      asyncScoreCalculator.calculateScore(network);
+
+      network.params().assign(2);
+      assertEquals(1.0, asyncScoreCalculator.calculateScore(network), 0.0);
+
+      network.params().assign(3);
+      assertEquals(1.0, asyncScoreCalculator.calculateScore(network), 0.0);
+      assertEquals(1, asyncScoreCalculator.getScoredCall());
+      assertEquals(1.0, asyncScoreCalculator.copyOfScoredModel(network).params().getDouble(0), 0.0);
+
+      scoreCalculator.evaluationPermits.release();
+      awaitRunningEvaluation(asyncScoreCalculator);
+
+      network.params().assign(4);
+      assertEquals(2.0, asyncScoreCalculator.calculateScore(network), 0.0);
+      assertEquals(2, asyncScoreCalculator.getScoredCall());
+      assertEquals(2.0, asyncScoreCalculator.copyOfScoredModel(network).params().getDouble(0), 0.0);
+      assertEquals(4.0, network.params().getDouble(0), 0.0);
+    }
+  }
+
+  @Test
+  public void nanScoreDoesNotBlock() {
+
+    FirstParameterScoreCalculator scoreCalculator = new FirstParameterScoreCalculator();
+    scoreCalculator.evaluationPermits.release();
+    MultiLayerNetwork network = createNetwork(Double.NaN);
+
+    try (AsyncScoreCalculator<MultiLayerNetwork> asyncScoreCalculator =
+        new AsyncScoreCalculator<>(scoreCalculator)) {
+
+      assertTrue(Double.isNaN(asyncScoreCalculator.calculateScore(network)));
+
+      network.params().assign(1);
+      double score = assertTimeoutPreemptively(Duration.ofSeconds(TIMEOUT_SECONDS),
+          () -> asyncScoreCalculator.calculateScore(network));
+
+      assertTrue(Double.isNaN(score));
+      assertEquals(1, asyncScoreCalculator.getScoredCall());
+    }
+  }
+
+  static MultiLayerNetwork createNetwork(double parameterValue) {
+
+    MultiLayerNetwork network = new MultiLayerNetwork(new NeuralNetConfiguration.Builder()
+        .list()
+        .layer(new OutputLayer.Builder(LossFunction.MCXENT)
+            .nIn(2)
+            .nOut(2)
+            .activation(Activation.SOFTMAX)
+            .build())
+        .build());
+    network.init();
+    network.params().assign(parameterValue);
+
+    return network;
+  }
+
+  /**
+   * Waits until the evaluation submitted last has completed, the single evaluation
+   * thread runs the tasks in order.
+   */
+  static void awaitRunningEvaluation(AsyncScoreCalculator<?> asyncScoreCalculator) throws Exception {
+
+    asyncScoreCalculator.evaluationExecutor.submit(() -> {}).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Scores the first network parameter, each evaluation waits for a permit.
+   */
+  static class FirstParameterScoreCalculator implements ScoreCalculator<MultiLayerNetwork> {
+
+    private static final long serialVersionUID = 1L;
+
+    final Semaphore evaluationPermits = new Semaphore(0);
+
+    @Override
+    public double calculateScore(MultiLayerNetwork network) {
+
+      try {
+        evaluationPermits.acquire();
+
+      } catch (InterruptedException ie) {
+
+        Thread.currentThread().interrupt();
+        return Double.NaN;
+      }
+
+      return network.params().getDouble(0);
+    }
+
+    @Override
+    public boolean minimizeScore() {
+
+      return true;
+    }
+  }
+}
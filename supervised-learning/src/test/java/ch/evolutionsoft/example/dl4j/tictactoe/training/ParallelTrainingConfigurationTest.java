@@ -0,0 +1,52 @@
+package ch.evolutionsoft.example.dl4j.tictactoe.training;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+
+public class ParallelTrainingConfigurationTest {
+
+  @Test
+  public void miniBatchPerWorker() {
+
+    ParallelTrainingConfiguration parallelTraining = new ParallelTrainingConfiguration(true, 4, 1, 8);
+
+    List<Integer> miniBatchSizes = miniBatchSizes(parallelTraining.createMiniBatchIterator(createDataSet(1539)));
+
+    assertEquals(4, miniBatchSizes.size());
+    assertEquals(385, miniBatchSizes.get(0).intValue());
+    assertEquals(384, miniBatchSizes.get(3).intValue());
+  }
+
+  @Test
+  public void sequentialTrainingKeepsBatch() {
+
+    List<Integer> miniBatchSizes = miniBatchSizes(
+        ParallelTrainingConfiguration.SEQUENTIAL.createMiniBatchIterator(createDataSet(10)));
+
+    assertEquals(1, miniBatchSizes.size());
+    assertEquals(10, miniBatchSizes.get(0).intValue());
+  }
+
+  static DataSet createDataSet(int examples) {
+
+    return new DataSet(Nd4j.rand(examples, 9), Nd4j.rand(examples, 9));
+  }
+
+  static List<Integer> miniBatchSizes(DataSetIterator miniBatchIterator) {
+
+    List<Integer> miniBatchSizes = new ArrayList<>();
+    while (miniBatchIterator.hasNext()) {
+
+      miniBatchSizes.add(miniBatchIterator.next().numExamples());
+    }
+
+    return miniBatchSizes;
+  }
+}